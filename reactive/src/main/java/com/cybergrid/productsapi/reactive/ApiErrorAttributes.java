@@ -0,0 +1,30 @@
+package com.cybergrid.productsapi.reactive;
+
+import java.util.Map;
+import org.springframework.boot.web.error.ErrorAttributeOptions;
+import org.springframework.boot.web.reactive.error.DefaultErrorAttributes;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Puts the reason of a {@link ResponseStatusException} in the error response, like the main
+ * application's {@code ApiErrorHandler}. Other errors keep Spring Boot's default body.
+ */
+@Component
+public class ApiErrorAttributes extends DefaultErrorAttributes {
+
+  @Override
+  public Map<String, Object> getErrorAttributes(
+      ServerRequest request,
+      ErrorAttributeOptions options) {
+    Map<String, Object> attributes = super.getErrorAttributes(request, options);
+    // Servlet error responses have no request id, keep both modes' bodies the same.
+    attributes.remove("requestId");
+
+    if (getError(request) instanceof ResponseStatusException ex && ex.getReason() != null) {
+      attributes.put("error", ex.getReason());
+    }
+    return attributes;
+  }
+}
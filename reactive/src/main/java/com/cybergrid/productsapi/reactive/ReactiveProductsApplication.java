@@ -0,0 +1,12 @@
+package com.cybergrid.productsapi.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class ReactiveProductsApplication {
+
+  public static void main(String[] args) {
+    SpringApplication.run(ReactiveProductsApplication.class, args);
+  }
+}
@@ -0,0 +1,213 @@
+package com.cybergrid.productsapi.reactive.handlers;
+
+import com.cybergrid.productsapi.controllers.ProductCursor;
+import com.cybergrid.productsapi.controllers.ProductETags;
+import com.cybergrid.productsapi.dto.ProductRequest;
+import com.cybergrid.productsapi.dto.ProductResponse;
+import com.cybergrid.productsapi.reactive.mappers.ProductMapper;
+import com.cybergrid.productsapi.reactive.services.ProductsService;
+import com.cybergrid.productsapi.repositories.ProductQuery;
+import com.cybergrid.productsapi.repositories.ProductSort;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux handlers serving the same {@code api/v1/products} contract as the main application's
+ * {@code ProductsController}: query parameters, cursors, ETags, {@code If-Match} and response
+ * bodies all match.
+ *
+ * <p>A page is collected before it's written, since its ETag and next link are headers that
+ * depend on every product on it. Pages are bounded by {@code limit}, while exports are
+ * unbounded and streamed with backpressure instead.
+ */
+@Component
+public class ProductsHandler {
+  private static final String DEFAULT_SORT = "id";
+  private static final int DEFAULT_LIMIT = 100;
+
+  private final ProductsService productsService;
+  private final Validator validator;
+
+  public ProductsHandler(ProductsService productsService, Validator validator) {
+    this.productsService = productsService;
+    this.validator = validator;
+  }
+
+  /**
+   * Returns a page of products, optionally filtered by name prefix and price range.
+   *
+   * <p>{@code sort} is one of {@code id}, {@code name} or {@code price}, prefixed with
+   * {@code -} for descending order. When the page is full, a {@code Link} header with
+   * {@code rel="next"} points at the following page. A matching {@code If-None-Match} is
+   * answered with 304 by WebFlux.
+   */
+  public Mono<ServerResponse> getProducts(ServerRequest request) {
+    String sort = request.queryParam("sort").orElse(DEFAULT_SORT);
+    int limit = request.queryParam("limit").map(ProductsHandler::parseInt).orElse(DEFAULT_LIMIT);
+
+    boolean descending = sort.startsWith("-");
+    ProductSort sortBy = ProductSort
+        .fromProperty(descending ? sort.substring(1) : sort)
+        .orElseThrow(() -> new ResponseStatusException(
+            HttpStatus.BAD_REQUEST,
+            "Unknown sort property"));
+
+    ProductQuery query = new ProductQuery(
+        request.queryParam("name").orElse(null),
+        request.queryParam("minPrice").map(ProductsHandler::parseDecimal).orElse(null),
+        request.queryParam("maxPrice").map(ProductsHandler::parseDecimal).orElse(null),
+        sortBy,
+        descending,
+        limit);
+    request.queryParam("after").ifPresent(after -> ProductCursor.apply(after, query));
+
+    return productsService.getProducts(query)
+        .map(ProductMapper::toResponse)
+        .collectList()
+        .flatMap(products -> {
+          ServerResponse.BodyBuilder response = ServerResponse.ok()
+              .contentType(MediaType.APPLICATION_JSON)
+              .eTag(ProductETags.of(products));
+          // A short page means there's nothing left to read, so there is no next link.
+          if (products.size() == limit) {
+            String cursor = ProductCursor.encode(query, products.getLast());
+            response.header(HttpHeaders.LINK, nextLink(request, cursor));
+          }
+          return response.bodyValue(products);
+        });
+  }
+
+  /**
+   * Streams the whole catalog as newline-delimited JSON.
+   *
+   * <p>Products are read from the database as the client consumes them, so neither memory use
+   * nor threads depend on the catalog size or on how slow the client is.
+   */
+  public Mono<ServerResponse> exportProducts(ServerRequest request) {
+    return ServerResponse.ok()
+        .contentType(MediaType.APPLICATION_NDJSON)
+        .body(
+            productsService.exportProducts().map(ProductMapper::toResponse),
+            ProductResponse.class);
+  }
+
+  public Mono<ServerResponse> getProductById(ServerRequest request) {
+    return productsService.getProductById(productId(request))
+        .map(ProductMapper::toResponse)
+        .flatMap(product -> ServerResponse.ok()
+            .eTag(ProductETags.of(product))
+            .bodyValue(product));
+  }
+
+  public Mono<ServerResponse> createProduct(ServerRequest request) {
+    return body(request)
+        .flatMap(body -> productsService.createProduct(ProductMapper.toEntity(body)))
+        .map(ProductMapper::toResponse)
+        .flatMap(product -> {
+          URI location = UriComponentsBuilder
+              .fromUri(request.uri())
+              .path("/{id}")
+              .buildAndExpand(product.getId())
+              .toUri();
+
+          // return 201 Created with a Location header and product in response body.
+          return ServerResponse.created(location)
+              .eTag(ProductETags.of(product))
+              .bodyValue(product);
+        });
+  }
+
+  // If-Match is optional, without it the last write wins.
+  public Mono<ServerResponse> updateProduct(ServerRequest request) {
+    UUID id = productId(request);
+    Long expectedVersion = ifMatch(request);
+
+    return body(request)
+        .flatMap(body ->
+            productsService.updateProduct(id, ProductMapper.toEntity(body), expectedVersion))
+        .onErrorMap(ResponseStatusException.class, ex -> writeError(request, ex))
+        .then(ServerResponse.ok().build());
+  }
+
+  public Mono<ServerResponse> deleteProduct(ServerRequest request) {
+    return productsService.deleteProduct(productId(request), ifMatch(request))
+        .onErrorMap(ResponseStatusException.class, ex -> writeError(request, ex))
+        .then(ServerResponse.ok().build());
+  }
+
+  // Functional endpoints have no @Valid, so request bodies are validated here.
+  private Mono<ProductRequest> body(ServerRequest request) {
+    return request.bodyToMono(ProductRequest.class)
+        .switchIfEmpty(Mono.error(() ->
+            new ResponseStatusException(HttpStatus.BAD_REQUEST, "Request body is missing")))
+        .doOnNext(body -> {
+          Set<ConstraintViolation<ProductRequest>> violations = validator.validate(body);
+          if (!violations.isEmpty()) {
+            throw new ResponseStatusException(
+                HttpStatus.BAD_REQUEST,
+                violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+          }
+        });
+  }
+
+  private static Long ifMatch(ServerRequest request) {
+    return ProductETags.parseIfMatch(request.headers().firstHeader(HttpHeaders.IF_MATCH));
+  }
+
+  private static ResponseStatusException writeError(
+      ServerRequest request,
+      ResponseStatusException ex) {
+    return ProductETags.writeError(request.headers().firstHeader(HttpHeaders.IF_MATCH), ex);
+  }
+
+  private static UUID productId(ServerRequest request) {
+    try {
+      return UUID.fromString(request.pathVariable("id"));
+    } catch (IllegalArgumentException ex) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid product id");
+    }
+  }
+
+  // The request URI is already encoded, and cursors are URL-safe Base64.
+  private static String nextLink(ServerRequest request, String cursor) {
+    String next = UriComponentsBuilder
+        .fromUri(request.uri())
+        .replaceQueryParam("after", cursor)
+        .build(true)
+        .toUriString();
+    return "<" + next + ">; rel=\"next\"";
+  }
+
+  private static int parseInt(String value) {
+    try {
+      return Integer.parseInt(value);
+    } catch (NumberFormatException ex) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid number " + value);
+    }
+  }
+
+  private static BigDecimal parseDecimal(String value) {
+    try {
+      return new BigDecimal(value);
+    } catch (NumberFormatException ex) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid number " + value);
+    }
+  }
+}
@@ -0,0 +1,25 @@
+package com.cybergrid.productsapi.reactive.handlers;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+@Configuration
+public class ProductsRoutes {
+  private static final String PRODUCTS = "/api/v1/products";
+
+  // Routes are matched in order, so export has to come before the product id.
+  @Bean
+  public RouterFunction<ServerResponse> productRoutes(ProductsHandler handler) {
+    return RouterFunctions.route()
+        .GET(PRODUCTS, handler::getProducts)
+        .GET(PRODUCTS + "/export", handler::exportProducts)
+        .GET(PRODUCTS + "/{id}", handler::getProductById)
+        .POST(PRODUCTS, handler::createProduct)
+        .PUT(PRODUCTS + "/{id}", handler::updateProduct)
+        .DELETE(PRODUCTS + "/{id}", handler::deleteProduct)
+        .build();
+  }
+}
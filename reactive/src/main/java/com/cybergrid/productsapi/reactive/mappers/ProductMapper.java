@@ -0,0 +1,37 @@
+package com.cybergrid.productsapi.reactive.mappers;
+
+import com.cybergrid.productsapi.dto.ProductRequest;
+import com.cybergrid.productsapi.dto.ProductResponse;
+import com.cybergrid.productsapi.pricing.Price;
+import com.cybergrid.productsapi.reactive.models.Product;
+
+public final class ProductMapper {
+  public static Product toEntity(ProductRequest request) {
+    if (request == null) {
+      return null;
+    }
+
+    return new Product(
+        null,
+        request.getName(),
+        request.getDescription(),
+        request.getPrice().toBigDecimal()
+    );
+  }
+
+  public static ProductResponse toResponse(Product product) {
+    if (product == null) {
+      return null;
+    }
+
+    return new ProductResponse(
+      product.getId(),
+      product.getName(),
+      product.getDescription(),
+      Price.of(product.getPrice()),
+      product.getVersion(),
+      product.getCreatedAt(),
+      product.getUpdatedAt()
+    );
+  }
+}
@@ -0,0 +1,105 @@
+package com.cybergrid.productsapi.reactive.models;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * A row of the {@code products} table, as read by R2DBC.
+ *
+ * <p>There's no {@code @Version} here. Like in the main application, writes are single
+ * statements that check and bump the version themselves, see {@code ProductsRepository}.
+ */
+@Table("products")
+public class Product {
+
+  @Id
+  private UUID id;
+
+  private String name;
+  private String description;
+  private BigDecimal price;
+
+  // Bumped on every update, used for optimistic locking and as the product's ETag.
+  private long version;
+
+  private Instant createdAt;
+  private Instant updatedAt;
+
+  public Product() {
+  }
+
+  public Product(UUID id, String name, String description, BigDecimal price) {
+    this.id = id;
+    this.name = name;
+    this.description = description;
+    this.price = price;
+  }
+
+  public UUID getId() {
+    return id;
+  }
+
+  public void setId(UUID id) {
+    this.id = id;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public void setName(String name) {
+    this.name = name;
+  }
+
+  public String getDescription() {
+    return description;
+  }
+
+  public void setDescription(String description) {
+    this.description = description;
+  }
+
+  public BigDecimal getPrice() {
+    return price;
+  }
+
+  public void setPrice(BigDecimal price) {
+    this.price = price;
+  }
+
+  public long getVersion() {
+    return version;
+  }
+
+  public void setVersion(long version) {
+    this.version = version;
+  }
+
+  public Instant getCreatedAt() {
+    return createdAt;
+  }
+
+  public void setCreatedAt(Instant createdAt) {
+    this.createdAt = createdAt;
+  }
+
+  public Instant getUpdatedAt() {
+    return updatedAt;
+  }
+
+  public void setUpdatedAt(Instant updatedAt) {
+    this.updatedAt = updatedAt;
+  }
+
+  /**
+   * Returns the current time as stored in the database, which keeps microseconds only.
+   * Sync watermarks of the main application compare timestamps for equality.
+   */
+  public static Instant currentTimestamp() {
+    return Instant.now().truncatedTo(ChronoUnit.MICROS);
+  }
+}
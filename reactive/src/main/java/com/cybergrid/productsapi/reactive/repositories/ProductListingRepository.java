@@ -0,0 +1,18 @@
+package com.cybergrid.productsapi.reactive.repositories;
+
+import com.cybergrid.productsapi.reactive.models.Product;
+import com.cybergrid.productsapi.repositories.ProductQuery;
+import reactor.core.publisher.Flux;
+
+public interface ProductListingRepository {
+
+  /**
+   * Returns a single page of products matching {@code query}, in its keyset order.
+   */
+  Flux<Product> findPage(ProductQuery query);
+
+  /**
+   * Returns every product, fetched from the database as the subscriber requests them.
+   */
+  Flux<Product> streamAll();
+}
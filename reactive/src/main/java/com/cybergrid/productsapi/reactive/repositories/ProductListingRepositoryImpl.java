@@ -0,0 +1,111 @@
+package com.cybergrid.productsapi.reactive.repositories;
+
+import com.cybergrid.productsapi.reactive.models.Product;
+import com.cybergrid.productsapi.repositories.ProductQuery;
+import com.cybergrid.productsapi.repositories.ProductSort;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+
+/**
+ * Builds the same queries as {@code ProductSpecifications} does for the main application, so
+ * they're backed by the same indexes from the {@code db/migration} scripts.
+ *
+ * <p>Rows are fetched {@link #FETCH_SIZE} at a time, and the next batch is only requested once
+ * the subscriber has asked for more, so a slow client holds back the query instead of buffering
+ * its whole result.
+ */
+public class ProductListingRepositoryImpl implements ProductListingRepository {
+  private static final int FETCH_SIZE = 500;
+  private static final String COLUMNS =
+      "id, name, description, price, version, created_at, updated_at";
+
+  private final R2dbcEntityTemplate template;
+
+  public ProductListingRepositoryImpl(R2dbcEntityTemplate template) {
+    this.template = template;
+  }
+
+  @Override
+  public Flux<Product> findPage(ProductQuery query) {
+    List<String> predicates = new ArrayList<>();
+    Map<String, Object> parameters = new LinkedHashMap<>();
+
+    if (query.getNamePrefix() != null && !query.getNamePrefix().isEmpty()) {
+      predicates.add("lower(name) like :namePrefix escape '\\'");
+      parameters.put(
+          "namePrefix",
+          escapeLike(query.getNamePrefix().toLowerCase(Locale.ROOT)) + "%");
+    }
+    if (query.getMinPrice() != null) {
+      predicates.add("price >= :minPrice");
+      parameters.put("minPrice", query.getMinPrice());
+    }
+    if (query.getMaxPrice() != null) {
+      predicates.add("price <= :maxPrice");
+      parameters.put("maxPrice", query.getMaxPrice());
+    }
+
+    // Sort properties are named like their columns.
+    String key = query.getSort().getProperty();
+    String direction = query.isDescending() ? " desc" : "";
+    if (query.getAfterId() != null) {
+      String after = query.isDescending() ? "<" : ">";
+      parameters.put("afterId", query.getAfterId());
+
+      if (query.getSort() == ProductSort.ID) {
+        predicates.add("id " + after + " :afterId");
+      } else {
+        // Spelled so Postgres can start the index scan at :afterKey, see ProductSpecifications.
+        predicates.add(key + " " + after + "= :afterKey and ("
+            + key + " " + after + " :afterKey or id " + after + " :afterId)");
+        parameters.put("afterKey", query.getSort() == ProductSort.PRICE
+            ? new BigDecimal(query.getAfterKey())
+            : query.getAfterKey());
+      }
+    }
+
+    StringBuilder sql = new StringBuilder("select ").append(COLUMNS).append(" from products");
+    if (!predicates.isEmpty()) {
+      sql.append(" where ").append(String.join(" and ", predicates));
+    }
+    sql.append(" order by ");
+    if (query.getSort() != ProductSort.ID) {
+      sql.append(key).append(direction).append(", ");
+    }
+    sql.append("id").append(direction).append(" limit :limit");
+    parameters.put("limit", query.getLimit());
+
+    DatabaseClient.GenericExecuteSpec spec = template.getDatabaseClient().sql(sql.toString());
+    for (Map.Entry<String, Object> parameter : parameters.entrySet()) {
+      spec = spec.bind(parameter.getKey(), parameter.getValue());
+    }
+
+    return read(spec);
+  }
+
+  @Override
+  public Flux<Product> streamAll() {
+    return read(template.getDatabaseClient().sql("select " + COLUMNS + " from products"));
+  }
+
+  private Flux<Product> read(DatabaseClient.GenericExecuteSpec spec) {
+    return spec
+        .filter(statement -> statement.fetchSize(FETCH_SIZE))
+        .map((row, metadata) -> template.getConverter().read(Product.class, row, metadata))
+        .all();
+  }
+
+  private static String escapeLike(String value) {
+    return value
+        .replace("\\", "\\\\")
+        .replace("%", "\\%")
+        .replace("_", "\\_");
+  }
+}
@@ -0,0 +1,90 @@
+package com.cybergrid.productsapi.reactive.repositories;
+
+import com.cybergrid.productsapi.reactive.models.Product;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Mono;
+
+// Listing and export go through ProductListingRepository. Writes are the same single statements
+// as the main application's, including the outbox and tombstone rows its change feeds rely on.
+public interface ProductsRepository
+    extends R2dbcRepository<Product, UUID>, ProductListingRepository {
+
+  @Query("""
+      insert into products (id, name, description, price, version, created_at, updated_at)
+      values (:id, :name, :description, :price, 0, :createdAt, :createdAt)
+      returning id, name, description, price, version, created_at, updated_at""")
+  Mono<Product> insert(
+      UUID id,
+      String name,
+      String description,
+      BigDecimal price,
+      Instant createdAt);
+
+  // The row count tells whether the product existed (and had the expected version), so there's
+  // no need to load or check it first.
+  @Modifying
+  @Query("""
+      update products
+      set name = :name, description = :description, price = :price,
+          version = version + 1, updated_at = :updatedAt
+      where id = :id""")
+  Mono<Integer> updateById(
+      UUID id,
+      String name,
+      String description,
+      BigDecimal price,
+      Instant updatedAt);
+
+  @Modifying
+  @Query("""
+      update products
+      set name = :name, description = :description, price = :price,
+          version = version + 1, updated_at = :updatedAt
+      where id = :id and version = :version""")
+  Mono<Integer> updateByIdAndVersion(
+      UUID id,
+      long version,
+      String name,
+      String description,
+      BigDecimal price,
+      Instant updatedAt);
+
+  @Modifying
+  @Query("delete from products where id = :id")
+  Mono<Integer> deleteProductById(UUID id);
+
+  @Modifying
+  @Query("delete from products where id = :id and version = :version")
+  Mono<Integer> deleteProductByIdAndVersion(UUID id, long version);
+
+  @Modifying
+  @Query("""
+      insert into product_tombstones (product_id, deleted_at)
+      values (:id, :deletedAt)
+      on conflict (product_id) do update set deleted_at = excluded.deleted_at""")
+  Mono<Integer> insertTombstone(UUID id, Instant deletedAt);
+
+  // Appends take the same advisory lock as the main application's, so events of both modes are
+  // committed in sequence order. They must be the last statement before commit.
+  @Modifying
+  @Query("""
+      with append_lock as (select pg_advisory_xact_lock(hashtext('product_events')))
+      insert into product_events (product_id, type, version, name, description, price)
+      select p.id, :type, p.version, p.name, p.description, p.price
+      from products p, append_lock
+      where p.id = :id""")
+  Mono<Integer> appendProductState(UUID id, String type);
+
+  @Modifying
+  @Query("""
+      with append_lock as (select pg_advisory_xact_lock(hashtext('product_events')))
+      insert into product_events (product_id, type)
+      select cast(:id as uuid), 'DELETED'
+      from append_lock""")
+  Mono<Integer> appendDeleted(UUID id);
+}
@@ -0,0 +1,135 @@
+package com.cybergrid.productsapi.reactive.services;
+
+import com.cybergrid.productsapi.reactive.models.Product;
+import com.cybergrid.productsapi.reactive.repositories.ProductsRepository;
+import com.cybergrid.productsapi.repositories.ProductQuery;
+import java.util.UUID;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of the main application's {@code ProductsService}, covering listing,
+ * export and single product reads and writes.
+ *
+ * <p>Nothing here blocks, so a request waiting on the database holds neither a thread nor,
+ * outside of transactions, a connection.
+ */
+@Service
+public class ProductsService {
+  public static final int MAX_PAGE_SIZE = 1000;
+
+  private static final String CREATED = "CREATED";
+  private static final String UPDATED = "UPDATED";
+
+  private final ProductsRepository productsRepository;
+
+  public ProductsService(ProductsRepository productsRepository) {
+    this.productsRepository = productsRepository;
+  }
+
+  /**
+   * Returns a single page of products matching {@code query}.
+   */
+  public Flux<Product> getProducts(ProductQuery query) {
+    if (query.getLimit() < 1 || query.getLimit() > MAX_PAGE_SIZE) {
+      return Flux.error(new ResponseStatusException(
+          HttpStatus.BAD_REQUEST,
+          "Limit must be between 1 and " + MAX_PAGE_SIZE));
+    }
+
+    return productsRepository.findPage(query);
+  }
+
+  /**
+   * Returns every product, read from the database only as fast as the subscriber consumes them.
+   */
+  public Flux<Product> exportProducts() {
+    return productsRepository.streamAll();
+  }
+
+  public Mono<Product> getProductById(UUID id) {
+    return productsRepository.findById(id)
+        .switchIfEmpty(Mono.error(() ->
+            new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found")));
+  }
+
+  // Every write below appends its change event to the outbox in the same transaction, as the
+  // last statement before commit.
+
+  @Transactional
+  public Mono<Product> createProduct(Product product) {
+    return productsRepository
+        .insert(
+            UUID.randomUUID(),
+            product.getName(),
+            product.getDescription(),
+            product.getPrice(),
+            Product.currentTimestamp())
+        .flatMap(created -> productsRepository
+            .appendProductState(created.getId(), CREATED)
+            .thenReturn(created));
+  }
+
+  /**
+   * Updates a product.
+   *
+   * @param expectedVersion version the client last saw, or {@code null} to update unconditionally
+   */
+  @Transactional
+  public Mono<Void> updateProduct(UUID id, Product product, Long expectedVersion) {
+    Mono<Integer> updated = expectedVersion == null
+        ? productsRepository.updateById(
+            id,
+            product.getName(),
+            product.getDescription(),
+            product.getPrice(),
+            Product.currentTimestamp())
+        : productsRepository.updateByIdAndVersion(
+            id,
+            expectedVersion,
+            product.getName(),
+            product.getDescription(),
+            product.getPrice(),
+            Product.currentTimestamp());
+
+    return updated
+        .flatMap(count -> count == 0
+            ? this.<Integer>notFoundOrVersionMismatch(id, expectedVersion)
+            : productsRepository.appendProductState(id, UPDATED))
+        .then();
+  }
+
+  /**
+   * Deletes a product.
+   *
+   * @param expectedVersion version the client last saw, or {@code null} to delete unconditionally
+   */
+  @Transactional
+  public Mono<Void> deleteProduct(UUID id, Long expectedVersion) {
+    Mono<Integer> deleted = expectedVersion == null
+        ? productsRepository.deleteProductById(id)
+        : productsRepository.deleteProductByIdAndVersion(id, expectedVersion);
+
+    return deleted
+        .flatMap(count -> count == 0
+            ? this.<Integer>notFoundOrVersionMismatch(id, expectedVersion)
+            : productsRepository.insertTombstone(id, Product.currentTimestamp())
+                .then(productsRepository.appendDeleted(id)))
+        .then();
+  }
+
+  // Only called once a conditional write matched no rows, so the happy path skips this lookup.
+  private <T> Mono<T> notFoundOrVersionMismatch(UUID id, Long expectedVersion) {
+    Mono<Boolean> exists = expectedVersion == null
+        ? Mono.just(false)
+        : productsRepository.existsById(id);
+
+    return exists.flatMap(found -> Mono.error(found
+        ? new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "Product version mismatch")
+        : new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found")));
+  }
+}
@@ -0,0 +1,199 @@
+package com.cybergrid.productsapi.reactive.handlers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.cybergrid.productsapi.dto.ProductRequest;
+import com.cybergrid.productsapi.dto.ProductResponse;
+import com.cybergrid.productsapi.pricing.Price;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+// Migrates the database with the main application's scripts, so the tests can run on their own.
+@SpringBootTest(properties = {
+    "spring.flyway.url=jdbc:postgresql://${DB_HOST}:${DB_PORT}/${DB_NAME}",
+    "spring.flyway.user=${DB_USERNAME}",
+    "spring.flyway.password=${DB_PASSWORD}",
+    "spring.flyway.locations=filesystem:../src/main/resources/db/migration",
+    "spring.flyway.baseline-on-migrate=true"})
+@AutoConfigureWebTestClient
+public class ProductsHandlerIntegrationTest {
+
+  @Autowired
+  private WebTestClient webTestClient;
+
+  @Test
+  @DisplayName("createProduct and getProductById should return the product with its ETag")
+  void createAndGetProductShouldReturnProduct() {
+    EntityExchangeResult<ProductResponse> created =
+        postProductHelper(new ProductRequest("Name", "Description", Price.parse("100.00")));
+    assertThat(created.getStatus()).isEqualTo(HttpStatus.CREATED);
+    ProductResponse product = created.getResponseBody();
+    assertThat(created.getResponseHeaders().getLocation())
+        .hasPath("/api/v1/products/" + product.getId());
+
+    webTestClient.get()
+        .uri("/api/v1/products/{id}", product.getId())
+        .exchange()
+        .expectStatus().isOk()
+        .expectHeader().valueEquals(HttpHeaders.ETAG, "\"0\"")
+        .expectBody(ProductResponse.class)
+        .value(found -> {
+          assertThat(found.getName()).isEqualTo("Name");
+          assertThat(found.getPrice()).isEqualTo(Price.parse("100.00"));
+        });
+  }
+
+  @Test
+  @DisplayName("getProducts should page through matching products with the next link")
+  void getProductsShouldPageWithNextLink() {
+    String prefix = "Reactive-" + UUID.randomUUID();
+    List<UUID> ids = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      ids.add(postProductHelper(
+          new ProductRequest(prefix + "-" + i, null, Price.parse(i + ".00")))
+          .getResponseBody()
+          .getId());
+    }
+
+    List<UUID> listed = new ArrayList<>();
+    String next = "/api/v1/products?sort=price&limit=2&name=" + prefix;
+    while (next != null) {
+      EntityExchangeResult<List<ProductResponse>> page = webTestClient.get()
+          .uri(next)
+          .exchange()
+          .expectStatus().isOk()
+          .expectHeader().exists(HttpHeaders.ETAG)
+          .expectBodyList(ProductResponse.class)
+          .returnResult();
+      page.getResponseBody().forEach(product -> listed.add(product.getId()));
+      next = nextLink(page.getResponseHeaders().getFirst(HttpHeaders.LINK));
+    }
+
+    assertThat(listed).containsExactlyElementsOf(ids);
+  }
+
+  @Test
+  @DisplayName("getProducts should return 400 if limit is out of range")
+  void getProductsShouldReturn400IfLimitIsOutOfRange() {
+    webTestClient.get()
+        .uri("/api/v1/products?limit=0")
+        .exchange()
+        .expectStatus().isBadRequest()
+        .expectBody()
+        .jsonPath("$.error").isEqualTo("Limit must be between 1 and 1000");
+  }
+
+  @Test
+  @DisplayName("createProduct should return 400 if the product is invalid")
+  void createProductShouldReturn400IfInvalid() {
+    webTestClient.post()
+        .uri("/api/v1/products")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(new ProductRequest("", null, Price.parse("-1.00")))
+        .exchange()
+        .expectStatus().isBadRequest();
+  }
+
+  @Test
+  @DisplayName("updateProduct should return 412 if If-Match doesn't match the version")
+  void updateProductShouldReturn412IfVersionDoesNotMatch() {
+    UUID id = postProductHelper(new ProductRequest("Name", null, Price.parse("1.00")))
+        .getResponseBody()
+        .getId();
+    ProductRequest update = new ProductRequest("Updated", null, Price.parse("2.00"));
+
+    webTestClient.put()
+        .uri("/api/v1/products/{id}", id)
+        .header(HttpHeaders.IF_MATCH, "\"0\"")
+        .bodyValue(update)
+        .exchange()
+        .expectStatus().isOk();
+    webTestClient.put()
+        .uri("/api/v1/products/{id}", id)
+        .header(HttpHeaders.IF_MATCH, "\"0\"")
+        .bodyValue(update)
+        .exchange()
+        .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+  }
+
+  @Test
+  @DisplayName("deleteProduct should return 412 if If-Match is * and product is not found")
+  void deleteProductShouldReturn412IfIfMatchIsAnyAndProductNotFound() {
+    webTestClient.delete()
+        .uri("/api/v1/products/{id}", UUID.randomUUID())
+        .header(HttpHeaders.IF_MATCH, "*")
+        .exchange()
+        .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+  }
+
+  @Test
+  @DisplayName("deleteProduct should remove the product")
+  void deleteProductShouldRemoveProduct() {
+    UUID id = postProductHelper(new ProductRequest("Name", null, Price.parse("1.00")))
+        .getResponseBody()
+        .getId();
+
+    webTestClient.delete()
+        .uri("/api/v1/products/{id}", id)
+        .exchange()
+        .expectStatus().isOk();
+    webTestClient.get()
+        .uri("/api/v1/products/{id}", id)
+        .exchange()
+        .expectStatus().isNotFound();
+    webTestClient.delete()
+        .uri("/api/v1/products/{id}", id)
+        .exchange()
+        .expectStatus().isNotFound();
+  }
+
+  @Test
+  @DisplayName("exportProducts should stream every product as NDJSON")
+  void exportProductsShouldStreamNdjson() {
+    UUID id = postProductHelper(new ProductRequest("Name", null, Price.parse("1.00")))
+        .getResponseBody()
+        .getId();
+
+    List<ProductResponse> exported = webTestClient.get()
+        .uri("/api/v1/products/export")
+        .accept(MediaType.APPLICATION_NDJSON)
+        .exchange()
+        .expectStatus().isOk()
+        .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+        .returnResult(ProductResponse.class)
+        .getResponseBody()
+        .collectList()
+        .block();
+
+    assertThat(exported).extracting(ProductResponse::getId).contains(id);
+  }
+
+  private EntityExchangeResult<ProductResponse> postProductHelper(ProductRequest request) {
+    return webTestClient.post()
+        .uri("/api/v1/products")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(request)
+        .exchange()
+        .expectBody(ProductResponse.class)
+        .returnResult();
+  }
+
+  private static String nextLink(String link) {
+    if (link == null) {
+      return null;
+    }
+
+    return link.substring(link.indexOf('<') + 1, link.indexOf('>'));
+  }
+}
@@ -0,0 +1,97 @@
+package com.cybergrid.productsapi.dto;
+
+import com.cybergrid.productsapi.pricing.Price;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Compares JSON, CBOR and Smile for a page of products. Besides the time per operation, the
+ * {@code payloadBytes} counter reports the encoded size of the page.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ProductResponseFormatsBenchmark {
+  @Param({"json", "cbor", "smile"})
+  private String format;
+
+  @Param({"100"})
+  private int size;
+
+  private ObjectWriter writer;
+  private ObjectReader reader;
+  private List<ProductResponse> products;
+  private byte[] encoded;
+
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class PayloadSize {
+    public long payloadBytes;
+  }
+
+  @Setup
+  public void setUp() throws IOException {
+    Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+    ObjectMapper objectMapper = switch (format) {
+      case "json" -> builder.build();
+      case "cbor" -> builder.factory(new CBORFactory()).build();
+      case "smile" -> builder.factory(new SmileFactory()).build();
+      default -> throw new IllegalArgumentException("Unknown format: " + format);
+    };
+    writer = objectMapper.writerFor(
+        objectMapper.getTypeFactory().constructCollectionType(List.class, ProductResponse.class));
+    reader = objectMapper.readerFor(
+        objectMapper.getTypeFactory().constructCollectionType(List.class, ProductResponse.class));
+
+    Instant now = Instant.now();
+    products = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      products.add(new ProductResponse(
+          UUID.randomUUID(),
+          "Product " + i,
+          "Description of product " + i,
+          Price.ofCents(i),
+          i % 5,
+          now,
+          now));
+    }
+    encoded = writer.writeValueAsBytes(products);
+  }
+
+  @Benchmark
+  public byte[] serialize(PayloadSize payloadSize) throws IOException {
+    byte[] bytes = writer.writeValueAsBytes(products);
+    payloadSize.payloadBytes = bytes.length;
+    return bytes;
+  }
+
+  @Benchmark
+  public List<ProductResponse> deserialize() throws IOException {
+    return reader.readValue(encoded);
+  }
+}
@@ -0,0 +1,73 @@
+package com.cybergrid.productsapi.dto;
+
+import com.cybergrid.productsapi.pricing.Price;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Serializes product listings the way the controllers do, with an {@link ObjectMapper} built
+ * like Spring Boot's default one.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ProductResponseSerializationBenchmark {
+  @Param({"1000", "100000"})
+  private int size;
+
+  private ObjectWriter writer;
+  private List<ProductResponse> products;
+
+  @Setup
+  public void setUp() {
+    ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    writer = objectMapper.writerFor(
+        objectMapper.getTypeFactory().constructCollectionType(List.class, ProductResponse.class));
+
+    Instant now = Instant.now();
+    products = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      products.add(new ProductResponse(
+          UUID.randomUUID(),
+          "Product " + i,
+          "Description of product " + i,
+          Price.ofCents(i),
+          i % 5,
+          now,
+          now));
+    }
+  }
+
+  // Response bodies are written straight to the servlet output stream.
+  @Benchmark
+  public void writeToStream() throws IOException {
+    writer.writeValue(OutputStream.nullOutputStream(), products);
+  }
+
+  @Benchmark
+  public byte[] writeToBytes() throws IOException {
+    return writer.writeValueAsBytes(products);
+  }
+}
@@ -0,0 +1,52 @@
+package com.cybergrid.productsapi.mappers;
+
+import com.cybergrid.productsapi.dto.ProductRequest;
+import com.cybergrid.productsapi.dto.ProductResponse;
+import com.cybergrid.productsapi.models.Product;
+import com.cybergrid.productsapi.pricing.Price;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ProductMapperBenchmark {
+  private Product product;
+  private ProductRequest request;
+
+  @Setup
+  public void setUp() {
+    product = new Product(
+        UUID.randomUUID(),
+        "Sunglasses",
+        "Tinted glasses with UV protection",
+        Price.parse("49.99"));
+    request = new ProductRequest(
+        "Sunglasses",
+        "Tinted glasses with UV protection",
+        Price.parse("49.99"));
+  }
+
+  @Benchmark
+  public ProductResponse toResponse() {
+    return ProductMapper.toResponse(product);
+  }
+
+  @Benchmark
+  public Product toEntity() {
+    return ProductMapper.toEntity(request);
+  }
+}
@@ -0,0 +1,127 @@
+package com.cybergrid.productsapi.pricing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Compares {@link Price} with the {@link BigDecimal} prices it replaced, on what a listing does
+ * with them: sorting, and reading and writing JSON. Run with {@code -prof gc}, as the benchmarks
+ * profile does, for the allocation per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class PriceBenchmark {
+  @Param({"1000", "100000"})
+  private int size;
+
+  private BigDecimal[] decimals;
+  private Price[] prices;
+  private ObjectWriter decimalsWriter;
+  private ObjectWriter pricesWriter;
+  private ObjectReader decimalsReader;
+  private ObjectReader pricesReader;
+  private byte[] json;
+
+  @Setup
+  public void setUp() throws IOException {
+    Random random = new Random(42);
+    decimals = new BigDecimal[size];
+    prices = new Price[size];
+    for (int i = 0; i < size; i++) {
+      // Prices up to 100,000.00, with the scale they're read from the database with.
+      long cents = random.nextLong(10_000_000);
+      decimals[i] = BigDecimal.valueOf(cents, 2);
+      prices[i] = Price.ofCents(cents);
+    }
+
+    ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    decimalsWriter = objectMapper.writerFor(BigDecimal[].class);
+    pricesWriter = objectMapper.writerFor(Price[].class);
+    decimalsReader = objectMapper.readerFor(BigDecimal[].class);
+    pricesReader = objectMapper.readerFor(Price[].class);
+    json = decimalsWriter.writeValueAsBytes(decimals);
+    if (!Arrays.equals(json, pricesWriter.writeValueAsBytes(prices))) {
+      throw new IllegalStateException("Prices aren't written like BigDecimals");
+    }
+  }
+
+  @Benchmark
+  public BigDecimal[] sortDecimals() {
+    BigDecimal[] sorted = decimals.clone();
+    Arrays.sort(sorted);
+    return sorted;
+  }
+
+  @Benchmark
+  public Price[] sortPrices() {
+    Price[] sorted = prices.clone();
+    Arrays.sort(sorted);
+    return sorted;
+  }
+
+  @Benchmark
+  public void writeDecimals() throws IOException {
+    decimalsWriter.writeValue(OutputStream.nullOutputStream(), decimals);
+  }
+
+  @Benchmark
+  public void writePrices() throws IOException {
+    pricesWriter.writeValue(OutputStream.nullOutputStream(), prices);
+  }
+
+  // Includes what validation did per price: the BigDecimal constraints compare and take the
+  // precision of every value.
+  @Benchmark
+  public int readDecimals() throws IOException {
+    BigDecimal[] read = decimalsReader.readValue(json);
+    int valid = 0;
+    for (BigDecimal decimal : read) {
+      if (decimal.signum() >= 0 && decimal.precision() - decimal.scale() <= 15) {
+        valid++;
+      }
+    }
+    return valid;
+  }
+
+  @Benchmark
+  public int readPrices() throws IOException {
+    Price[] read = pricesReader.readValue(json);
+    int valid = 0;
+    for (Price price : read) {
+      if (!price.isNegative() && price.getCents() / 100 < 1_000_000_000_000_000L) {
+        valid++;
+      }
+    }
+    return valid;
+  }
+
+  // What the attribute converter adds to reads, since the driver still returns BigDecimals.
+  @Benchmark
+  public List<Price> fromDatabase() {
+    return Arrays.stream(decimals).map(Price::of).toList();
+  }
+}
@@ -0,0 +1,152 @@
+package com.cybergrid.productsapi.services;
+
+import com.cybergrid.productsapi.mappers.ProductMapper;
+import com.cybergrid.productsapi.models.Product;
+import com.cybergrid.productsapi.pricing.Price;
+import com.cybergrid.productsapi.repositories.ProductEventsRepository;
+import com.cybergrid.productsapi.repositories.ProductTombstonesRepository;
+import com.cybergrid.productsapi.repositories.ProductsRepository;
+import jakarta.persistence.EntityManager;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+/**
+ * Map-backed stand-in for the database, so service benchmarks measure the service itself
+ * rather than JDBC round trips.
+ *
+ * <p>Only the repository and entity manager methods used by the benchmarked operations are
+ * implemented, anything else throws {@link UnsupportedOperationException}.
+ */
+final class InMemoryProductsRepository {
+  private final Map<UUID, Product> products = new ConcurrentHashMap<>();
+
+  void add(Product product) {
+    products.put(product.getId(), product);
+  }
+
+  ProductsRepository repository() {
+    return proxy(ProductsRepository.class, this::invokeRepository);
+  }
+
+  // Change events are accepted and discarded.
+  ProductEventsRepository eventsRepository() {
+    return proxy(ProductEventsRepository.class, (method, args) -> switch (method.getName()) {
+      case "appendProductState", "appendDeleted" -> 0;
+      default -> throw new UnsupportedOperationException(method.getName());
+    });
+  }
+
+  // Tombstones are accepted and discarded.
+  ProductTombstonesRepository tombstonesRepository() {
+    return proxy(ProductTombstonesRepository.class, (method, args) -> switch (method.getName()) {
+      case "insertAll" -> 0;
+      default -> throw new UnsupportedOperationException(method.getName());
+    });
+  }
+
+  EntityManager entityManager() {
+    return proxy(EntityManager.class, this::invokeEntityManager);
+  }
+
+  static PlatformTransactionManager transactionManager() {
+    return new PlatformTransactionManager() {
+      @Override
+      public TransactionStatus getTransaction(TransactionDefinition definition) {
+        return new SimpleTransactionStatus();
+      }
+
+      @Override
+      public void commit(TransactionStatus status) {
+      }
+
+      @Override
+      public void rollback(TransactionStatus status) {
+      }
+    };
+  }
+
+  private Object invokeRepository(Method method, Object[] args) {
+    return switch (method.getName()) {
+      case "findById" -> Optional.ofNullable(products.get((UUID) args[0]));
+      case "findResponseById" ->
+          Optional.ofNullable(products.get((UUID) args[0])).map(ProductMapper::toResponse);
+      case "existsById" -> products.containsKey((UUID) args[0]);
+      case "findAllById" -> {
+        List<Product> found = new ArrayList<>();
+        for (Object id : (Iterable<?>) args[0]) {
+          Product product = products.get((UUID) id);
+          if (product != null) {
+            found.add(product);
+          }
+        }
+        yield found;
+      }
+      case "save", "saveAndFlush" -> {
+        Product product = (Product) args[0];
+        persist(product);
+        yield product;
+      }
+      case "flush" -> null;
+      case "updateById" -> update((UUID) args[0], null, args[1], args[2], args[3]);
+      case "updateByIdAndVersion" -> update((UUID) args[0], args[1], args[2], args[3], args[4]);
+      default -> throw new UnsupportedOperationException(method.getName());
+    };
+  }
+
+  private Object invokeEntityManager(Method method, Object[] args) {
+    switch (method.getName()) {
+      case "persist" -> persist((Product) args[0]);
+      case "remove" -> products.remove(((Product) args[0]).getId());
+      case "detach", "flush" -> {
+      }
+      default -> throw new UnsupportedOperationException(method.getName());
+    }
+    return null;
+  }
+
+  private void persist(Product product) {
+    if (product.getId() == null) {
+      product.setId(UUID.randomUUID());
+    }
+    products.put(product.getId(), product);
+  }
+
+  private int update(UUID id, Object version, Object name, Object description, Object price) {
+    Product product = products.get(id);
+    if (product == null || (version != null && (long) version != product.getVersion())) {
+      return 0;
+    }
+
+    product.setName((String) name);
+    product.setDescription((String) description);
+    product.setPrice((Price) price);
+    product.setVersion(product.getVersion() + 1);
+    return 1;
+  }
+
+  private interface Handler {
+    Object invoke(Method method, Object[] args);
+  }
+
+  private static <T> T proxy(Class<T> type, Handler handler) {
+    return type.cast(Proxy.newProxyInstance(
+        type.getClassLoader(),
+        new Class<?>[] {type},
+        (proxy, method, args) -> switch (method.getName()) {
+          case "toString" -> "InMemory" + type.getSimpleName();
+          case "hashCode" -> System.identityHashCode(proxy);
+          case "equals" -> proxy == args[0];
+          default -> handler.invoke(method, args);
+        }));
+  }
+}
@@ -0,0 +1,124 @@
+package com.cybergrid.productsapi.services;
+
+import com.cybergrid.productsapi.cache.ProductPageCache;
+import com.cybergrid.productsapi.cache.SingleFlight;
+import com.cybergrid.productsapi.catalog.CatalogTier;
+import com.cybergrid.productsapi.datasource.ReplicaRouting;
+import com.cybergrid.productsapi.dto.ProductBatchOperation;
+import com.cybergrid.productsapi.dto.ProductBatchResult;
+import com.cybergrid.productsapi.dto.ProductRequest;
+import com.cybergrid.productsapi.dto.ProductResponse;
+import com.cybergrid.productsapi.models.Product;
+import com.cybergrid.productsapi.pricing.Price;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Service operations against {@link InMemoryProductsRepository}.
+ *
+ * <p>The service is created directly instead of through Spring, so caching and transaction
+ * proxies are not part of the measurement.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ProductsServiceBenchmark {
+  private static final int PRODUCTS = 10_000;
+
+  private ProductsService productsService;
+  private List<UUID> ids;
+  private Product update;
+  private List<ProductBatchOperation> batch;
+  private int next;
+
+  @Setup
+  public void setUp() {
+    InMemoryProductsRepository database = new InMemoryProductsRepository();
+    productsService = new ProductsService(
+        database.repository(),
+        database.eventsRepository(),
+        database.tombstonesRepository(),
+        new ProductPageCache(
+            false,
+            DataSize.ofMegabytes(1),
+            Duration.ofMinutes(1),
+            false,
+            DataSize.ofKilobytes(2),
+            new ReplicaRouting(Duration.ZERO),
+            new SimpleMeterRegistry()),
+        new ReplicaRouting(Duration.ZERO),
+        new SingleFlight<>("products", Duration.ofSeconds(1), new SimpleMeterRegistry()),
+        new CatalogTier(
+            false,
+            "",
+            Duration.ofSeconds(1),
+            10_000,
+            Duration.ofSeconds(1),
+            database.repository(),
+            database.eventsRepository(),
+            InMemoryProductsRepository.transactionManager(),
+            new SimpleMeterRegistry()),
+        database.entityManager(),
+        InMemoryProductsRepository.transactionManager());
+
+    ids = new ArrayList<>(PRODUCTS);
+    for (int i = 0; i < PRODUCTS; i++) {
+      Product product = new Product(
+          UUID.randomUUID(),
+          "Product " + i,
+          "Description of product " + i,
+          Price.ofCents(i));
+      database.add(product);
+      ids.add(product.getId());
+    }
+
+    update = new Product(null, "Updated", "Updated description", Price.parse("9.99"));
+
+    // One full chunk of updates.
+    batch = new ArrayList<>(ProductsService.BATCH_CHUNK_SIZE);
+    for (int i = 0; i < ProductsService.BATCH_CHUNK_SIZE; i++) {
+      batch.add(new ProductBatchOperation(
+          ProductBatchOperation.Type.UPDATE,
+          ids.get(i),
+          new ProductRequest("Updated " + i, null, Price.parse("9.99"))));
+    }
+  }
+
+  @Benchmark
+  public ProductResponse getProductById() {
+    return productsService.getProductById(nextId());
+  }
+
+  @Benchmark
+  public void updateProduct() {
+    productsService.updateProduct(nextId(), update, null);
+  }
+
+  @Benchmark
+  public List<ProductBatchResult> processBatch() {
+    return productsService.processBatch(batch);
+  }
+
+  private UUID nextId() {
+    next = (next + 1) % PRODUCTS;
+    return ids.get(next);
+  }
+}
@@ -7,7 +7,11 @@ import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.server.ResponseStatusException;
@@ -18,12 +22,41 @@ import org.springframework.web.server.ResponseStatusException;
  */
 @RestControllerAdvice
 public class ApiErrorHandler {
+  private static final String RETRY_AFTER_SECONDS = "1";
 
   @ExceptionHandler(ResponseStatusException.class)
   public ResponseEntity<Map<String, Object>> handle(
       ResponseStatusException ex,
       HttpServletRequest request) {
 
+    ResponseEntity.BodyBuilder response = ResponseEntity.status(ex.getStatusCode())
+        .headers(ex.getHeaders());
+    // Unavailability is temporary, so tell clients when to try again.
+    if (ex.getStatusCode().value() == HttpStatus.SERVICE_UNAVAILABLE.value()
+        && !ex.getHeaders().containsKey(HttpHeaders.RETRY_AFTER)) {
+      response.header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+    }
+
+    return response.body(body(ex.getStatusCode(), ex.getReason(), request));
+  }
+
+  // Thrown when no pooled connection frees up within the connection timeout. The database is
+  // saturated rather than broken, so ask the client to retry instead of failing with 500.
+  @ExceptionHandler(CannotCreateTransactionException.class)
+  public ResponseEntity<Map<String, Object>> handle(
+      CannotCreateTransactionException ex,
+      HttpServletRequest request) {
+
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+        .body(body(HttpStatus.SERVICE_UNAVAILABLE, "Database is busy", request));
+  }
+
+  private static Map<String, Object> body(
+      HttpStatusCode status,
+      String error,
+      HttpServletRequest request) {
+
     // Match Spring Boot's default error response format.
     String timestamp = OffsetDateTime.now(ZoneOffset.UTC)
         .truncatedTo(ChronoUnit.MILLIS)
@@ -31,10 +64,9 @@ public class ApiErrorHandler {
 
     Map<String, Object> body = new LinkedHashMap<>();
     body.put("timestamp", timestamp);
-    body.put("status", ex.getStatusCode().value());
-    body.put("error", ex.getReason());
+    body.put("status", status.value());
+    body.put("error", error);
     body.put("path", request.getRequestURI());
-
-    return ResponseEntity.status(ex.getStatusCode()).body(body);
+    return body;
   }
 }
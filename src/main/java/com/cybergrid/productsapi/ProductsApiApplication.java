@@ -2,8 +2,10 @@ package com.cybergrid.productsapi;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
+@ImportRuntimeHints(ProductsApiRuntimeHints.class)
 public class ProductsApiApplication {
 
   public static void main(String[] args) {
@@ -0,0 +1,32 @@
+package com.cybergrid.productsapi;
+
+import com.cybergrid.productsapi.dto.ProductEventResponse;
+import com.cybergrid.productsapi.dto.ProductResponse;
+import com.cybergrid.productsapi.pricing.PriceValidator;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * Native image hints Spring AOT can't infer. Types returned from or accepted by controller
+ * methods, entities and Flyway migrations are registered by Spring itself, but responses written
+ * with the {@code ObjectMapper} directly (cached pages, NDJSON exports) or sent as Server-Sent
+ * Events are only serialized through reflection. Hibernate also calls the
+ * {@link ProductResponse} constructor reflectively for queries projecting into it, and
+ * Hibernate Validator creates the {@link PriceValidator} of request bodies.
+ */
+class ProductsApiRuntimeHints implements RuntimeHintsRegistrar {
+  private final BindingReflectionHintsRegistrar bindingHints =
+      new BindingReflectionHintsRegistrar();
+
+  @Override
+  public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+    bindingHints.registerReflectionHints(
+        hints.reflection(),
+        ProductResponse.class,
+        ProductEventResponse.class);
+    hints.reflection()
+        .registerType(PriceValidator.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+  }
+}
@@ -0,0 +1,50 @@
+package com.cybergrid.productsapi.cache;
+
+import com.cybergrid.productsapi.dto.ProductResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.UUID;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Enables the in-process Caffeine caches configured under {@code spring.cache.*}.
+ *
+ * <p>Caches are local to each instance, so their TTL bounds how long a write made through
+ * another instance can go unnoticed.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+  public static final String PRODUCTS_CACHE = "products";
+
+  // Coalesces concurrent cache misses for the same product into a single query.
+  @Bean
+  public SingleFlight<UUID, ProductResponse> productLookups(
+      @Value("${app.products.lookup.max-wait}") Duration maxWait,
+      MeterRegistry meterRegistry) {
+    return new SingleFlight<>(PRODUCTS_CACHE, maxWait, meterRegistry);
+  }
+
+  // @CachePut and @CacheEvict run when the method returns, which is before its transaction
+  // commits. A concurrent read could then still load the old row and cache it for the whole TTL,
+  // so inside transactions puts and evictions are deferred until after commit.
+  @Bean
+  static BeanPostProcessor transactionAwareCacheManager() {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof CacheManager cacheManager
+            && !(bean instanceof TransactionAwareCacheManagerProxy)) {
+          return new TransactionAwareCacheManagerProxy(cacheManager);
+        }
+        return bean;
+      }
+    };
+  }
+}
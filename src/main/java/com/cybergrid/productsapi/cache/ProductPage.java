@@ -0,0 +1,42 @@
+package com.cybergrid.productsapi.cache;
+
+/**
+ * A page of the product listing, serialized as JSON and ready to be written as it is.
+ *
+ * <p>{@code gzip} is the same body compressed, or {@code null} if the page is too small to be
+ * worth it. {@code nextCursor} is {@code null} on the last page.
+ */
+public class ProductPage {
+  private final byte[] json;
+  private final byte[] gzip;
+  private final String eTag;
+  private final String nextCursor;
+
+  public ProductPage(byte[] json, byte[] gzip, String eTag, String nextCursor) {
+    this.json = json;
+    this.gzip = gzip;
+    this.eTag = eTag;
+    this.nextCursor = nextCursor;
+  }
+
+  public byte[] getJson() {
+    return json;
+  }
+
+  public byte[] getGzip() {
+    return gzip;
+  }
+
+  public String getETag() {
+    return eTag;
+  }
+
+  public String getNextCursor() {
+    return nextCursor;
+  }
+
+  // Approximate memory held by the page, used to bound the cache by size.
+  int weight() {
+    return json.length + (gzip == null ? 0 : gzip.length);
+  }
+}
@@ -0,0 +1,115 @@
+package com.cybergrid.productsapi.cache;
+
+import com.cybergrid.productsapi.datasource.ReplicaRouting;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Optional cache of serialized {@link ProductPage}s, so repeated listings skip the database,
+ * mapping and Jackson altogether.
+ *
+ * <p>Pages are keyed by their query and the data version, which is bumped after every committed
+ * write. A page loaded while a write was committing is stored under the old version, so it's
+ * never served once the write is visible. Pages loaded while replicas may still lag behind a
+ * write aren't stored either. Like the products cache, it's local to each instance, so writes
+ * made through other instances only show up once the TTL expires.
+ */
+@Component
+public class ProductPageCache {
+  public static final String PRODUCT_PAGES_CACHE = "productPages";
+
+  private final boolean enabled;
+  private final boolean compressionEnabled;
+  private final long compressionMinSize;
+  private final ReplicaRouting replicaRouting;
+  private final AtomicLong version = new AtomicLong();
+  private final Cache<String, ProductPage> pages;
+
+  public ProductPageCache(
+      @Value("${app.products.page-cache.enabled}") boolean enabled,
+      @Value("${app.products.page-cache.max-size}") DataSize maxSize,
+      @Value("${app.products.page-cache.ttl}") Duration ttl,
+      @Value("${server.compression.enabled}") boolean compressionEnabled,
+      @Value("${server.compression.min-response-size}") DataSize compressionMinSize,
+      ReplicaRouting replicaRouting,
+      MeterRegistry meterRegistry) {
+    this.enabled = enabled;
+    this.compressionEnabled = compressionEnabled;
+    this.compressionMinSize = compressionMinSize.toBytes();
+    this.replicaRouting = replicaRouting;
+    this.pages = Caffeine.newBuilder()
+        .maximumWeight(maxSize.toBytes())
+        .weigher((String query, ProductPage page) -> page.weight())
+        .expireAfterWrite(ttl)
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, pages, PRODUCT_PAGES_CACHE);
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Returns the current data version. Read it before loading a page, and pass it to
+   * {@link #put}.
+   */
+  public long version() {
+    return version.get();
+  }
+
+  public ProductPage get(long version, String query) {
+    return enabled ? pages.getIfPresent(key(version, query)) : null;
+  }
+
+  public void put(long version, String query, ProductPage page) {
+    // Pages loaded before the latest write could already be stale, so they aren't kept.
+    if (enabled && version == this.version.get() && !replicaRouting.isReplicaLagging()) {
+      pages.put(key(version, query), page);
+    }
+  }
+
+  /**
+   * Makes every cached page stale. Called once a write has committed.
+   */
+  public void invalidate() {
+    version.incrementAndGet();
+    if (enabled) {
+      pages.invalidateAll();
+    }
+  }
+
+  /**
+   * Creates a page from its JSON body, with a gzipped copy if {@code gzip} is requested and
+   * the body is large enough for compression to be enabled on it.
+   */
+  public ProductPage newPage(byte[] json, String eTag, String nextCursor, boolean gzip) {
+    boolean compress = gzip && compressionEnabled && json.length >= compressionMinSize;
+    return new ProductPage(json, compress ? gzip(json) : null, eTag, nextCursor);
+  }
+
+  private static String key(long version, String query) {
+    return version + ":" + query;
+  }
+
+  private static byte[] gzip(byte[] bytes) {
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 4);
+    try (GZIPOutputStream gzipStream = new GZIPOutputStream(compressed)) {
+      gzipStream.write(bytes);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+    return compressed.toByteArray();
+  }
+}
@@ -0,0 +1,94 @@
+package com.cybergrid.productsapi.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Collapses concurrent loads of the same key into one. The first caller loads the value, and
+ * callers arriving while it's in flight wait for that result instead of loading it again.
+ *
+ * <p>Waiters give up after {@code maxWait} with 503 Service Unavailable, so a slow load can't
+ * pile up requests indefinitely. Exceptions thrown by the load, such as 404 Not Found, are
+ * passed on to every waiter.
+ *
+ * <p>Calls are counted in {@code singleflight.calls}, tagged with the {@code result}:
+ * {@code loaded}, {@code coalesced} or {@code timeout}.
+ */
+public class SingleFlight<K, V> {
+  private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+  private final long maxWaitNanos;
+  private final Counter loaded;
+  private final Counter coalesced;
+  private final Counter timedOut;
+
+  public SingleFlight(String name, Duration maxWait, MeterRegistry meterRegistry) {
+    this.maxWaitNanos = maxWait.toNanos();
+    this.loaded = counter(meterRegistry, name, "loaded");
+    this.coalesced = counter(meterRegistry, name, "coalesced");
+    this.timedOut = counter(meterRegistry, name, "timeout");
+    Gauge.builder("singleflight.in.flight", inFlight, Map::size)
+        .description("Loads currently in flight")
+        .tag("name", name)
+        .register(meterRegistry);
+  }
+
+  public V execute(K key, Supplier<V> loader) {
+    CompletableFuture<V> load = new CompletableFuture<>();
+    CompletableFuture<V> existing = inFlight.putIfAbsent(key, load);
+    if (existing == null) {
+      loaded.increment();
+      try {
+        V value = loader.get();
+        load.complete(value);
+        return value;
+      } catch (RuntimeException | Error ex) {
+        load.completeExceptionally(ex);
+        throw ex;
+      } finally {
+        inFlight.remove(key, load);
+      }
+    }
+
+    coalesced.increment();
+    try {
+      return existing.get(maxWaitNanos, TimeUnit.NANOSECONDS);
+    } catch (ExecutionException ex) {
+      if (ex.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      if (ex.getCause() instanceof Error cause) {
+        throw cause;
+      }
+      throw new IllegalStateException(ex.getCause());
+    } catch (TimeoutException ex) {
+      timedOut.increment();
+      throw unavailable();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw unavailable();
+    }
+  }
+
+  private static ResponseStatusException unavailable() {
+    return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Lookup timed out");
+  }
+
+  private static Counter counter(MeterRegistry meterRegistry, String name, String result) {
+    return Counter.builder("singleflight.calls")
+        .description("Calls by whether they loaded the value or waited for another caller")
+        .tag("name", name)
+        .tag("result", result)
+        .register(meterRegistry);
+  }
+}
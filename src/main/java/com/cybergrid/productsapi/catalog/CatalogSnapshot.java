@@ -0,0 +1,256 @@
+package com.cybergrid.productsapi.catalog;
+
+import com.cybergrid.productsapi.dto.ProductResponse;
+import com.cybergrid.productsapi.pricing.Price;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable, column-oriented copy of a set of products.
+ *
+ * <p>Rows are ordered by id, compared as unsigned bytes like Postgres does, and
+ * {@link #byPrice} holds the row order by price and id. Ids are stored as two longs, prices as
+ * {@link Price} cents and timestamps as epoch microseconds, so a row costs a few primitives plus
+ * its strings rather than a response with a {@link Price}, a {@link UUID} and two
+ * {@link Instant}s. Equal strings are shared between rows.
+ */
+final class CatalogSnapshot {
+  static final CatalogSnapshot EMPTY = new Builder().build();
+
+  private static final long MICROS_PER_SECOND = 1_000_000;
+
+  final long[] idHigh;
+  final long[] idLow;
+  final long[] prices;
+  final long[] versions;
+  final long[] createdAt;
+  final long[] updatedAt;
+  final String[] names;
+  final String[] descriptions;
+  final int[] byPrice;
+
+  CatalogSnapshot(
+      long[] idHigh,
+      long[] idLow,
+      long[] prices,
+      long[] versions,
+      long[] createdAt,
+      long[] updatedAt,
+      String[] names,
+      String[] descriptions,
+      int[] byPrice) {
+    this.idHigh = idHigh;
+    this.idLow = idLow;
+    this.prices = prices;
+    this.versions = versions;
+    this.createdAt = createdAt;
+    this.updatedAt = updatedAt;
+    this.names = names;
+    this.descriptions = descriptions;
+    this.byPrice = byPrice;
+  }
+
+  int size() {
+    return idHigh.length;
+  }
+
+  /**
+   * Returns the row of the product with the given id, or -1 if there is none.
+   */
+  int indexOf(UUID id) {
+    long high = id.getMostSignificantBits();
+    long low = id.getLeastSignificantBits();
+    int from = 0;
+    int to = size() - 1;
+    while (from <= to) {
+      int middle = (from + to) >>> 1;
+      int result = compareIds(idHigh[middle], idLow[middle], high, low);
+      if (result < 0) {
+        from = middle + 1;
+      } else if (result > 0) {
+        to = middle - 1;
+      } else {
+        return middle;
+      }
+    }
+    return -1;
+  }
+
+  ProductResponse product(int row) {
+    return new ProductResponse(
+        new UUID(idHigh[row], idLow[row]),
+        names[row],
+        descriptions[row],
+        Price.ofCents(prices[row]),
+        versions[row],
+        instant(createdAt[row]),
+        instant(updatedAt[row]));
+  }
+
+  // Postgres compares uuids as unsigned bytes, unlike UUID.compareTo.
+  static int compareIds(long high1, long low1, long high2, long low2) {
+    int result = Long.compareUnsigned(high1, high2);
+    return result != 0 ? result : Long.compareUnsigned(low1, low2);
+  }
+
+  /**
+   * Returns {@code price} in cents, or {@code null} if it has more than two decimals or doesn't
+   * fit a long, i.e. can't be compared with stored prices exactly.
+   */
+  static Long cents(BigDecimal price) {
+    try {
+      return Price.of(price).getCents();
+    } catch (ArithmeticException ex) {
+      return null;
+    }
+  }
+
+  static long micros(Instant instant) {
+    return instant.getEpochSecond() * MICROS_PER_SECOND + instant.getNano() / 1000;
+  }
+
+  static Instant instant(long micros) {
+    return Instant.ofEpochSecond(
+        Math.floorDiv(micros, MICROS_PER_SECOND),
+        Math.floorMod(micros, MICROS_PER_SECOND) * 1000);
+  }
+
+  /**
+   * Collects rows in any order, and sorts them once they're all added.
+   */
+  static final class Builder {
+    private final Map<String, String> strings = new HashMap<>();
+    private long[] idHigh = new long[16];
+    private long[] idLow = new long[16];
+    private long[] prices = new long[16];
+    private long[] versions = new long[16];
+    private long[] createdAt = new long[16];
+    private long[] updatedAt = new long[16];
+    private String[] names = new String[16];
+    private String[] descriptions = new String[16];
+    private int size;
+
+    Builder add(ProductResponse product) {
+      return add(
+          product.getId().getMostSignificantBits(),
+          product.getId().getLeastSignificantBits(),
+          product.getName(),
+          product.getDescription(),
+          product.getPrice().getCents(),
+          product.getVersion(),
+          micros(product.getCreatedAt()),
+          micros(product.getUpdatedAt()));
+    }
+
+    Builder add(CatalogSnapshot snapshot, int row) {
+      return add(
+          snapshot.idHigh[row],
+          snapshot.idLow[row],
+          snapshot.names[row],
+          snapshot.descriptions[row],
+          snapshot.prices[row],
+          snapshot.versions[row],
+          snapshot.createdAt[row],
+          snapshot.updatedAt[row]);
+    }
+
+    Builder add(
+        long high,
+        long low,
+        String name,
+        String description,
+        long price,
+        long version,
+        long created,
+        long updated) {
+      if (size == idHigh.length) {
+        int capacity = size * 2;
+        idHigh = Arrays.copyOf(idHigh, capacity);
+        idLow = Arrays.copyOf(idLow, capacity);
+        prices = Arrays.copyOf(prices, capacity);
+        versions = Arrays.copyOf(versions, capacity);
+        createdAt = Arrays.copyOf(createdAt, capacity);
+        updatedAt = Arrays.copyOf(updatedAt, capacity);
+        names = Arrays.copyOf(names, capacity);
+        descriptions = Arrays.copyOf(descriptions, capacity);
+      }
+
+      idHigh[size] = high;
+      idLow[size] = low;
+      names[size] = share(name);
+      descriptions[size] = share(description);
+      prices[size] = price;
+      versions[size] = version;
+      createdAt[size] = created;
+      updatedAt[size] = updated;
+      size++;
+      return this;
+    }
+
+    CatalogSnapshot build() {
+      int[] byId = IntStream.range(0, size)
+          .boxed()
+          .sorted((a, b) -> compareIds(idHigh[a], idLow[a], idHigh[b], idLow[b]))
+          .mapToInt(Integer::intValue)
+          .toArray();
+
+      CatalogSnapshot snapshot = new CatalogSnapshot(
+          permute(idHigh, byId),
+          permute(idLow, byId),
+          permute(prices, byId),
+          permute(versions, byId),
+          permute(createdAt, byId),
+          permute(updatedAt, byId),
+          permute(names, byId),
+          permute(descriptions, byId),
+          null);
+
+      Comparator<Integer> priceOrder = Comparator
+          .<Integer>comparingLong(row -> snapshot.prices[row])
+          .thenComparing((a, b) -> compareIds(
+              snapshot.idHigh[a], snapshot.idLow[a], snapshot.idHigh[b], snapshot.idLow[b]));
+      int[] byPrice = IntStream.range(0, size)
+          .boxed()
+          .sorted(priceOrder)
+          .mapToInt(Integer::intValue)
+          .toArray();
+
+      return new CatalogSnapshot(
+          snapshot.idHigh,
+          snapshot.idLow,
+          snapshot.prices,
+          snapshot.versions,
+          snapshot.createdAt,
+          snapshot.updatedAt,
+          snapshot.names,
+          snapshot.descriptions,
+          byPrice);
+    }
+
+    private String share(String value) {
+      return value == null ? null : strings.computeIfAbsent(value, key -> key);
+    }
+
+    private static long[] permute(long[] column, int[] order) {
+      long[] result = new long[order.length];
+      for (int i = 0; i < order.length; i++) {
+        result[i] = column[order[i]];
+      }
+      return result;
+    }
+
+    private static String[] permute(String[] column, int[] order) {
+      String[] result = new String[order.length];
+      for (int i = 0; i < order.length; i++) {
+        result[i] = column[order[i]];
+      }
+      return result;
+    }
+  }
+}
@@ -0,0 +1,179 @@
+package com.cybergrid.productsapi.catalog;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Stores a {@link CatalogState} in a memory-mapped file, so a restarted instance can load its
+ * catalog from local disk and catch up from the outbox instead of scanning the products table.
+ *
+ * <p>The file holds a header with the outbox sequence the catalog is current to, then each
+ * column of the compacted catalog as a block, and finally the strings, each prefixed with its
+ * UTF-8 length ({@code -1} for null). It's written to a temporary file first and moved into
+ * place, so a crash while writing leaves the previous snapshot intact.
+ */
+final class CatalogSnapshotFile {
+  private static final int MAGIC = 0x50434154;
+  private static final int FORMAT_VERSION = 1;
+  private static final int HEADER_SIZE = Integer.BYTES * 3 + Long.BYTES;
+  private static final int LONG_COLUMNS = 6;
+
+  private CatalogSnapshotFile() {
+  }
+
+  /**
+   * Writes {@code state}, which must have been {@link CatalogState#compact compacted}, to
+   * {@code path}.
+   */
+  static void write(Path path, CatalogState state) throws IOException {
+    CatalogSnapshot snapshot = state.base;
+    int rows = snapshot.size();
+    byte[][] names = encode(snapshot.names);
+    byte[][] descriptions = encode(snapshot.descriptions);
+
+    long size = HEADER_SIZE
+        + (long) rows * (LONG_COLUMNS * Long.BYTES + Integer.BYTES)
+        + stringsSize(names)
+        + stringsSize(descriptions);
+    if (size > Integer.MAX_VALUE) {
+      throw new IOException("Catalog of " + size + " bytes is too large for a snapshot file");
+    }
+
+    Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+    try (FileChannel channel = FileChannel.open(
+        temporary,
+        StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING,
+        StandardOpenOption.READ,
+        StandardOpenOption.WRITE)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+      buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(state.sequence).putInt(rows);
+      putLongs(buffer, snapshot.idHigh);
+      putLongs(buffer, snapshot.idLow);
+      putLongs(buffer, snapshot.prices);
+      putLongs(buffer, snapshot.versions);
+      putLongs(buffer, snapshot.createdAt);
+      putLongs(buffer, snapshot.updatedAt);
+      buffer.asIntBuffer().put(snapshot.byPrice);
+      buffer.position(buffer.position() + rows * Integer.BYTES);
+      putStrings(buffer, names);
+      putStrings(buffer, descriptions);
+      buffer.force();
+    }
+
+    Files.move(
+        temporary,
+        path,
+        StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Reads the state stored at {@code path}.
+   *
+   * @throws IOException if the file can't be read or wasn't written by this format version
+   */
+  static CatalogState read(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      if (buffer.remaining() < HEADER_SIZE
+          || buffer.getInt() != MAGIC
+          || buffer.getInt() != FORMAT_VERSION) {
+        throw new IOException("Not a catalog snapshot of format version " + FORMAT_VERSION);
+      }
+
+      long sequence = buffer.getLong();
+      int rows = buffer.getInt();
+      if (rows < 0
+          || (long) rows * (LONG_COLUMNS * Long.BYTES + Integer.BYTES) > buffer.remaining()) {
+        throw new IOException("Catalog snapshot " + path + " is truncated");
+      }
+      long[] idHigh = getLongs(buffer, rows);
+      long[] idLow = getLongs(buffer, rows);
+      long[] prices = getLongs(buffer, rows);
+      long[] versions = getLongs(buffer, rows);
+      long[] createdAt = getLongs(buffer, rows);
+      long[] updatedAt = getLongs(buffer, rows);
+      int[] byPrice = new int[rows];
+      buffer.asIntBuffer().get(byPrice);
+      buffer.position(buffer.position() + rows * Integer.BYTES);
+
+      Map<String, String> strings = new HashMap<>();
+      String[] names = getStrings(buffer, rows, strings);
+      String[] descriptions = getStrings(buffer, rows, strings);
+
+      return new CatalogState(sequence, new CatalogSnapshot(
+          idHigh, idLow, prices, versions, createdAt, updatedAt, names, descriptions, byPrice));
+    } catch (RuntimeException ex) {
+      // A truncated or corrupted file runs past the end of the buffer.
+      throw new IOException("Catalog snapshot " + path + " is corrupted", ex);
+    }
+  }
+
+  private static byte[][] encode(String[] values) {
+    byte[][] encoded = new byte[values.length][];
+    for (int i = 0; i < values.length; i++) {
+      encoded[i] = values[i] == null ? null : values[i].getBytes(StandardCharsets.UTF_8);
+    }
+    return encoded;
+  }
+
+  private static long stringsSize(byte[][] values) {
+    long size = (long) values.length * Integer.BYTES;
+    for (byte[] value : values) {
+      size += value == null ? 0 : value.length;
+    }
+    return size;
+  }
+
+  private static void putLongs(MappedByteBuffer buffer, long[] values) {
+    buffer.asLongBuffer().put(values);
+    buffer.position(buffer.position() + values.length * Long.BYTES);
+  }
+
+  private static long[] getLongs(MappedByteBuffer buffer, int count) {
+    long[] values = new long[count];
+    buffer.asLongBuffer().get(values);
+    buffer.position(buffer.position() + count * Long.BYTES);
+    return values;
+  }
+
+  private static void putStrings(MappedByteBuffer buffer, byte[][] values) {
+    for (byte[] value : values) {
+      if (value == null) {
+        buffer.putInt(-1);
+      } else {
+        buffer.putInt(value.length).put(value);
+      }
+    }
+  }
+
+  private static String[] getStrings(
+      MappedByteBuffer buffer,
+      int count,
+      Map<String, String> strings) {
+    String[] values = new String[count];
+    byte[] bytes = new byte[256];
+    for (int i = 0; i < count; i++) {
+      int length = buffer.getInt();
+      if (length < 0) {
+        continue;
+      }
+      if (length > bytes.length) {
+        bytes = new byte[Math.max(length, bytes.length * 2)];
+      }
+      buffer.get(bytes, 0, length);
+      String value = new String(bytes, 0, length, StandardCharsets.UTF_8);
+      values[i] = strings.computeIfAbsent(value, key -> key);
+    }
+    return values;
+  }
+}
@@ -0,0 +1,317 @@
+package com.cybergrid.productsapi.catalog;
+
+import com.cybergrid.productsapi.dto.ProductResponse;
+import com.cybergrid.productsapi.repositories.ProductQuery;
+import com.cybergrid.productsapi.repositories.ProductSort;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * The catalog as of outbox event {@link #sequence}: a large {@link CatalogSnapshot} that rarely
+ * changes, and a small overlay of the products changed since it was built.
+ *
+ * <p>Base rows that were changed or deleted since are masked, and the current state of changed
+ * products lives in the overlay. Applying changes only rebuilds the overlay, and once it has
+ * grown large, {@link #compact()} merges it into a new base. States are immutable, so readers
+ * never see a change halfway applied.
+ */
+final class CatalogState {
+  final long sequence;
+  final CatalogSnapshot base;
+  final CatalogSnapshot overlay;
+  private final BitSet masked;
+
+  CatalogState(long sequence, CatalogSnapshot base) {
+    this(sequence, base, new BitSet(), CatalogSnapshot.EMPTY);
+  }
+
+  private CatalogState(
+      long sequence,
+      CatalogSnapshot base,
+      BitSet masked,
+      CatalogSnapshot overlay) {
+    this.sequence = sequence;
+    this.base = base;
+    this.masked = masked;
+    this.overlay = overlay;
+  }
+
+  int size() {
+    return base.size() - masked.cardinality() + overlay.size();
+  }
+
+  Optional<ProductResponse> find(UUID id) {
+    int row = overlay.indexOf(id);
+    if (row >= 0) {
+      return Optional.of(overlay.product(row));
+    }
+
+    row = base.indexOf(id);
+    return row >= 0 && !masked.get(row) ? Optional.of(base.product(row)) : Optional.empty();
+  }
+
+  /**
+   * Returns the state after the products with the given ids changed. {@code products} is their
+   * current state, so ids without a product were deleted.
+   */
+  CatalogState apply(long sequence, Collection<UUID> ids, Collection<ProductResponse> products) {
+    BitSet masked = (BitSet) this.masked.clone();
+    for (UUID id : ids) {
+      int row = base.indexOf(id);
+      if (row >= 0) {
+        masked.set(row);
+      }
+    }
+
+    Set<UUID> changed = new HashSet<>(ids);
+    CatalogSnapshot.Builder builder = new CatalogSnapshot.Builder();
+    for (int row = 0; row < overlay.size(); row++) {
+      if (!changed.contains(new UUID(overlay.idHigh[row], overlay.idLow[row]))) {
+        builder.add(overlay, row);
+      }
+    }
+    products.forEach(builder::add);
+
+    return new CatalogState(sequence, base, masked, builder.build());
+  }
+
+  /**
+   * Returns the same state with the overlay merged into the base.
+   */
+  CatalogState compact() {
+    CatalogSnapshot.Builder builder = new CatalogSnapshot.Builder();
+    for (int row = 0; row < base.size(); row++) {
+      if (!masked.get(row)) {
+        builder.add(base, row);
+      }
+    }
+    for (int row = 0; row < overlay.size(); row++) {
+      builder.add(overlay, row);
+    }
+
+    return new CatalogState(sequence, builder.build());
+  }
+
+  /**
+   * Returns whether {@link #query} answers {@code query} exactly like the database would.
+   *
+   * <p>Names are ordered by the database collation, which Java can't reproduce, and prices with
+   * more than two decimals can't be compared in cents, so those queries are left to the
+   * database. So are name prefixes beyond ASCII, whose case mappings depend on the database
+   * locale.
+   */
+  static boolean supports(ProductQuery query) {
+    if (query.getSort() == ProductSort.NAME || !isAscii(query.getNamePrefix())) {
+      return false;
+    }
+
+    return exact(query.getMinPrice())
+        && exact(query.getMaxPrice())
+        && (query.getSort() != ProductSort.PRICE
+            || query.getAfterKey() == null
+            || exact(new BigDecimal(query.getAfterKey())));
+  }
+
+  /**
+   * Returns a page of products matching {@code query}, which must be {@link #supports supported}.
+   *
+   * <p>Base and overlay are each scanned in the query's order, starting at its keyset position,
+   * and merged until the page is full.
+   */
+  List<ProductResponse> query(ProductQuery query) {
+    Scan baseScan = new Scan(base, masked, query);
+    Scan overlayScan = new Scan(overlay, null, query);
+    int baseRow = baseScan.next();
+    int overlayRow = overlayScan.next();
+
+    List<ProductResponse> page = new ArrayList<>(Math.min(query.getLimit(), size()));
+    while (page.size() < query.getLimit() && (baseRow >= 0 || overlayRow >= 0)) {
+      boolean takeBase = overlayRow < 0
+          || (baseRow >= 0 && baseScan.compare(baseRow, overlay, overlayRow) < 0);
+      if (takeBase) {
+        page.add(base.product(baseRow));
+        baseRow = baseScan.next();
+      } else {
+        page.add(overlay.product(overlayRow));
+        overlayRow = overlayScan.next();
+      }
+    }
+    return page;
+  }
+
+  private static boolean isAscii(String value) {
+    return value == null || value.chars().allMatch(c -> c < 0x80);
+  }
+
+  private static boolean exact(BigDecimal price) {
+    return price == null || CatalogSnapshot.cents(price) != null;
+  }
+
+  /**
+   * Walks the rows of one snapshot in a query's order, from its keyset position on, skipping
+   * masked rows and rows not matching its filters.
+   */
+  private static final class Scan {
+    private static final long MIN_ID = 0;
+    private static final long MAX_ID = -1;
+
+    private final CatalogSnapshot snapshot;
+    private final BitSet masked;
+    private final boolean byPrice;
+    private final int step;
+    private final String namePrefix;
+    private final Long minPrice;
+    private final Long maxPrice;
+    private int position;
+    private final int end;
+
+    Scan(CatalogSnapshot snapshot, BitSet masked, ProductQuery query) {
+      this.snapshot = snapshot;
+      this.masked = masked;
+      this.byPrice = query.getSort() == ProductSort.PRICE;
+      this.step = query.isDescending() ? -1 : 1;
+      this.namePrefix = query.getNamePrefix() == null || query.getNamePrefix().isEmpty()
+          ? null
+          : query.getNamePrefix().toLowerCase(Locale.ROOT);
+      this.minPrice = cents(query.getMinPrice());
+      this.maxPrice = cents(query.getMaxPrice());
+
+      int size = snapshot.size();
+      int from = query.isDescending() ? size - 1 : 0;
+      int to = query.isDescending() ? -1 : size;
+
+      if (query.getAfterId() != null) {
+        long key = byPrice ? CatalogSnapshot.cents(new BigDecimal(query.getAfterKey())) : 0;
+        long high = query.getAfterId().getMostSignificantBits();
+        long low = query.getAfterId().getLeastSignificantBits();
+        from = query.isDescending()
+            ? Math.min(from, lowerBound(key, high, low) - 1)
+            : Math.max(from, upperBound(key, high, low));
+      }
+
+      // Sorted by price, the price range is a contiguous run of positions.
+      if (byPrice && !query.isDescending()) {
+        if (minPrice != null) {
+          from = Math.max(from, lowerBound(minPrice, MIN_ID, MIN_ID));
+        }
+        if (maxPrice != null) {
+          to = Math.min(to, upperBound(maxPrice, MAX_ID, MAX_ID));
+        }
+      } else if (byPrice) {
+        if (maxPrice != null) {
+          from = Math.min(from, upperBound(maxPrice, MAX_ID, MAX_ID) - 1);
+        }
+        if (minPrice != null) {
+          to = Math.max(to, lowerBound(minPrice, MIN_ID, MIN_ID) - 1);
+        }
+      }
+
+      this.position = from;
+      this.end = to;
+    }
+
+    /**
+     * Returns the next matching row, or -1 once there are none left.
+     */
+    int next() {
+      while (step > 0 ? position < end : position > end) {
+        int row = row(position);
+        position += step;
+        if ((masked == null || !masked.get(row)) && matches(row)) {
+          return row;
+        }
+      }
+      return -1;
+    }
+
+    /**
+     * Compares a row of this scan with a row of another snapshot in the query's order.
+     */
+    int compare(int row, CatalogSnapshot other, int otherRow) {
+      int result = compare(row, byPrice ? other.prices[otherRow] : 0,
+          other.idHigh[otherRow], other.idLow[otherRow]);
+      return result * step;
+    }
+
+    private boolean matches(int row) {
+      long price = snapshot.prices[row];
+      if ((minPrice != null && price < minPrice) || (maxPrice != null && price > maxPrice)) {
+        return false;
+      }
+
+      return namePrefix == null || startsWithLowerCase(snapshot.names[row], namePrefix);
+    }
+
+    // Matches lower(name) like 'prefix%' for a lowercase ASCII prefix. Postgres lowercases one
+    // character at a time, as Character.toLowerCase does, so e.g. 'İ' matches 'i' but the
+    // dotless 'ı' doesn't, and nothing is allocated per row.
+    private static boolean startsWithLowerCase(String name, String prefix) {
+      if (name.length() < prefix.length()) {
+        return false;
+      }
+      for (int i = 0; i < prefix.length(); i++) {
+        if (Character.toLowerCase(name.charAt(i)) != prefix.charAt(i)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private static Long cents(BigDecimal price) {
+      return price == null ? null : CatalogSnapshot.cents(price);
+    }
+
+    private int row(int position) {
+      return byPrice ? snapshot.byPrice[position] : position;
+    }
+
+    // Ascending (key, id) order, where the key is the price when sorting by price.
+    private int compare(int row, long key, long high, long low) {
+      if (byPrice) {
+        int result = Long.compare(snapshot.prices[row], key);
+        if (result != 0) {
+          return result;
+        }
+      }
+      return CatalogSnapshot.compareIds(snapshot.idHigh[row], snapshot.idLow[row], high, low);
+    }
+
+    // First position at or after (key, id) in ascending order.
+    private int lowerBound(long key, long high, long low) {
+      int from = 0;
+      int to = snapshot.size();
+      while (from < to) {
+        int middle = (from + to) >>> 1;
+        if (compare(row(middle), key, high, low) < 0) {
+          from = middle + 1;
+        } else {
+          to = middle;
+        }
+      }
+      return from;
+    }
+
+    // First position after (key, id) in ascending order.
+    private int upperBound(long key, long high, long low) {
+      int from = 0;
+      int to = snapshot.size();
+      while (from < to) {
+        int middle = (from + to) >>> 1;
+        if (compare(row(middle), key, high, low) <= 0) {
+          from = middle + 1;
+        } else {
+          to = middle;
+        }
+      }
+      return from;
+    }
+  }
+}
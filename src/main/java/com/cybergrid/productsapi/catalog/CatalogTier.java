@@ -0,0 +1,367 @@
+package com.cybergrid.productsapi.catalog;
+
+import com.cybergrid.productsapi.dto.ProductResponse;
+import com.cybergrid.productsapi.models.ProductEvent;
+import com.cybergrid.productsapi.repositories.ProductEventsRepository;
+import com.cybergrid.productsapi.repositories.ProductQuery;
+import com.cybergrid.productsapi.repositories.ProductsRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Optional in-memory copy of the whole catalog, which serves product listings and lookups
+ * without the database.
+ *
+ * <p>The catalog is loaded once at startup, from the snapshot file if there is one and
+ * otherwise with a single scan of the products table. It's then kept current by a background
+ * thread replaying the product events outbox, which includes writes made through other
+ * instances. Like a read replica, it lags behind them, by up to the events settle window plus
+ * the poll interval.
+ *
+ * <p>Until it's loaded, reads go to the database. Products written through this instance are
+ * read from the database as well until the catalog has caught up with their write, while every
+ * other product is still served from memory. Writes through this instance are therefore visible
+ * to the next read, as without the catalog.
+ */
+@Component
+public class CatalogTier implements SmartLifecycle {
+  private static final int EVENTS_PAGE = 1000;
+  private static final Logger log = LoggerFactory.getLogger(CatalogTier.class);
+
+  private final boolean enabled;
+  private final Path snapshotFile;
+  private final Duration pollInterval;
+  private final Duration settleWindow;
+  private final int compactionThreshold;
+  private final ProductsRepository productsRepository;
+  private final ProductEventsRepository productEventsRepository;
+  private final TransactionTemplate loadTransaction;
+  private final TransactionTemplate catchUpTransaction;
+
+  private final AtomicLong writes = new AtomicLong();
+  // Products written through this instance that the catalog hasn't caught up with yet, by the
+  // write that last changed them.
+  private final Map<UUID, Long> written = new ConcurrentHashMap<>();
+  // Copies of written taken by catch-ups, by the latest event sequence at the time. Only touched
+  // by the scheduler thread.
+  private final Deque<Map.Entry<Long, Map<UUID, Long>>> awaitingEvents = new ArrayDeque<>();
+  private final AtomicBoolean catchUpQueued = new AtomicBoolean();
+  private volatile boolean loading;
+  private volatile CatalogState state;
+  private ScheduledExecutorService scheduler;
+
+  public CatalogTier(
+      @Value("${app.catalog.enabled}") boolean enabled,
+      @Value("${app.catalog.snapshot-file}") String snapshotFile,
+      @Value("${app.catalog.poll-interval}") Duration pollInterval,
+      @Value("${app.catalog.compaction-threshold}") int compactionThreshold,
+      @Value("${app.events.settle-window}") Duration settleWindow,
+      ProductsRepository productsRepository,
+      ProductEventsRepository productEventsRepository,
+      PlatformTransactionManager transactionManager,
+      MeterRegistry meterRegistry) {
+    this.enabled = enabled;
+    this.snapshotFile = snapshotFile.isBlank() ? null : Path.of(snapshotFile);
+    this.pollInterval = pollInterval;
+    this.compactionThreshold = compactionThreshold;
+    this.settleWindow = settleWindow;
+    this.productsRepository = productsRepository;
+    this.productEventsRepository = productEventsRepository;
+
+    // Rows and the latest event sequence have to come from the same database snapshot.
+    this.loadTransaction = new TransactionTemplate(transactionManager);
+    this.loadTransaction.setReadOnly(true);
+    this.loadTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    // Catch-ups triggered by a write run while its transaction is still bound to the thread.
+    // Not read-only, so they read from the primary and never move the catalog back in time.
+    // Reads of products written through this instance use it for the same reason.
+    this.catchUpTransaction = new TransactionTemplate(transactionManager);
+    this.catchUpTransaction.setPropagationBehavior(
+        TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+    if (enabled) {
+      Gauge.builder("catalog.products", this, tier -> tier.state == null ? 0 : tier.state.size())
+          .description("Products in the in-memory catalog")
+          .register(meterRegistry);
+      Gauge.builder("catalog.overlay.products", this,
+              tier -> tier.state == null ? 0 : tier.state.overlay.size())
+          .description("Products changed since the in-memory catalog was last compacted")
+          .register(meterRegistry);
+      Gauge.builder("catalog.written.products", written, Map::size)
+          .description("Products written through this instance but not yet in the catalog")
+          .register(meterRegistry);
+    }
+  }
+
+  /**
+   * Returns whether product {@code id} can be served from the catalog.
+   */
+  public boolean isServing(UUID id) {
+    return state != null && !written.containsKey(id);
+  }
+
+  /**
+   * Returns whether the catalog can answer {@code query} exactly like the database.
+   */
+  public boolean canServe(ProductQuery query) {
+    return state != null && CatalogState.supports(query);
+  }
+
+  /**
+   * Returns a page of products matching {@code query}. Check {@link #canServe} first.
+   *
+   * <p>Products written through this instance that the catalog hasn't caught up with yet are
+   * read from the database and take the place of their catalog rows for this page, so it
+   * reflects those writes.
+   */
+  public List<ProductResponse> getProducts(ProductQuery query) {
+    // Read before the state: once a product is no longer listed, the state includes its write.
+    UUID[] ids = written.keySet().toArray(UUID[]::new);
+    CatalogState current = state;
+    if (ids.length == 0) {
+      return current.query(query);
+    }
+
+    List<ProductResponse> products = catchUpTransaction.execute(status ->
+        productsRepository.findAllByIdAny(ids));
+    return current.apply(current.sequence, List.of(ids), products).query(query);
+  }
+
+  /**
+   * Returns a product, or an empty optional if it doesn't exist. Check {@link #isServing} first.
+   */
+  public Optional<ProductResponse> getProductById(UUID id) {
+    return state.find(id);
+  }
+
+  /**
+   * Called once a write of the products with the given ids through this instance has committed.
+   * Reads of those products go to the database until the catalog has caught up, which is started
+   * as soon as the write's events have settled.
+   */
+  public void writeCommitted(Collection<UUID> ids) {
+    // Until the catalog is loaded, every read goes to the database anyway. Writes made while it's
+    // loading are still tracked, since the load may not include them.
+    if (!enabled || (state == null && !loading)) {
+      return;
+    }
+
+    long write = writes.incrementAndGet();
+    ids.forEach(id -> written.put(id, write));
+    ScheduledExecutorService scheduler = this.scheduler;
+    if (scheduler != null && catchUpQueued.compareAndSet(false, true)) {
+      scheduler.schedule(this::poll, settleWindow.toMillis(), TimeUnit.MILLISECONDS);
+    }
+  }
+
+  @Override
+  public synchronized void start() {
+    if (!enabled) {
+      return;
+    }
+
+    scheduler = Executors.newSingleThreadScheduledExecutor(
+        runnable -> Thread.ofPlatform().name("catalog-tier").daemon().unstarted(runnable));
+    loading = true;
+    scheduler.execute(this::load);
+    scheduler.scheduleWithFixedDelay(
+        this::poll,
+        pollInterval.toMillis(),
+        pollInterval.toMillis(),
+        TimeUnit.MILLISECONDS);
+  }
+
+  // Saves a compacted catalog, so the next start only replays events written after now.
+  @Override
+  public synchronized void stop() {
+    if (scheduler == null) {
+      return;
+    }
+
+    scheduler.shutdownNow();
+    try {
+      scheduler.awaitTermination(10, TimeUnit.SECONDS);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+    scheduler = null;
+
+    if (state != null) {
+      state = state.compact();
+      save(state);
+    }
+  }
+
+  @Override
+  public synchronized boolean isRunning() {
+    return scheduler != null;
+  }
+
+  private void load() {
+    try {
+      CatalogState loaded = readSnapshotFile();
+      if (loaded == null) {
+        loaded = scan();
+        save(loaded);
+      }
+      // Only served once caught up, a snapshot file can be hours old.
+      catchUp(loaded);
+      log.info("Loaded {} products into the catalog", state.size());
+    } catch (RuntimeException ex) {
+      // Reads keep going to the database, the next start will try again.
+      log.error("Could not load the catalog", ex);
+    } finally {
+      loading = false;
+      if (state == null) {
+        // Nothing is served, so there's nothing to catch up with either.
+        written.clear();
+        awaitingEvents.clear();
+      }
+    }
+  }
+
+  private void poll() {
+    // An exception would cancel the scheduled task, so log it and try again on the next poll.
+    try {
+      if (state == null) {
+        return;
+      }
+
+      catchUp(state);
+      if (state.overlay.size() >= compactionThreshold) {
+        state = state.compact();
+        save(state);
+      }
+    } catch (RuntimeException ex) {
+      log.warn("Could not catch up the catalog", ex);
+    }
+  }
+
+  // Only runs on the scheduler thread, so states are never applied concurrently.
+  private void catchUp(CatalogState from) {
+    catchUpQueued.set(false);
+    // Writes recorded before reading the latest sequence are committed, so their events are at
+    // or below it. They're only included once those events have settled.
+    Map<UUID, Long> writtenSeen = Map.copyOf(written);
+    if (!writtenSeen.isEmpty()) {
+      long latest = catchUpTransaction.execute(status ->
+          productEventsRepository.findLatestSequence());
+      awaitingEvents.add(Map.entry(latest, writtenSeen));
+    }
+
+    CatalogState current = from;
+    while (true) {
+      CatalogState previous = current;
+      CatalogState next = catchUpTransaction.execute(status -> {
+        List<ProductEvent> events = productEventsRepository
+            .findSettledAfter(previous.sequence, settleWindow, EVENTS_PAGE);
+        if (events.isEmpty()) {
+          return null;
+        }
+
+        Set<UUID> ids = new LinkedHashSet<>();
+        events.forEach(event -> ids.add(event.getProductId()));
+        // Current rows rather than event payloads, since events don't carry timestamps.
+        List<ProductResponse> products =
+            productsRepository.findAllByIdAny(ids.toArray(UUID[]::new));
+        return previous.apply(events.getLast().getSequence(), ids, products);
+      });
+
+      if (next == null) {
+        break;
+      }
+      current = next;
+    }
+
+    state = current;
+    // Products written again since are left for a later catch-up.
+    while (!awaitingEvents.isEmpty() && awaitingEvents.peek().getKey() <= current.sequence) {
+      awaitingEvents.poll().getValue().forEach(written::remove);
+    }
+  }
+
+  private CatalogState scan() {
+    long started = System.nanoTime();
+    CatalogState scanned = loadTransaction.execute(status -> {
+      // Events after it may not have committed yet, they're replayed by the first catch-up.
+      long sequence = productEventsRepository.findSettledSequence(settleWindow);
+      CatalogSnapshot.Builder builder = new CatalogSnapshot.Builder();
+      try (Stream<ProductResponse> products = productsRepository.streamAll()) {
+        products.forEach(builder::add);
+      }
+      return new CatalogState(sequence, builder.build());
+    });
+
+    log.info("Scanned {} products in {} ms", scanned.size(),
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    return scanned;
+  }
+
+  private CatalogState readSnapshotFile() {
+    if (snapshotFile == null || !Files.exists(snapshotFile)) {
+      return null;
+    }
+
+    try {
+      CatalogState loaded = CatalogSnapshotFile.read(snapshotFile);
+      // A snapshot ahead of the outbox was taken of another database.
+      long latest = catchUpTransaction.execute(status ->
+          productEventsRepository.findLatestSequence());
+      if (loaded.sequence > latest) {
+        log.warn("Ignoring catalog snapshot {} ahead of the product events", snapshotFile);
+        return null;
+      }
+      // Events following a snapshot older than the retention period may have been deleted.
+      long oldest = catchUpTransaction.execute(status ->
+          productEventsRepository.findOldestSequence());
+      if (loaded.sequence < oldest - 1) {
+        log.warn("Ignoring catalog snapshot {} older than the product events", snapshotFile);
+        return null;
+      }
+      return loaded;
+    } catch (IOException ex) {
+      log.warn("Ignoring unreadable catalog snapshot {}", snapshotFile, ex);
+      return null;
+    }
+  }
+
+  private void save(CatalogState catalog) {
+    if (snapshotFile == null || catalog.overlay.size() > 0) {
+      return;
+    }
+
+    try {
+      CatalogSnapshotFile.write(snapshotFile, catalog);
+    } catch (IOException ex) {
+      log.warn("Could not save the catalog snapshot {}", snapshotFile, ex);
+    }
+  }
+}
@@ -0,0 +1,90 @@
+package com.cybergrid.productsapi.controllers;
+
+import com.cybergrid.productsapi.dto.ProductResponse;
+import com.cybergrid.productsapi.pricing.Price;
+import com.cybergrid.productsapi.repositories.ProductQuery;
+import com.cybergrid.productsapi.repositories.ProductSort;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Encodes and decodes the opaque keyset pagination cursor used by product listings.
+ *
+ * <p>The cursor points at the last product of a page. It holds the ordering it was created
+ * for along with that product's id and sort key, and is encoded as URL-safe Base64 so
+ * clients treat it as a token instead of building it themselves.
+ */
+public final class ProductCursor {
+  private static final String SEPARATOR = ":";
+  private static final String ASCENDING = "a";
+  private static final String DESCENDING = "d";
+
+  private ProductCursor() {
+  }
+
+  public static String encode(ProductQuery query, ProductResponse last) {
+    String key = switch (query.getSort()) {
+      case ID -> "";
+      case NAME -> last.getName();
+      case PRICE -> last.getPrice().toString();
+    };
+
+    String cursor = String.join(
+        SEPARATOR,
+        query.getSort().getProperty(),
+        query.isDescending() ? DESCENDING : ASCENDING,
+        last.getId().toString(),
+        key);
+
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Positions {@code query} after the product the cursor points at.
+   *
+   * @throws ResponseStatusException with 400 Bad Request if the cursor is malformed or was
+   *     created for a different ordering
+   */
+  public static void apply(String cursor, ProductQuery query) {
+    String[] parts;
+    UUID id;
+    try {
+      String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      // The key is last, so names containing the separator stay intact.
+      parts = decoded.split(SEPARATOR, 4);
+      if (parts.length != 4) {
+        throw invalidCursor();
+      }
+      id = UUID.fromString(parts[2]);
+    } catch (IllegalArgumentException ex) {
+      throw invalidCursor();
+    }
+
+    String direction = query.isDescending() ? DESCENDING : ASCENDING;
+    if (!parts[0].equals(query.getSort().getProperty()) || !parts[1].equals(direction)) {
+      throw new ResponseStatusException(
+          HttpStatus.BAD_REQUEST,
+          "Cursor was created for a different sort order");
+    }
+
+    String key = parts[3];
+    if (query.getSort() == ProductSort.PRICE) {
+      try {
+        Price.parse(key);
+      } catch (NumberFormatException ex) {
+        throw invalidCursor();
+      }
+    }
+
+    query.setAfter(id, query.getSort() == ProductSort.ID ? null : key);
+  }
+
+  private static ResponseStatusException invalidCursor() {
+    return new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+  }
+}
@@ -0,0 +1,121 @@
+package com.cybergrid.productsapi.controllers;
+
+import com.cybergrid.productsapi.dto.ProductResponse;
+import java.nio.ByteBuffer;
+import java.util.List;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Builds strong ETags for products and parses {@code If-Match} headers back into versions.
+ *
+ * <p>A product's ETag is its version. A page's ETag is a digest of the ids and versions on it,
+ * which changes whenever any product on the page does. Pages written in a format other than
+ * JSON get that format as a suffix, since their bodies differ, and so do gzipped pages.
+ */
+public final class ProductETags {
+  private static final String ANY = "*";
+
+  private ProductETags() {
+  }
+
+  public static String of(ProductResponse product) {
+    return "\"" + product.getVersion() + "\"";
+  }
+
+  public static String of(List<ProductResponse> products) {
+    ByteBuffer buffer = ByteBuffer.allocate(products.size() * 3 * Long.BYTES);
+    for (ProductResponse product : products) {
+      buffer.putLong(product.getId().getMostSignificantBits());
+      buffer.putLong(product.getId().getLeastSignificantBits());
+      buffer.putLong(product.getVersion());
+    }
+
+    return "\"" + DigestUtils.md5DigestAsHex(buffer.array()) + "\"";
+  }
+
+  /**
+   * Returns the ETag of another representation of the same content, such as another format,
+   * e.g. {@code "abc-cbor"} for {@code "abc"}.
+   */
+  public static String withSuffix(String eTag, String suffix) {
+    return eTag.substring(0, eTag.length() - 1) + "-" + suffix + "\"";
+  }
+
+  /**
+   * Returns the first of {@code eTags} that an {@code If-None-Match} header lists, or
+   * {@code null} if it lists none of them. Like Spring's own check, it compares weakly, so
+   * {@code W/"abc"} matches {@code "abc"}.
+   */
+  public static String matchIfNoneMatch(String ifNoneMatch, String... eTags) {
+    if (ifNoneMatch == null) {
+      return null;
+    }
+
+    for (String listed : ifNoneMatch.split(",")) {
+      String eTag = listed.trim();
+      if (eTag.equals(ANY)) {
+        return eTags[0];
+      }
+      if (eTag.startsWith("W/")) {
+        eTag = eTag.substring(2);
+      }
+      for (String candidate : eTags) {
+        if (candidate.equals(eTag)) {
+          return candidate;
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns the version an {@code If-Match} header expects, or {@code null} if any version
+   * will do.
+   *
+   * <p>Only a single strong ETag (or {@code *}) is supported. ETags of any format match, since
+   * they all carry the same version. Anything else can't match a product's current ETag, so it's
+   * rejected with 412 Precondition Failed.
+   */
+  public static Long parseIfMatch(String ifMatch) {
+    if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals(ANY)) {
+      return null;
+    }
+
+    String etag = ifMatch.trim();
+    if (etag.length() < 2 || !etag.startsWith("\"") || !etag.endsWith("\"")) {
+      throw preconditionFailed();
+    }
+
+    String version = etag.substring(1, etag.length() - 1);
+    int suffix = version.indexOf('-');
+    if (suffix > 0) {
+      version = version.substring(0, suffix);
+    }
+
+    try {
+      return Long.parseLong(version);
+    } catch (NumberFormatException ex) {
+      throw preconditionFailed();
+    }
+  }
+
+  /**
+   * Returns the error to answer a failed write with. {@code If-Match: *} only matches an existing
+   * product, so a write of a missing one fails with 412 Precondition Failed instead of 404 Not
+   * Found.
+   */
+  public static ResponseStatusException writeError(String ifMatch, ResponseStatusException ex) {
+    if (ifMatch != null
+        && ifMatch.trim().equals(ANY)
+        && ex.getStatusCode().isSameCodeAs(HttpStatus.NOT_FOUND)) {
+      return new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "Product not found");
+    }
+    return ex;
+  }
+
+  private static ResponseStatusException preconditionFailed() {
+    return new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "Product version mismatch");
+  }
+}
@@ -0,0 +1,170 @@
+package com.cybergrid.productsapi.controllers;
+
+import com.cybergrid.productsapi.dto.ProductEventResponse;
+import com.cybergrid.productsapi.mappers.ProductEventMapper;
+import com.cybergrid.productsapi.services.ProductEventsService;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Pushes product events to Server-Sent Events subscribers.
+ *
+ * <p>A single background thread polls the outbox, with one read per distinct subscriber position:
+ * subscribers that are caught up share a read of the newest events, while lagging ones catch up
+ * at their own pace. Events are written to each client on a virtual thread of its own. Each
+ * event is sent with its sequence number as the event id, so clients resume where they left off
+ * by reconnecting with {@code Last-Event-ID}.
+ */
+@Component
+public class ProductEventStreams implements SmartLifecycle {
+  private static final Duration KEEP_ALIVE_INTERVAL = Duration.ofSeconds(15);
+  private static final Logger log = LoggerFactory.getLogger(ProductEventStreams.class);
+
+  private final ProductEventsService productEventsService;
+  private final Duration pollInterval;
+  private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+  private ScheduledExecutorService scheduler;
+  private ExecutorService senders;
+
+  public ProductEventStreams(
+      ProductEventsService productEventsService,
+      @Value("${app.events.poll-interval}") Duration pollInterval) {
+    this.productEventsService = productEventsService;
+    this.pollInterval = pollInterval;
+  }
+
+  /**
+   * Streams events following sequence number {@code after} until the client disconnects or
+   * the async request times out.
+   */
+  public SseEmitter subscribe(long after) {
+    SseEmitter emitter = new SseEmitter();
+    Subscriber subscriber = new Subscriber(emitter, after);
+    emitter.onCompletion(() -> subscribers.remove(subscriber));
+    emitter.onTimeout(() -> subscribers.remove(subscriber));
+    emitter.onError(ex -> subscribers.remove(subscriber));
+    subscribers.add(subscriber);
+    return emitter;
+  }
+
+  @Override
+  public synchronized void start() {
+    senders = Executors.newThreadPerTaskExecutor(
+        Thread.ofVirtual().name("product-event-stream-", 0).factory());
+    scheduler = Executors.newSingleThreadScheduledExecutor(
+        runnable -> Thread.ofPlatform().name("product-event-streams").daemon().unstarted(runnable));
+    scheduler.scheduleWithFixedDelay(
+        this::poll,
+        pollInterval.toMillis(),
+        pollInterval.toMillis(),
+        TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public synchronized void stop() {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+      scheduler = null;
+      senders.shutdownNow();
+      senders = null;
+    }
+    subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    subscribers.clear();
+  }
+
+  @Override
+  public synchronized boolean isRunning() {
+    return scheduler != null;
+  }
+
+  private void poll() {
+    // An exception would cancel the scheduled task, so log it and try again on the next poll.
+    try {
+      if (subscribers.isEmpty()) {
+        return;
+      }
+
+      // Subscribers still sending the previous batch continue from where it ends next poll.
+      // Caught-up subscribers share the head offset, so they share a single read, while lagging
+      // ones read from their own offset and never hold the others back.
+      Map<Long, List<Subscriber>> byOffset = new TreeMap<>();
+      for (Subscriber subscriber : subscribers) {
+        if (!subscriber.sending.get()) {
+          byOffset.computeIfAbsent(subscriber.after, after -> new ArrayList<>()).add(subscriber);
+        }
+      }
+
+      long now = System.nanoTime();
+      for (Map.Entry<Long, List<Subscriber>> group : byOffset.entrySet()) {
+        List<ProductEventResponse> events = productEventsService
+            .getEvents(group.getKey(), ProductEventsService.MAX_PAGE_SIZE)
+            .stream()
+            .map(ProductEventMapper::toResponse)
+            .toList();
+        for (Subscriber subscriber : group.getValue()) {
+          if (subscriber.sending.compareAndSet(false, true)) {
+            senders.execute(() -> send(subscriber, events, now));
+          }
+        }
+      }
+    } catch (RuntimeException ex) {
+      log.warn("Could not poll product events", ex);
+    }
+  }
+
+  // Runs on a virtual thread of its own, so a slow client only blocks its own stream.
+  private void send(Subscriber subscriber, List<ProductEventResponse> events, long now) {
+    try {
+      for (ProductEventResponse event : events) {
+        subscriber.emitter.send(SseEmitter.event()
+            .id(Long.toString(event.getSequence()))
+            .data(event, MediaType.APPLICATION_JSON));
+        subscriber.after = event.getSequence();
+        subscriber.lastSent = now;
+      }
+
+      // Lets proxies keep idle connections open, and finds clients that went away.
+      if (now - subscriber.lastSent > KEEP_ALIVE_INTERVAL.toNanos()) {
+        subscriber.emitter.send(SseEmitter.event().comment("keep-alive"));
+        subscriber.lastSent = now;
+      }
+    } catch (IOException | IllegalStateException ex) {
+      subscribers.remove(subscriber);
+      subscriber.emitter.completeWithError(ex);
+    } finally {
+      subscriber.sending.set(false);
+    }
+  }
+
+  // Only one send runs per subscriber at a time, which sending guards. Its writes are read by
+  // the polling thread after that send has cleared the flag.
+  private static final class Subscriber {
+    private final SseEmitter emitter;
+    private final AtomicBoolean sending = new AtomicBoolean();
+    private volatile long after;
+    private long lastSent = System.nanoTime();
+
+    private Subscriber(SseEmitter emitter, long after) {
+      this.emitter = emitter;
+      this.after = after;
+    }
+  }
+}
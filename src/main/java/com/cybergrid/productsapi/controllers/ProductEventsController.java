@@ -0,0 +1,88 @@
+package com.cybergrid.productsapi.controllers;
+
+import com.cybergrid.productsapi.dto.ProductEventResponse;
+import com.cybergrid.productsapi.mappers.ProductEventMapper;
+import com.cybergrid.productsapi.services.ProductEventsService;
+import java.util.List;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+/**
+ * Change feed of product creates, updates and deletes.
+ *
+ * <p>Consumers keep the sequence number of the last event they processed and only read the
+ * events after it, either page by page or as a Server-Sent Events stream.
+ */
+@RestController
+@RequestMapping("api/v1/products/events")
+public class ProductEventsController {
+  private final ProductEventsService productEventsService;
+  private final ProductEventStreams productEventStreams;
+
+  public ProductEventsController(
+      ProductEventsService productEventsService,
+      ProductEventStreams productEventStreams) {
+    this.productEventsService = productEventsService;
+    this.productEventStreams = productEventStreams;
+  }
+
+  /**
+   * Returns the events following sequence number {@code after}, oldest first.
+   *
+   * <p>Unless the page is empty, a {@code Link} header with {@code rel="next"} points at the
+   * events following this page. An empty page means the consumer is caught up and should poll
+   * the same URL again later.
+   */
+  @GetMapping
+  public ResponseEntity<List<ProductEventResponse>> getEvents(
+      @RequestParam(defaultValue = "0") long after,
+      @RequestParam(defaultValue = "100") int limit) {
+    List<ProductEventResponse> events = productEventsService.getEvents(after, limit)
+        .stream()
+        .map(ProductEventMapper::toResponse)
+        .toList();
+
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+    if (!events.isEmpty()) {
+      String next = ServletUriComponentsBuilder
+          .fromCurrentRequest()
+          .replaceQueryParam("after", events.getLast().getSequence())
+          .toUriString();
+      response.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+    }
+
+    return response.body(events);
+  }
+
+  /**
+   * Streams the events following sequence number {@code after} as Server-Sent Events.
+   *
+   * <p>Reconnecting clients send {@code Last-Event-ID}, which takes precedence over
+   * {@code after}.
+   */
+  @GetMapping(path = "stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter streamEvents(
+      @RequestParam(defaultValue = "0") long after,
+      @RequestHeader(name = "Last-Event-ID", required = false) String lastEventId) {
+    long from = after;
+    if (lastEventId != null) {
+      try {
+        from = Long.parseLong(lastEventId);
+      } catch (NumberFormatException ex) {
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid Last-Event-ID");
+      }
+    }
+
+    return productEventStreams.subscribe(from);
+  }
+}
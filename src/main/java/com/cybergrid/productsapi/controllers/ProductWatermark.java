@@ -0,0 +1,65 @@
+package com.cybergrid.productsapi.controllers;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Encodes and decodes the opaque sync watermark returned by the product changes endpoint.
+ *
+ * <p>Like {@link ProductCursor}, it's URL-safe Base64, so clients store and send it back as is.
+ */
+public final class ProductWatermark {
+  private static final String SEPARATOR = "|";
+
+  private final Instant at;
+  private final UUID id;
+
+  private ProductWatermark(Instant at, UUID id) {
+    this.at = at;
+    this.id = id;
+  }
+
+  public static String encode(Instant at, UUID id) {
+    String watermark = at.toString() + SEPARATOR + id;
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(watermark.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Decodes a watermark created by {@link #encode}.
+   *
+   * @throws ResponseStatusException with 400 Bad Request if the watermark is malformed
+   */
+  public static ProductWatermark decode(String watermark) {
+    try {
+      String decoded = new String(Base64.getUrlDecoder().decode(watermark), StandardCharsets.UTF_8);
+      int separator = decoded.indexOf(SEPARATOR);
+      if (separator < 0) {
+        throw invalidWatermark();
+      }
+      return new ProductWatermark(
+          Instant.parse(decoded.substring(0, separator)),
+          UUID.fromString(decoded.substring(separator + 1)));
+    } catch (IllegalArgumentException | DateTimeException ex) {
+      throw invalidWatermark();
+    }
+  }
+
+  public Instant getAt() {
+    return at;
+  }
+
+  public UUID getId() {
+    return id;
+  }
+
+  private static ResponseStatusException invalidWatermark() {
+    return new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid watermark");
+  }
+}
@@ -0,0 +1,45 @@
+package com.cybergrid.productsapi.controllers;
+
+import com.cybergrid.productsapi.dto.ProductBatchRequest;
+import com.cybergrid.productsapi.dto.ProductBatchResult;
+import com.cybergrid.productsapi.dto.ProductLookupRequest;
+import com.cybergrid.productsapi.dto.ProductLookupResponse;
+import com.cybergrid.productsapi.models.Product;
+import com.cybergrid.productsapi.services.ProductLookup;
+import com.cybergrid.productsapi.services.ProductsService;
+import jakarta.validation.Valid;
+import java.util.List;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller for operations spanning many {@link Product}s in a single request.
+ *
+ * <p>These are custom methods on the products collection ({@code products:<method>}), so they
+ * can't live under {@link ProductsController}'s {@code products/} prefix.
+ */
+@RestController
+@RequestMapping("api/v1")
+public class ProductsBatchController {
+  private final ProductsService productsService;
+
+  public ProductsBatchController(ProductsService productsService) {
+    this.productsService = productsService;
+  }
+
+  // Always returns 200 OK, the outcome of each operation is reported in its result.
+  @PostMapping("products:batch")
+  public List<ProductBatchResult> batchProducts(@Valid @RequestBody ProductBatchRequest request) {
+    return productsService.processBatch(request.getOperations());
+  }
+
+  // Also 200 OK when some products don't exist, their ids are listed as missing instead.
+  @PostMapping("products:lookup")
+  public ProductLookupResponse lookupProducts(@Valid @RequestBody ProductLookupRequest request) {
+    ProductLookup lookup = productsService.lookupProducts(request.getIds());
+
+    return new ProductLookupResponse(lookup.getFound(), lookup.getMissing());
+  }
+}
@@ -1,14 +1,41 @@
 package com.cybergrid.productsapi.controllers;
 
+import com.cybergrid.productsapi.cache.ProductPage;
+import com.cybergrid.productsapi.cache.ProductPageCache;
+import com.cybergrid.productsapi.dto.ProductChangesResponse;
 import com.cybergrid.productsapi.dto.ProductRequest;
 import com.cybergrid.productsapi.dto.ProductResponse;
 import com.cybergrid.productsapi.mappers.ProductMapper;
 import com.cybergrid.productsapi.models.Product;
+import com.cybergrid.productsapi.models.ProductTombstone;
+import com.cybergrid.productsapi.repositories.ProductQuery;
+import com.cybergrid.productsapi.repositories.ProductSort;
+import com.cybergrid.productsapi.services.ProductChanges;
+import com.cybergrid.productsapi.services.ProductChangesService;
 import com.cybergrid.productsapi.services.ProductsService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
 import java.net.URI;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -16,44 +43,263 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 /**
  * REST controller for managing {@link Product}s.
  *
  * <p>We're not setting any cache control headers, since we're expecting products
- * to change often.
+ * to change often. Instead, reads return strong ETags so clients can revalidate with
+ * {@code If-None-Match}, and writes accept {@code If-Match} to avoid lost updates.
  */
 @RestController
 @RequestMapping("api/v1/products")
 public class ProductsController {
+  // Flush roughly once per database fetch, so clients get data while the export is running.
+  private static final int EXPORT_FLUSH_INTERVAL = 500;
+  private static final int EXPORT_GZIP_BUFFER_SIZE = 64 * 1024;
+
+  private static final List<MediaType> PAGE_FORMATS = List.of(
+      MediaType.APPLICATION_JSON,
+      MediaType.APPLICATION_CBOR,
+      MediaType.parseMediaType("application/x-jackson-smile"));
+
+  private static final TypeReference<List<ProductResponse>> PRODUCT_LIST = new TypeReference<>() {
+  };
+
   private final ProductsService productsService;
+  private final ProductChangesService productChangesService;
+  private final ProductPageCache productPageCache;
+  private final ObjectMapper objectMapper;
 
-  public ProductsController(ProductsService productsService) {
+  public ProductsController(
+      ProductsService productsService,
+      ProductChangesService productChangesService,
+      ProductPageCache productPageCache,
+      ObjectMapper objectMapper) {
     this.productsService = productsService;
+    this.productChangesService = productChangesService;
+    this.productPageCache = productPageCache;
+    this.objectMapper = objectMapper;
   }
 
+  /**
+   * Returns a page of products, optionally filtered by name prefix and price range.
+   *
+   * <p>{@code sort} is one of {@code id}, {@code name} or {@code price}, prefixed with
+   * {@code -} for descending order. When the page is full, a {@code Link} header with
+   * {@code rel="next"} points at the following page.
+   *
+   * <p>JSON pages are serialized here rather than by the message converters, so they can be
+   * gzipped and cached by {@link ProductPageCache}. Tomcat doesn't compress responses with a
+   * strong ETag, so large pages would otherwise always go out uncompressed. Gzipped pages have
+   * an ETag of their own, and {@code If-None-Match} is answered for either encoding.
+   */
   @GetMapping
-  public List<ProductResponse> getProducts() {
-    return productsService.getProducts()
-        .stream()
-        .map(ProductMapper::toResponse)
-        .toList();
+  public ResponseEntity<?> getProducts(
+      @RequestParam(required = false) String name,
+      @RequestParam(required = false) BigDecimal minPrice,
+      @RequestParam(required = false) BigDecimal maxPrice,
+      @RequestParam(defaultValue = "id") String sort,
+      @RequestParam(defaultValue = "100") int limit,
+      @RequestParam(required = false) String after,
+      @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch)
+      throws IOException {
+    boolean descending = sort.startsWith("-");
+    ProductSort sortBy = ProductSort
+        .fromProperty(descending ? sort.substring(1) : sort)
+        .orElseThrow(() -> new ResponseStatusException(
+            HttpStatus.BAD_REQUEST,
+            "Unknown sort property"));
+
+    ProductQuery query = new ProductQuery(name, minPrice, maxPrice, sortBy, descending, limit);
+    if (after != null) {
+      ProductCursor.apply(after, query);
+    }
+
+    if (!acceptsJson(accept)) {
+      List<ProductResponse> products = productsService.getProducts(query);
+      String eTag = formatETag(ProductETags.of(products), accept);
+
+      // Spring answers a matching If-None-Match with 304 before the body is serialized.
+      ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+          .eTag(eTag)
+          .varyBy(HttpHeaders.ACCEPT);
+      if (products.size() == limit) {
+        response.header(HttpHeaders.LINK, nextLink(ProductCursor.encode(query, products.getLast())));
+      }
+      return response.body(products);
+    }
+
+    boolean gzip = acceptsGzip(acceptEncoding);
+    // Everything but name is free of '|', so putting name last keeps keys unambiguous.
+    String cacheKey = String.join("|",
+        sort,
+        Integer.toString(limit),
+        Objects.toString(minPrice, ""),
+        Objects.toString(maxPrice, ""),
+        Objects.toString(after, ""),
+        Objects.toString(name, ""));
+
+    long version = productPageCache.version();
+    ProductPage page = productPageCache.get(version, cacheKey);
+    if (page == null) {
+      List<ProductResponse> products = productsService.getProducts(query);
+      // A short page means there's nothing left to read, so there is no next link.
+      String nextCursor = products.size() == limit
+          ? ProductCursor.encode(query, products.getLast())
+          : null;
+
+      page = productPageCache.newPage(
+          objectMapper.writerFor(PRODUCT_LIST).writeValueAsBytes(products),
+          ProductETags.of(products),
+          nextCursor,
+          gzip || productPageCache.isEnabled());
+      productPageCache.put(version, cacheKey, page);
+    }
+
+    boolean gzipped = gzip && page.getGzip() != null;
+    String gzipETag = ProductETags.withSuffix(page.getETag(), "gzip");
+    // Both encodings hold the same page, so a client holding either one is up to date, and is
+    // told so with the ETag it holds.
+    String matched = gzipped
+        ? ProductETags.matchIfNoneMatch(ifNoneMatch, gzipETag, page.getETag())
+        : ProductETags.matchIfNoneMatch(ifNoneMatch, page.getETag(), gzipETag);
+    if (matched != null) {
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+          .eTag(matched)
+          .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+          .build();
+    }
+
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+        .eTag(gzipped ? gzipETag : page.getETag())
+        .contentType(MediaType.APPLICATION_JSON)
+        .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+    if (page.getNextCursor() != null) {
+      response.header(HttpHeaders.LINK, nextLink(page.getNextCursor()));
+    }
+    if (gzipped) {
+      return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(page.getGzip());
+    }
+
+    return response.body(page.getJson());
+  }
+
+  /**
+   * Returns a page of products matching the search query {@code q}, most relevant first.
+   *
+   * <p>{@code q} supports web search syntax, e.g. quoted phrases, {@code or} and {@code -word}.
+   */
+  @GetMapping("search")
+  public ResponseEntity<List<ProductResponse>> searchProducts(
+      @RequestParam String q,
+      @RequestParam(defaultValue = "0") int page,
+      @RequestParam(defaultValue = "20") int size) {
+    List<ProductResponse> products = productsService.searchProducts(q, page, size);
+
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+
+    // Ranking isn't a stable key, so search pages by offset rather than by cursor.
+    if (products.size() == size) {
+      String next = ServletUriComponentsBuilder
+          .fromCurrentRequest()
+          .replaceQueryParam("page", page + 1)
+          .toUriString();
+      response.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+    }
+
+    return response.body(products);
+  }
+
+  /**
+   * Returns the products changed and the ids of products deleted since {@code since}, the
+   * watermark returned by the previous call.
+   *
+   * <p>Without {@code since}, every product is returned, {@code limit} at a time. Clients keep
+   * calling with the returned watermark while {@code more} is true, and store it for their next
+   * sync once it's false.
+   */
+  @GetMapping("changes")
+  public ProductChangesResponse getProductChanges(
+      @RequestParam(required = false) String since,
+      @RequestParam(defaultValue = "500") int limit) {
+    Instant sinceAt = Instant.EPOCH;
+    UUID afterId = ProductChangesService.FIRST_ID;
+    if (since != null) {
+      ProductWatermark watermark = ProductWatermark.decode(since);
+      sinceAt = watermark.getAt();
+      afterId = watermark.getId();
+    }
+
+    ProductChanges changes = productChangesService.getChanges(sinceAt, afterId, limit);
+    return new ProductChangesResponse(
+        changes.getChanged(),
+        changes.getDeleted().stream().map(ProductTombstone::getProductId).toList(),
+        ProductWatermark.encode(changes.getWatermarkAt(), changes.getWatermarkId()),
+        changes.hasMore());
+  }
+
+  /**
+   * Streams the whole catalog as newline-delimited JSON, gzipped if the client accepts it.
+   *
+   * <p>Products are written as they're read from the database, so memory use doesn't
+   * depend on the catalog size.
+   */
+  @GetMapping(value = "export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> exportProducts(
+      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+    boolean gzip = acceptsGzip(acceptEncoding);
+
+    StreamingResponseBody body = outputStream -> {
+      if (gzip) {
+        GZIPOutputStream gzipStream =
+            new GZIPOutputStream(outputStream, EXPORT_GZIP_BUFFER_SIZE, true);
+        writeNdjson(gzipStream);
+        gzipStream.finish();
+      } else {
+        writeNdjson(outputStream);
+      }
+    };
+
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+        .contentType(MediaType.APPLICATION_NDJSON)
+        .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+    if (gzip) {
+      response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+    }
+
+    return response.body(body);
   }
 
   @GetMapping("{id}")
-  public ProductResponse getProductById(@PathVariable UUID id) {
-    return ProductMapper.toResponse(productsService.getProductById(id));
+  public ResponseEntity<ProductResponse> getProductById(
+      @PathVariable UUID id,
+      @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+    ProductResponse product = productsService.getProductById(id);
+
+    return ResponseEntity.ok()
+        .eTag(formatETag(ProductETags.of(product), accept))
+        .varyBy(HttpHeaders.ACCEPT)
+        .body(product);
   }
 
   // Validation is handled by Spring Boot (@Valid).
   @PostMapping
-  public ResponseEntity<ProductResponse> createProduct(@Valid @RequestBody ProductRequest productDto) {
+  public ResponseEntity<ProductResponse> createProduct(
+      @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+      @Valid @RequestBody ProductRequest productDto) {
     Product product = ProductMapper.toEntity(productDto);
 
-    ProductResponse response = ProductMapper.toResponse(productsService.createProduct(product));
+    ProductResponse response = productsService.createProduct(product);
 
     URI location = ServletUriComponentsBuilder
         .fromCurrentRequest()
@@ -62,18 +308,146 @@ public class ProductsController {
         .toUri();
 
     // return 201 Created with a Location header and product in response body.
-    return ResponseEntity.created(location).body(response);
+    return ResponseEntity.created(location)
+        .eTag(formatETag(ProductETags.of(response), accept))
+        .varyBy(HttpHeaders.ACCEPT)
+        .body(response);
   }
 
+  // If-Match is optional, without it the last write wins.
   @PutMapping("{id}")
-  public void updateProduct(@PathVariable UUID id, @Valid @RequestBody ProductRequest productDto) {
+  public void updateProduct(
+      @PathVariable UUID id,
+      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+      @Valid @RequestBody ProductRequest productDto) {
     Product product = ProductMapper.toEntity(productDto);
 
-    productsService.updateProduct(id, product);
+    try {
+      productsService.updateProduct(id, product, ProductETags.parseIfMatch(ifMatch));
+    } catch (ResponseStatusException ex) {
+      throw ProductETags.writeError(ifMatch, ex);
+    }
   }
 
   @DeleteMapping("{id}")
-  public void deleteProduct(@PathVariable UUID id) {
-    productsService.deleteProduct(id);
+  public void deleteProduct(
+      @PathVariable UUID id,
+      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+    try {
+      productsService.deleteProduct(id, ProductETags.parseIfMatch(ifMatch));
+    } catch (ResponseStatusException ex) {
+      throw ProductETags.writeError(ifMatch, ex);
+    }
+  }
+
+  private static String nextLink(String cursor) {
+    String next = ServletUriComponentsBuilder
+        .fromCurrentRequest()
+        .replaceQueryParam("after", cursor)
+        .toUriString();
+    return "<" + next + ">; rel=\"next\"";
+  }
+
+  // Pages are only pre-serialized as JSON. Clients asking for anything else, e.g. CBOR, get
+  // their page from the message converters.
+  private static boolean acceptsJson(String accept) {
+    if (accept == null || accept.isBlank()) {
+      return true;
+    }
+
+    try {
+      return MediaType.parseMediaTypes(accept)
+          .stream()
+          .allMatch(MediaType.APPLICATION_JSON::isCompatibleWith);
+    } catch (InvalidMediaTypeException ex) {
+      return false;
+    }
+  }
+
+  // The format the message converters pick for accept: the first one listed with the highest
+  // quality. JSON if none can be written, which they answer with 406 Not Acceptable anyway.
+  private static MediaType negotiateFormat(String accept) {
+    try {
+      List<MediaType> acceptable = new ArrayList<>(MediaType.parseMediaTypes(accept));
+      acceptable.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+      for (MediaType type : acceptable) {
+        for (MediaType format : PAGE_FORMATS) {
+          if (type.getQualityValue() > 0 && type.includes(format)) {
+            return format;
+          }
+        }
+      }
+    } catch (InvalidMediaTypeException ex) {
+      // Rejected by the message converters as well.
+    }
+    return MediaType.APPLICATION_JSON;
+  }
+
+  // Whether Accept-Encoding allows gzip, i.e. lists it, or failing that *, with a non-zero
+  // quality. "gzip;q=0" refuses it.
+  private static boolean acceptsGzip(String acceptEncoding) {
+    if (acceptEncoding == null) {
+      return false;
+    }
+
+    double anyQuality = 0;
+    for (String listed : acceptEncoding.split(",")) {
+      String[] parts = listed.split(";");
+      String coding = parts[0].trim();
+      double quality = 1;
+      for (int i = 1; i < parts.length; i++) {
+        String parameter = parts[i].trim();
+        if (parameter.startsWith("q=") || parameter.startsWith("Q=")) {
+          try {
+            quality = Double.parseDouble(parameter.substring(2));
+          } catch (NumberFormatException ex) {
+            quality = 0;
+          }
+        }
+      }
+
+      if (coding.equalsIgnoreCase("gzip")) {
+        return quality > 0;
+      }
+      if (coding.equals("*")) {
+        anyQuality = quality;
+      }
+    }
+    return anyQuality > 0;
+  }
+
+  // Bodies written in another format differ, so they get their own ETag.
+  private static String formatETag(String eTag, String accept) {
+    MediaType format = negotiateFormat(accept);
+    if (format.equals(MediaType.APPLICATION_JSON)) {
+      return eTag;
+    }
+    return ProductETags.withSuffix(eTag, format.getSubtype());
+  }
+
+  private void writeNdjson(OutputStream outputStream) throws IOException {
+    ObjectWriter writer = objectMapper
+        .writerFor(ProductResponse.class)
+        .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+    try (JsonGenerator generator = writer.createGenerator(outputStream)) {
+      // The servlet container owns the response stream, and lines are separated by us.
+      generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      generator.setRootValueSeparator(null);
+
+      AtomicInteger written = new AtomicInteger();
+      productsService.exportProducts(product -> {
+        try {
+          writer.writeValue(generator, product);
+          generator.writeRaw('\n');
+
+          if (written.incrementAndGet() % EXPORT_FLUSH_INTERVAL == 0) {
+            generator.flush();
+          }
+        } catch (IOException ex) {
+          throw new UncheckedIOException(ex);
+        }
+      });
+    }
   }
 }
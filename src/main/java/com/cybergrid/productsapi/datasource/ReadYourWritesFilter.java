@@ -0,0 +1,91 @@
+package com.cybergrid.productsapi.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Gives clients read-your-writes consistency while replicas catch up.
+ *
+ * <p>Every request whose write commits sets a cookie that expires after the read-your-writes
+ * window. While a client sends it back, its reads are served by the primary, so it sees its own
+ * writes even on other instances. Requests that only read, whatever their method, leave clients
+ * on the replicas.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+  static final String COOKIE_NAME = "products-api-primary-until";
+
+  private final Duration window;
+
+  public ReadYourWritesFilter(Duration window) {
+    this.window = window;
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request,
+      HttpServletResponse response,
+      FilterChain filterChain) throws ServletException, IOException {
+
+    // Writes commit before the handler returns, so the response isn't committed yet.
+    if (!window.isZero()) {
+      ReplicaRouting.setWriteListener(new Runnable() {
+        private boolean cookieSet;
+
+        @Override
+        public void run() {
+          if (!cookieSet && !response.isCommitted()) {
+            response.addCookie(primaryCookie());
+            cookieSet = true;
+          }
+        }
+      });
+    }
+
+    ReplicaRouting.setPrimaryRequested(isPrimaryRequested(request));
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      ReplicaRouting.setPrimaryRequested(false);
+      ReplicaRouting.setWriteListener(null);
+    }
+  }
+
+  // Async dispatches continue on other threads, which the flag can't follow anyway.
+  @Override
+  protected boolean shouldNotFilterAsyncDispatch() {
+    return true;
+  }
+
+  private static boolean isPrimaryRequested(HttpServletRequest request) {
+    Cookie[] cookies = request.getCookies();
+    if (cookies == null) {
+      return false;
+    }
+
+    for (Cookie cookie : cookies) {
+      if (COOKIE_NAME.equals(cookie.getName())) {
+        try {
+          return Long.parseLong(cookie.getValue()) > System.currentTimeMillis();
+        } catch (NumberFormatException ex) {
+          return false;
+        }
+      }
+    }
+    return false;
+  }
+
+  private Cookie primaryCookie() {
+    long primaryUntil = System.currentTimeMillis() + window.toMillis();
+    Cookie cookie = new Cookie(COOKIE_NAME, Long.toString(primaryUntil));
+    cookie.setPath("/");
+    cookie.setHttpOnly(true);
+    cookie.setMaxAge((int) Math.max(1, window.toSeconds()));
+    return cookie;
+  }
+}
@@ -0,0 +1,82 @@
+package com.cybergrid.productsapi.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+/**
+ * Hands out connections to the replicas in round robin order, falling back to the primary.
+ *
+ * <p>A replica that fails to provide a connection is skipped for {@link #COOLDOWN}, so an
+ * unavailable replica only delays one request per cooldown instead of every request.
+ */
+public class ReplicaDataSource extends AbstractDataSource implements AutoCloseable {
+  static final Duration COOLDOWN = Duration.ofSeconds(5);
+
+  private static final Logger log = LoggerFactory.getLogger(ReplicaDataSource.class);
+
+  private final DataSource primary;
+  private final List<HikariDataSource> replicas;
+  private final ReplicaRouting routing;
+  private final AtomicInteger next = new AtomicInteger();
+  private final AtomicLongArray downUntilNanos;
+
+  public ReplicaDataSource(
+      DataSource primary,
+      List<HikariDataSource> replicas,
+      ReplicaRouting routing) {
+    this.primary = primary;
+    this.replicas = replicas;
+    this.routing = routing;
+    this.downUntilNanos = new AtomicLongArray(replicas.size());
+    long now = System.nanoTime();
+    for (int i = 0; i < replicas.size(); i++) {
+      downUntilNanos.set(i, now);
+    }
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    if (routing.isReplicaAllowed()) {
+      int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+      for (int i = 0; i < replicas.size(); i++) {
+        int index = (start + i) % replicas.size();
+        if (System.nanoTime() - downUntilNanos.get(index) < 0) {
+          continue;
+        }
+
+        try {
+          return replicas.get(index).getConnection();
+        } catch (SQLException ex) {
+          downUntilNanos.set(index, System.nanoTime() + COOLDOWN.toNanos());
+          log.warn(
+              "Replica {} is unavailable, skipping it for {}s: {}",
+              replicas.get(index).getPoolName(),
+              COOLDOWN.toSeconds(),
+              ex.getMessage());
+        }
+      }
+    }
+
+    return primary.getConnection();
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    throw new SQLFeatureNotSupportedException("Replicas are accessed with the configured user");
+  }
+
+  @Override
+  public void close() {
+    replicas.forEach(HikariDataSource::close);
+  }
+}
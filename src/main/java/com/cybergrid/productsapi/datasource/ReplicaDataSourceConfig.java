@@ -0,0 +1,81 @@
+package com.cybergrid.productsapi.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * Sends read-only transactions to the replicas listed in {@code app.datasource.replicas.urls},
+ * and everything else to the primary configured under {@code spring.datasource.*}.
+ *
+ * <p>{@code @Transactional(readOnly = true)} marks the transaction's connection read-only before
+ * it's used. {@link LazyConnectionDataSourceProxy} defers fetching the actual connection until
+ * the first statement, so by then it knows to take it from the {@link ReplicaDataSource}.
+ *
+ * <p>Without replicas, none of this is set up and Spring Boot's own data source is used.
+ */
+@Configuration
+@ConditionalOnExpression("!'${app.datasource.replicas.urls:}'.isBlank()")
+public class ReplicaDataSourceConfig {
+
+  @Bean
+  @ConfigurationProperties("spring.datasource.hikari")
+  public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+    return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+  }
+
+  // Replica pools share the primary's pool settings, but are read-only and don't fail startup
+  // if a replica is down.
+  @Bean(destroyMethod = "close")
+  public ReplicaDataSource replicaDataSource(
+      HikariDataSource primaryDataSource,
+      DataSourceProperties properties,
+      @Value("${app.datasource.replicas.urls}") List<String> urls,
+      ReplicaRouting replicaRouting,
+      Environment environment,
+      MeterRegistry meterRegistry) {
+    List<HikariDataSource> replicas = new ArrayList<>(urls.size());
+    for (String url : urls) {
+      HikariDataSource replica = properties.initializeDataSourceBuilder()
+          .type(HikariDataSource.class)
+          .url(url.trim())
+          .build();
+      Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(replica));
+      replica.setPoolName("replica-" + (replicas.size() + 1));
+      replica.setReadOnly(true);
+      replica.setInitializationFailTimeout(-1);
+      replica.setMetricRegistry(meterRegistry);
+      replicas.add(replica);
+    }
+
+    return new ReplicaDataSource(primaryDataSource, replicas, replicaRouting);
+  }
+
+  @Bean
+  @Primary
+  public DataSource dataSource(
+      HikariDataSource primaryDataSource,
+      ReplicaDataSource replicaDataSource) {
+    LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+    dataSource.setReadOnlyDataSource(replicaDataSource);
+    return dataSource;
+  }
+
+  @Bean
+  public ReadYourWritesFilter readYourWritesFilter(ReplicaRouting replicaRouting) {
+    return new ReadYourWritesFilter(replicaRouting.getReadYourWritesWindow());
+  }
+}
@@ -0,0 +1,123 @@
+package com.cybergrid.productsapi.datasource;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Decides whether read-only work may go to a replica, which can lag behind the primary.
+ *
+ * <p>Only the client that made a write is kept on the primary, see
+ * {@link ReadYourWritesFilter}. Other clients keep reading from the replicas. For
+ * {@code read-your-writes-window} after a write commits on this instance, caches shared by all
+ * clients are refilled with care instead: the written products are read from the primary, and
+ * {@link #isReplicaLagging} tells caches not to keep anything else read in the meantime.
+ */
+@Component
+public class ReplicaRouting {
+  private static final ThreadLocal<Boolean> PRIMARY_REQUESTED = new ThreadLocal<>();
+  private static final ThreadLocal<Runnable> WRITE_LISTENER = new ThreadLocal<>();
+
+  private final Duration readYourWritesWindow;
+  // Products written through this instance, by when replicas are assumed to have caught up.
+  private final Map<UUID, Long> writtenUntilNanos = new ConcurrentHashMap<>();
+  private volatile long caughtUpNanos = System.nanoTime();
+
+  public ReplicaRouting(Duration readYourWritesWindow) {
+    this.readYourWritesWindow = readYourWritesWindow;
+  }
+
+  // Without replicas, nothing can lag behind a write.
+  @Autowired
+  public ReplicaRouting(
+      @Value("${app.datasource.replicas.urls}") String replicaUrls,
+      @Value("${app.datasource.replicas.read-your-writes-window}") Duration readYourWritesWindow) {
+    this(replicaUrls.isBlank() ? Duration.ZERO : readYourWritesWindow);
+  }
+
+  public Duration getReadYourWritesWindow() {
+    return readYourWritesWindow;
+  }
+
+  /**
+   * Returns whether read-only work on the current thread may use a replica.
+   */
+  public boolean isReplicaAllowed() {
+    return PRIMARY_REQUESTED.get() == null;
+  }
+
+  /**
+   * Returns whether a replica may not have caught up with a write through this instance yet, so
+   * what it returns shouldn't be cached.
+   */
+  public boolean isReplicaLagging() {
+    return System.nanoTime() - caughtUpNanos < 0;
+  }
+
+  /**
+   * Returns whether product {@code id} was written through this instance within the
+   * read-your-writes window, so reads refilling a cache with it should use the primary.
+   */
+  public boolean isRecentlyWritten(UUID id) {
+    Long until = writtenUntilNanos.get(id);
+    return until != null && System.nanoTime() - until < 0;
+  }
+
+  /**
+   * Runs {@code read} with read-only work on the current thread going to the primary.
+   */
+  public <T> T readFromPrimary(Supplier<T> read) {
+    Boolean previous = PRIMARY_REQUESTED.get();
+    PRIMARY_REQUESTED.set(Boolean.TRUE);
+    try {
+      return read.get();
+    } finally {
+      if (previous == null) {
+        PRIMARY_REQUESTED.remove();
+      }
+    }
+  }
+
+  /**
+   * Records a committed write of the products with the given ids, and keeps the client that
+   * made it on the primary for the read-your-writes window.
+   */
+  public void recordWrite(Collection<UUID> ids) {
+    if (!readYourWritesWindow.isZero()) {
+      long now = System.nanoTime();
+      long until = now + readYourWritesWindow.toNanos();
+      writtenUntilNanos.values().removeIf(written -> now - written >= 0);
+      ids.forEach(id -> writtenUntilNanos.put(id, until));
+      caughtUpNanos = until;
+    }
+
+    Runnable listener = WRITE_LISTENER.get();
+    if (listener != null) {
+      listener.run();
+    }
+  }
+
+  // Set around a request by ReadYourWritesFilter.
+  static void setPrimaryRequested(boolean primaryRequested) {
+    if (primaryRequested) {
+      PRIMARY_REQUESTED.set(Boolean.TRUE);
+    } else {
+      PRIMARY_REQUESTED.remove();
+    }
+  }
+
+  // Set around a request by ReadYourWritesFilter, and run for writes committed while handling it.
+  static void setWriteListener(Runnable listener) {
+    if (listener != null) {
+      WRITE_LISTENER.set(listener);
+    } else {
+      WRITE_LISTENER.remove();
+    }
+  }
+}
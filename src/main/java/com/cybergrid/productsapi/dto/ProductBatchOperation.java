@@ -0,0 +1,87 @@
+package com.cybergrid.productsapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotNull;
+import java.util.UUID;
+
+/**
+ * Single create, update or delete inside a {@link ProductBatchRequest}.
+ *
+ * <p>Creates need a product, updates need both an id and a product, and deletes need an id.
+ * Updates and deletes can pass the version the client last saw, the same way single-product
+ * requests use {@code If-Match}.
+ */
+public class ProductBatchOperation {
+  public enum Type {
+    CREATE,
+    UPDATE,
+    DELETE
+  }
+
+  @NotNull
+  private Type op;
+
+  private UUID id;
+
+  private Long version;
+
+  @Valid
+  private ProductRequest product;
+
+  public ProductBatchOperation() {}
+
+  public ProductBatchOperation(Type op, UUID id, ProductRequest product) {
+    this.op = op;
+    this.id = id;
+    this.product = product;
+  }
+
+  @JsonIgnore
+  @AssertTrue(message = "id and product must match the operation type")
+  public boolean isComplete() {
+    if (op == null) {
+      // Reported by @NotNull.
+      return true;
+    }
+
+    return switch (op) {
+      case CREATE -> id == null && version == null && product != null;
+      case UPDATE -> id != null && product != null;
+      case DELETE -> id != null && product == null;
+    };
+  }
+
+  public Type getOp() {
+    return op;
+  }
+
+  public void setOp(Type op) {
+    this.op = op;
+  }
+
+  public UUID getId() {
+    return id;
+  }
+
+  public void setId(UUID id) {
+    this.id = id;
+  }
+
+  public Long getVersion() {
+    return version;
+  }
+
+  public void setVersion(Long version) {
+    this.version = version;
+  }
+
+  public ProductRequest getProduct() {
+    return product;
+  }
+
+  public void setProduct(ProductRequest product) {
+    this.product = product;
+  }
+}
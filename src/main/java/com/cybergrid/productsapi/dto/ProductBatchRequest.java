@@ -0,0 +1,29 @@
+package com.cybergrid.productsapi.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+public class ProductBatchRequest {
+  public static final int MAX_OPERATIONS = 10_000;
+
+  @NotEmpty
+  @Size(max = MAX_OPERATIONS)
+  private List<@Valid @NotNull ProductBatchOperation> operations;
+
+  public ProductBatchRequest() {}
+
+  public ProductBatchRequest(List<ProductBatchOperation> operations) {
+    this.operations = operations;
+  }
+
+  public List<ProductBatchOperation> getOperations() {
+    return operations;
+  }
+
+  public void setOperations(List<ProductBatchOperation> operations) {
+    this.operations = operations;
+  }
+}
@@ -0,0 +1,57 @@
+package com.cybergrid.productsapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.UUID;
+
+/**
+ * Outcome of a single {@link ProductBatchOperation}, reported with the HTTP status the
+ * equivalent single-product request would have returned.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProductBatchResult {
+  private int index;
+  private int status;
+  private UUID id;
+  private String error;
+
+  public ProductBatchResult() {}
+
+  public ProductBatchResult(int index, int status, UUID id, String error) {
+    this.index = index;
+    this.status = status;
+    this.id = id;
+    this.error = error;
+  }
+
+  public int getIndex() {
+    return index;
+  }
+
+  public void setIndex(int index) {
+    this.index = index;
+  }
+
+  public int getStatus() {
+    return status;
+  }
+
+  public void setStatus(int status) {
+    this.status = status;
+  }
+
+  public UUID getId() {
+    return id;
+  }
+
+  public void setId(UUID id) {
+    this.id = id;
+  }
+
+  public String getError() {
+    return error;
+  }
+
+  public void setError(String error) {
+    this.error = error;
+  }
+}
@@ -0,0 +1,56 @@
+package com.cybergrid.productsapi.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+public class ProductChangesResponse {
+  private List<ProductResponse> changed;
+  private List<UUID> deleted;
+  private String watermark;
+  private boolean more;
+
+  public ProductChangesResponse() {}
+
+  public ProductChangesResponse(
+      List<ProductResponse> changed,
+      List<UUID> deleted,
+      String watermark,
+      boolean more) {
+    this.changed = changed;
+    this.deleted = deleted;
+    this.watermark = watermark;
+    this.more = more;
+  }
+
+  public List<ProductResponse> getChanged() {
+    return changed;
+  }
+
+  public void setChanged(List<ProductResponse> changed) {
+    this.changed = changed;
+  }
+
+  public List<UUID> getDeleted() {
+    return deleted;
+  }
+
+  public void setDeleted(List<UUID> deleted) {
+    this.deleted = deleted;
+  }
+
+  public String getWatermark() {
+    return watermark;
+  }
+
+  public void setWatermark(String watermark) {
+    this.watermark = watermark;
+  }
+
+  public boolean isMore() {
+    return more;
+  }
+
+  public void setMore(boolean more) {
+    this.more = more;
+  }
+}
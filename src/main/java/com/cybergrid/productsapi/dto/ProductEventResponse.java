@@ -0,0 +1,102 @@
+package com.cybergrid.productsapi.dto;
+
+import com.cybergrid.productsapi.models.ProductEvent;
+import com.cybergrid.productsapi.pricing.Price;
+import java.time.Instant;
+import java.util.UUID;
+
+public class ProductEventResponse {
+  private long sequence;
+  private ProductEvent.Type type;
+  private UUID productId;
+  private Long version;
+  private String name;
+  private String description;
+  private Price price;
+  private Instant occurredAt;
+
+  public ProductEventResponse() {}
+
+  public ProductEventResponse(
+      long sequence,
+      ProductEvent.Type type,
+      UUID productId,
+      Long version,
+      String name,
+      String description,
+      Price price,
+      Instant occurredAt) {
+    this.sequence = sequence;
+    this.type = type;
+    this.productId = productId;
+    this.version = version;
+    this.name = name;
+    this.description = description;
+    this.price = price;
+    this.occurredAt = occurredAt;
+  }
+
+  public long getSequence() {
+    return sequence;
+  }
+
+  public void setSequence(long sequence) {
+    this.sequence = sequence;
+  }
+
+  public ProductEvent.Type getType() {
+    return type;
+  }
+
+  public void setType(ProductEvent.Type type) {
+    this.type = type;
+  }
+
+  public UUID getProductId() {
+    return productId;
+  }
+
+  public void setProductId(UUID productId) {
+    this.productId = productId;
+  }
+
+  public Long getVersion() {
+    return version;
+  }
+
+  public void setVersion(Long version) {
+    this.version = version;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public void setName(String name) {
+    this.name = name;
+  }
+
+  public String getDescription() {
+    return description;
+  }
+
+  public void setDescription(String description) {
+    this.description = description;
+  }
+
+  public Price getPrice() {
+    return price;
+  }
+
+  public void setPrice(Price price) {
+    this.price = price;
+  }
+
+  public Instant getOccurredAt() {
+    return occurredAt;
+  }
+
+  public void setOccurredAt(Instant occurredAt) {
+    this.occurredAt = occurredAt;
+  }
+}
@@ -0,0 +1,29 @@
+package com.cybergrid.productsapi.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+import java.util.UUID;
+
+public class ProductLookupRequest {
+  public static final int MAX_IDS = 500;
+
+  @NotEmpty
+  @Size(max = MAX_IDS)
+  private List<@NotNull UUID> ids;
+
+  public ProductLookupRequest() {}
+
+  public ProductLookupRequest(List<UUID> ids) {
+    this.ids = ids;
+  }
+
+  public List<UUID> getIds() {
+    return ids;
+  }
+
+  public void setIds(List<UUID> ids) {
+    this.ids = ids;
+  }
+}
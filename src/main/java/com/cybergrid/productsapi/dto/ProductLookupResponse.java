@@ -0,0 +1,32 @@
+package com.cybergrid.productsapi.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+public class ProductLookupResponse {
+  private List<ProductResponse> products;
+  private List<UUID> missing;
+
+  public ProductLookupResponse() {}
+
+  public ProductLookupResponse(List<ProductResponse> products, List<UUID> missing) {
+    this.products = products;
+    this.missing = missing;
+  }
+
+  public List<ProductResponse> getProducts() {
+    return products;
+  }
+
+  public void setProducts(List<ProductResponse> products) {
+    this.products = products;
+  }
+
+  public List<UUID> getMissing() {
+    return missing;
+  }
+
+  public void setMissing(List<UUID> missing) {
+    this.missing = missing;
+  }
+}
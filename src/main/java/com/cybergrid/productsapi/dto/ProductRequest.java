@@ -1,10 +1,9 @@
 package com.cybergrid.productsapi.dto;
 
-import jakarta.validation.constraints.DecimalMin;
-import jakarta.validation.constraints.Digits;
+import com.cybergrid.productsapi.pricing.Price;
+import com.cybergrid.productsapi.pricing.ValidPrice;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
-import java.math.BigDecimal;
 
 public class ProductRequest {
   @NotBlank
@@ -13,13 +12,12 @@ public class ProductRequest {
   private String description;
 
   @NotNull
-  @DecimalMin("0.00")
-  @Digits(integer = 15, fraction = 2)
-  private BigDecimal price;
+  @ValidPrice(integer = 15)
+  private Price price;
 
   public ProductRequest() {}
 
-  public ProductRequest(String name, String description, BigDecimal price) {
+  public ProductRequest(String name, String description, Price price) {
     this.name = name;
     this.description = description;
     this.price = price;
@@ -41,11 +39,11 @@ public class ProductRequest {
     this.description = description;
   }
 
-  public BigDecimal getPrice() {
+  public Price getPrice() {
     return price;
   }
 
-  public void setPrice(BigDecimal price) {
+  public void setPrice(Price price) {
     this.price = price;
   }
 }
@@ -1,21 +1,49 @@
 package com.cybergrid.productsapi.dto;
 
+import com.cybergrid.productsapi.pricing.Price;
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.UUID;
 
 public class ProductResponse {
   private UUID id;
   private String name;
   private String description;
-  private BigDecimal price;
+  private Price price;
+  private long version;
+  private Instant createdAt;
+  private Instant updatedAt;
 
   public ProductResponse() {}
 
-  public ProductResponse(UUID id, String name, String description, BigDecimal price) {
+  public ProductResponse(
+      UUID id,
+      String name,
+      String description,
+      Price price,
+      long version,
+      Instant createdAt,
+      Instant updatedAt) {
     this.id = id;
     this.name = name;
     this.description = description;
     this.price = price;
+    this.version = version;
+    this.createdAt = createdAt;
+    this.updatedAt = updatedAt;
+  }
+
+  // Used by Product.RESPONSE_MAPPING, since attribute converters don't apply to native query
+  // columns.
+  public ProductResponse(
+      UUID id,
+      String name,
+      String description,
+      BigDecimal price,
+      long version,
+      Instant createdAt,
+      Instant updatedAt) {
+    this(id, name, description, Price.of(price), version, createdAt, updatedAt);
   }
 
   public UUID getId() {
@@ -42,11 +70,35 @@ public class ProductResponse {
     this.description = description;
   }
 
-  public BigDecimal getPrice() {
+  public Price getPrice() {
     return price;
   }
 
-  public void setPrice(BigDecimal price) {
+  public void setPrice(Price price) {
     this.price = price;
   }
+
+  public long getVersion() {
+    return version;
+  }
+
+  public void setVersion(long version) {
+    this.version = version;
+  }
+
+  public Instant getCreatedAt() {
+    return createdAt;
+  }
+
+  public void setCreatedAt(Instant createdAt) {
+    this.createdAt = createdAt;
+  }
+
+  public Instant getUpdatedAt() {
+    return updatedAt;
+  }
+
+  public void setUpdatedAt(Instant updatedAt) {
+    this.updatedAt = updatedAt;
+  }
 }
@@ -0,0 +1,111 @@
+package com.cybergrid.productsapi.logging;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingRequestWrapper;
+
+/**
+ * Logs a sample of requests to the access log through {@link AccessLogWriter}.
+ *
+ * <p>Only the sampled fraction of requests is logged, plus every request that failed with a
+ * server error. Request bodies are captured only when enabled, and only for sampled requests.
+ */
+public class AccessLogFilter extends OncePerRequestFilter {
+  private final AccessLogWriter writer;
+  private final double sampleRate;
+  private final boolean includePayload;
+  private final int maxPayloadLength;
+
+  public AccessLogFilter(
+      AccessLogWriter writer,
+      double sampleRate,
+      boolean includePayload,
+      int maxPayloadLength) {
+    this.writer = writer;
+    this.sampleRate = sampleRate;
+    this.includePayload = includePayload;
+    this.maxPayloadLength = maxPayloadLength;
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request,
+      HttpServletResponse response,
+      FilterChain filterChain) throws ServletException, IOException {
+
+    long start = System.nanoTime();
+    boolean sampled = sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+    HttpServletRequest loggedRequest = sampled && includePayload
+        ? new ContentCachingRequestWrapper(request, maxPayloadLength)
+        : request;
+
+    try {
+      filterChain.doFilter(loggedRequest, response);
+    } finally {
+      if (loggedRequest.isAsyncStarted()) {
+        // Streamed responses only get their final status once the async work completes.
+        loggedRequest.getAsyncContext().addListener(new AsyncListener() {
+          @Override
+          public void onComplete(AsyncEvent event) {
+            log(loggedRequest, response, sampled, start);
+          }
+
+          @Override
+          public void onTimeout(AsyncEvent event) {
+          }
+
+          @Override
+          public void onError(AsyncEvent event) {
+          }
+
+          @Override
+          public void onStartAsync(AsyncEvent event) {
+          }
+        });
+      } else {
+        log(loggedRequest, response, sampled, start);
+      }
+    }
+  }
+
+  private void log(
+      HttpServletRequest request,
+      HttpServletResponse response,
+      boolean sampled,
+      long start) {
+
+    int status = response.getStatus();
+    if (!sampled && status < HttpServletResponse.SC_INTERNAL_SERVER_ERROR) {
+      return;
+    }
+
+    Map<String, Object> entry = new LinkedHashMap<>();
+    entry.put("timestamp", Instant.now().toString());
+    entry.put("method", request.getMethod());
+    entry.put("path", request.getRequestURI());
+    entry.put("query", request.getQueryString());
+    entry.put("status", status);
+    entry.put("durationMs", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    entry.put("client", request.getRemoteAddr());
+    if (request instanceof ContentCachingRequestWrapper wrapper) {
+      byte[] payload = wrapper.getContentAsByteArray();
+      if (payload.length > 0) {
+        entry.put("payload", new String(payload, StandardCharsets.UTF_8));
+      }
+    }
+
+    writer.write(entry);
+  }
+}
@@ -0,0 +1,109 @@
+package com.cybergrid.productsapi.logging;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+/**
+ * Writes access log entries as JSON lines to the {@code ACCESS_LOG} logger from a single
+ * background thread.
+ *
+ * <p>Entries are handed over through a bounded queue. When it's full, new entries are dropped
+ * instead of blocking the request, and counted in the {@code access.log.dropped} metric.
+ */
+public class AccessLogWriter implements SmartLifecycle {
+  static final String LOGGER_NAME = "ACCESS_LOG";
+  private static final int DRAIN_BATCH_SIZE = 256;
+  private static final Logger accessLog = LoggerFactory.getLogger(LOGGER_NAME);
+  private static final Logger log = LoggerFactory.getLogger(AccessLogWriter.class);
+
+  private final BlockingQueue<Map<String, Object>> queue;
+  private final ObjectMapper objectMapper;
+  private final LongAdder dropped = new LongAdder();
+  private volatile Thread thread;
+
+  public AccessLogWriter(int capacity, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+    this.queue = new ArrayBlockingQueue<>(capacity);
+    this.objectMapper = objectMapper;
+    FunctionCounter.builder("access.log.dropped", dropped, LongAdder::sum)
+        .description("Access log entries dropped because the queue was full")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Queues {@code entry} for writing, or drops it if the queue is full.
+   */
+  public void write(Map<String, Object> entry) {
+    if (!queue.offer(entry)) {
+      dropped.increment();
+    }
+  }
+
+  public long getDropped() {
+    return dropped.sum();
+  }
+
+  @Override
+  public synchronized void start() {
+    thread = new Thread(this::run, "access-log-writer");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  @Override
+  public synchronized void stop() {
+    Thread running = thread;
+    thread = null;
+    if (running != null) {
+      running.interrupt();
+      try {
+        running.join(TimeUnit.SECONDS.toMillis(5));
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return thread != null;
+  }
+
+  private void run() {
+    List<Map<String, Object>> batch = new ArrayList<>(DRAIN_BATCH_SIZE);
+    try {
+      while (thread != null) {
+        batch.add(queue.take());
+        queue.drainTo(batch, DRAIN_BATCH_SIZE - 1);
+        writeAll(batch);
+      }
+    } catch (InterruptedException ex) {
+      // Stopping, write out whatever is left below.
+    }
+
+    queue.drainTo(batch);
+    writeAll(batch);
+  }
+
+  private void writeAll(List<Map<String, Object>> batch) {
+    for (Map<String, Object> entry : batch) {
+      try {
+        accessLog.info(objectMapper.writeValueAsString(entry));
+      } catch (JsonProcessingException ex) {
+        log.warn("Could not write access log entry", ex);
+      }
+    }
+    batch.clear();
+  }
+}
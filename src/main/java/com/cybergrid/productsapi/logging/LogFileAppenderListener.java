@@ -0,0 +1,56 @@
+package com.cybergrid.productsapi.logging;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.joran.JoranConfigurator;
+import ch.qos.logback.core.joran.spi.JoranException;
+import java.net.URL;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationEnvironmentPreparedEvent;
+import org.springframework.boot.context.logging.LoggingApplicationListener;
+import org.springframework.boot.logging.LogFile;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.Ordered;
+
+/**
+ * Adds Spring Boot's rolling file appender to the root logger when {@code logging.file.name} or
+ * {@code logging.file.path} is set, right after Boot has applied {@code logback-spring.xml}.
+ *
+ * <p>Logback can only make an appender conditional through Janino, which native images can't
+ * run, so the file appender lives in {@code logback-file.xml} and is loaded from here instead.
+ * Without a log file, logs go to the console only.
+ */
+public class LogFileAppenderListener
+    implements ApplicationListener<ApplicationEnvironmentPreparedEvent>, Ordered {
+  static final String CONFIG_RESOURCE = "logback-file.xml";
+  static final String APPENDER_NAME = "FILE";
+
+  @Override
+  public void onApplicationEvent(ApplicationEnvironmentPreparedEvent event) {
+    if (LogFile.get(event.getEnvironment()) == null
+        || !(LoggerFactory.getILoggerFactory() instanceof LoggerContext context)) {
+      return;
+    }
+
+    Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+    if (root.getAppender(APPENDER_NAME) != null) {
+      // Already added for an earlier application context in the same JVM.
+      return;
+    }
+
+    URL config = LogFileAppenderListener.class.getClassLoader().getResource(CONFIG_RESOURCE);
+    JoranConfigurator configurator = new JoranConfigurator();
+    configurator.setContext(context);
+    try {
+      // Boot has already exported LOG_FILE and LOG_PATH as system properties for the appender.
+      configurator.doConfigure(config);
+    } catch (JoranException e) {
+      throw new IllegalStateException("Could not add the log file appender", e);
+    }
+  }
+
+  @Override
+  public int getOrder() {
+    return LoggingApplicationListener.DEFAULT_ORDER + 1;
+  }
+}
@@ -1,20 +1,28 @@
 package com.cybergrid.productsapi.logging;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.filter.CommonsRequestLoggingFilter;
 
 @Configuration
 public class RequestLoggingConfig {
 
   @Bean
-  public CommonsRequestLoggingFilter requestLoggingFilter() {
-    CommonsRequestLoggingFilter filter = new CommonsRequestLoggingFilter();
-    filter.setIncludeClientInfo(true);
-    filter.setIncludeQueryString(true);
-    filter.setIncludeHeaders(false);
-    filter.setIncludePayload(true);
-    filter.setMaxPayloadLength(2000);
-    return filter;
+  public AccessLogWriter accessLogWriter(
+      @Value("${app.access-log.queue-capacity}") int queueCapacity,
+      ObjectMapper objectMapper,
+      MeterRegistry meterRegistry) {
+    return new AccessLogWriter(queueCapacity, objectMapper, meterRegistry);
+  }
+
+  @Bean
+  public AccessLogFilter accessLogFilter(
+      AccessLogWriter accessLogWriter,
+      @Value("${app.access-log.sample-rate}") double sampleRate,
+      @Value("${app.access-log.include-payload}") boolean includePayload,
+      @Value("${app.access-log.max-payload-length}") int maxPayloadLength) {
+    return new AccessLogFilter(accessLogWriter, sampleRate, includePayload, maxPayloadLength);
   }
 }
@@ -0,0 +1,23 @@
+package com.cybergrid.productsapi.mappers;
+
+import com.cybergrid.productsapi.dto.ProductEventResponse;
+import com.cybergrid.productsapi.models.ProductEvent;
+
+public final class ProductEventMapper {
+  public static ProductEventResponse toResponse(ProductEvent event) {
+    if (event == null) {
+      return null;
+    }
+
+    return new ProductEventResponse(
+      event.getSequence(),
+      event.getType(),
+      event.getProductId(),
+      event.getVersion(),
+      event.getName(),
+      event.getDescription(),
+      event.getPrice(),
+      event.getOccurredAt()
+    );
+  }
+}
@@ -27,7 +27,10 @@ public final class ProductMapper {
       product.getId(),
       product.getName(),
       product.getDescription(),
-      product.getPrice()
+      product.getPrice(),
+      product.getVersion(),
+      product.getCreatedAt(),
+      product.getUpdatedAt()
     );
   }
 }
@@ -0,0 +1,55 @@
+package com.cybergrid.productsapi.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+/**
+ * Wires up per-request database metrics on top of what Spring Boot already publishes:
+ * {@code http.server.requests}, {@code spring.data.repository.invocations}, {@code hikaricp.*}
+ * and {@code hibernate.*}.
+ */
+@Configuration
+public class MetricsConfig {
+
+  @Bean
+  public HibernatePropertiesCustomizer queryCountingStatementInspector() {
+    return properties -> properties.put(
+        AvailableSettings.STATEMENT_INSPECTOR,
+        new QueryCountingStatementInspector());
+  }
+
+  // Static, since post processors are created before regular beans.
+  @Bean
+  public static BeanPostProcessor repositoryCallRecorderPostProcessor() {
+    RepositoryCallRecorder recorder = new RepositoryCallRecorder();
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+          factoryBean.addRepositoryFactoryCustomizer(
+              factory -> factory.addInvocationListener(recorder));
+        }
+        return bean;
+      }
+    };
+  }
+
+  @Bean
+  public RequestMetricsFilter requestMetricsFilter(
+      MeterRegistry meterRegistry,
+      @Value("${app.metrics.slow-request-threshold:500ms}") Duration slowRequestThreshold) {
+    return new RequestMetricsFilter(meterRegistry, slowRequestThreshold);
+  }
+
+  @Bean
+  public StartupReport startupReport(MeterRegistry meterRegistry) {
+    return new StartupReport(meterRegistry);
+  }
+}
@@ -0,0 +1,18 @@
+package com.cybergrid.productsapi.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares for the current request, leaving them unchanged.
+ */
+public class QueryCountingStatementInspector implements StatementInspector {
+
+  @Override
+  public String inspect(String sql) {
+    RequestMetrics metrics = RequestMetrics.current();
+    if (metrics != null) {
+      metrics.recordQuery();
+    }
+    return sql;
+  }
+}
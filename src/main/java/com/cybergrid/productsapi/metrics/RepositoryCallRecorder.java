@@ -0,0 +1,25 @@
+package com.cybergrid.productsapi.metrics;
+
+import java.util.concurrent.TimeUnit;
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener;
+
+/**
+ * Adds every repository call to the current request's {@link RequestMetrics}, so a slow
+ * request can be traced back to the call that took longest.
+ *
+ * <p>Per-method timers are already published by Spring Boot as
+ * {@code spring.data.repository.invocations}.
+ */
+public class RepositoryCallRecorder implements RepositoryMethodInvocationListener {
+
+  @Override
+  public void afterInvocation(RepositoryMethodInvocation invocation) {
+    RequestMetrics metrics = RequestMetrics.current();
+    if (metrics != null) {
+      metrics.recordRepositoryCall(
+          invocation.getRepositoryInterface().getSimpleName()
+              + "." + invocation.getMethod().getName(),
+          invocation.getDuration(TimeUnit.NANOSECONDS));
+    }
+  }
+}
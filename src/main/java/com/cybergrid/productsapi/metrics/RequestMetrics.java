@@ -0,0 +1,67 @@
+package com.cybergrid.productsapi.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Database work done by the request being handled on the current thread.
+ *
+ * <p>Filled in by {@link QueryCountingStatementInspector} and {@link RepositoryCallRecorder},
+ * and reported by {@link RequestMetricsFilter} once the request completes. Work done outside
+ * a request, or on another thread (like streamed exports), is not tracked.
+ */
+public final class RequestMetrics {
+  private static final ThreadLocal<RequestMetrics> CURRENT = new ThreadLocal<>();
+
+  private int queries;
+  private int repositoryCalls;
+  private long repositoryNanos;
+  private String slowestCall;
+  private long slowestCallNanos;
+
+  static RequestMetrics start() {
+    RequestMetrics metrics = new RequestMetrics();
+    CURRENT.set(metrics);
+    return metrics;
+  }
+
+  static void end() {
+    CURRENT.remove();
+  }
+
+  static RequestMetrics current() {
+    return CURRENT.get();
+  }
+
+  void recordQuery() {
+    queries++;
+  }
+
+  void recordRepositoryCall(String call, long nanos) {
+    repositoryCalls++;
+    repositoryNanos += nanos;
+    if (slowestCall == null || nanos > slowestCallNanos) {
+      slowestCall = call;
+      slowestCallNanos = nanos;
+    }
+  }
+
+  int getQueries() {
+    return queries;
+  }
+
+  int getRepositoryCalls() {
+    return repositoryCalls;
+  }
+
+  long getRepositoryMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(repositoryNanos);
+  }
+
+  String getSlowestCall() {
+    return slowestCall;
+  }
+
+  long getSlowestCallMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(slowestCallNanos);
+  }
+}
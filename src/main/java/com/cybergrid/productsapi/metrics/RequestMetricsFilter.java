@@ -0,0 +1,82 @@
+package com.cybergrid.productsapi.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Records how many SQL statements each request issued as the
+ * {@code http.server.requests.queries} summary, tagged like {@code http.server.requests}.
+ *
+ * <p>Requests slower than the configured threshold are logged together with their database
+ * time and slowest repository call.
+ */
+public class RequestMetricsFilter extends OncePerRequestFilter {
+  private static final Logger log = LoggerFactory.getLogger(RequestMetricsFilter.class);
+
+  private final MeterRegistry meterRegistry;
+  private final Duration slowRequestThreshold;
+
+  public RequestMetricsFilter(MeterRegistry meterRegistry, Duration slowRequestThreshold) {
+    this.meterRegistry = meterRegistry;
+    this.slowRequestThreshold = slowRequestThreshold;
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request,
+      HttpServletResponse response,
+      FilterChain filterChain) throws ServletException, IOException {
+
+    long start = System.nanoTime();
+    RequestMetrics metrics = RequestMetrics.start();
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      RequestMetrics.end();
+      report(request, response, metrics, Duration.ofNanos(System.nanoTime() - start));
+    }
+  }
+
+  private void report(
+      HttpServletRequest request,
+      HttpServletResponse response,
+      RequestMetrics metrics,
+      Duration elapsed) {
+
+    // Same tag as http.server.requests, so unmatched paths don't create new time series.
+    Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+    String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+
+    DistributionSummary.builder("http.server.requests.queries")
+        .description("SQL statements issued per request")
+        .tag("method", request.getMethod())
+        .tag("uri", uri)
+        .register(meterRegistry)
+        .record(metrics.getQueries());
+
+    if (elapsed.compareTo(slowRequestThreshold) > 0) {
+      log.warn(
+          "Slow request {} {} returned {} in {} ms: {} queries, {} repository calls "
+              + "taking {} ms, slowest {} ({} ms)",
+          request.getMethod(),
+          request.getRequestURI(),
+          response.getStatus(),
+          elapsed.toMillis(),
+          metrics.getQueries(),
+          metrics.getRepositoryCalls(),
+          metrics.getRepositoryMillis(),
+          metrics.getSlowestCall() != null ? metrics.getSlowestCall() : "none",
+          metrics.getSlowestCallMillis());
+    }
+  }
+}
@@ -0,0 +1,78 @@
+package com.cybergrid.productsapi.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aot.AotDetector;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.NativeDetector;
+
+/**
+ * Reports how the application was started and how long that took, so startup times of the
+ * build modes can be compared.
+ *
+ * <p>The mode is {@code jvm}, {@code aot} (Spring AOT on the JVM) or {@code native}, and class
+ * data is the archive the JVM was started with: {@code aot-cache}, {@code cds} or
+ * {@code default}. Both are published as tags of the {@code application.startup} gauge, next to
+ * Spring Boot's {@code application.ready.time}.
+ */
+public class StartupReport implements ApplicationListener<ApplicationReadyEvent> {
+  private static final Logger log = LoggerFactory.getLogger(StartupReport.class);
+
+  private final MeterRegistry meterRegistry;
+
+  public StartupReport(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Override
+  public void onApplicationEvent(ApplicationReadyEvent event) {
+    String mode = mode();
+    if (NativeDetector.inNativeImage()) {
+      report(mode, "none");
+      log.info("Started in {} ms in {} mode", event.getTimeTaken().toMillis(), mode);
+      return;
+    }
+
+    String classData = classData(ManagementFactory.getRuntimeMXBean().getInputArguments());
+    report(mode, classData);
+    // Uptime includes JVM startup and class loading before Spring starts, which is what class
+    // data archives speed up.
+    log.info("Started in {} ms, {} ms since JVM start, in {} mode with {} class data",
+        event.getTimeTaken().toMillis(),
+        ManagementFactory.getRuntimeMXBean().getUptime(),
+        mode,
+        classData);
+  }
+
+  static String mode() {
+    if (NativeDetector.inNativeImage()) {
+      return "native";
+    }
+    return AotDetector.useGeneratedArtifacts() ? "aot" : "jvm";
+  }
+
+  static String classData(List<String> jvmArguments) {
+    for (String argument : jvmArguments) {
+      if (argument.startsWith("-XX:AOTCache=")) {
+        return "aot-cache";
+      }
+      if (argument.startsWith("-XX:SharedArchiveFile=")) {
+        return "cds";
+      }
+    }
+    return "default";
+  }
+
+  private void report(String mode, String classData) {
+    Gauge.builder("application.startup", () -> 1)
+        .description("How the application was started, as tags")
+        .tag("mode", mode)
+        .tag("class.data", classData)
+        .register(meterRegistry);
+  }
+}
@@ -0,0 +1,24 @@
+package com.cybergrid.productsapi.models;
+
+import com.cybergrid.productsapi.pricing.Price;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import java.math.BigDecimal;
+
+/**
+ * Maps {@link Price} attributes to {@code numeric(15, 2)} columns, and comparisons with them in
+ * queries, so the database keeps doing exact decimal arithmetic.
+ */
+@Converter(autoApply = true)
+public class PriceConverter implements AttributeConverter<Price, BigDecimal> {
+
+  @Override
+  public BigDecimal convertToDatabaseColumn(Price price) {
+    return price == null ? null : price.toBigDecimal();
+  }
+
+  @Override
+  public Price convertToEntityAttribute(BigDecimal price) {
+    return price == null ? null : Price.of(price);
+  }
+}
@@ -1,19 +1,44 @@
 package com.cybergrid.productsapi.models;
 
+import com.cybergrid.productsapi.dto.ProductResponse;
+import com.cybergrid.productsapi.pricing.Price;
 import jakarta.persistence.Column;
+import jakarta.persistence.ColumnResult;
+import jakarta.persistence.ConstructorResult;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.SqlResultSetMapping;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.UUID;
 import org.hibernate.annotations.Check;
 
 @Entity
 @Table(name = "products")
 @Check(constraints = "price >= 0")
+@SqlResultSetMapping(
+    name = Product.RESPONSE_MAPPING,
+    classes = @ConstructorResult(
+        targetClass = ProductResponse.class,
+        columns = {
+            @ColumnResult(name = "id", type = UUID.class),
+            @ColumnResult(name = "name", type = String.class),
+            @ColumnResult(name = "description", type = String.class),
+            @ColumnResult(name = "price", type = BigDecimal.class),
+            @ColumnResult(name = "version", type = Long.class),
+            @ColumnResult(name = "created_at", type = Instant.class),
+            @ColumnResult(name = "updated_at", type = Instant.class)
+        }))
 public class Product {
+  // Reads native query rows of products straight into ProductResponses.
+  public static final String RESPONSE_MAPPING = "ProductResponse";
 
   @Id
   @GeneratedValue(strategy = GenerationType.UUID)
@@ -25,12 +50,24 @@ public class Product {
   private String description;
 
   @Column(nullable = false, precision = 15, scale = 2)
-  private BigDecimal price;
+  private Price price;
+
+  // Bumped on every update, used for optimistic locking and as the product's ETag.
+  @Version
+  @Column(nullable = false)
+  private long version;
+
+  @Column(nullable = false, updatable = false)
+  private Instant createdAt;
+
+  // Set on every write, including bulk updates, which bypass the entity callbacks below.
+  @Column(nullable = false)
+  private Instant updatedAt;
 
   public Product() {
   }
 
-  public Product(UUID id, String name, String description, BigDecimal price) {
+  public Product(UUID id, String name, String description, Price price) {
     this.id = id;
     this.name = name;
     this.description = description;
@@ -61,11 +98,55 @@ public class Product {
     this.description = description;
   }
 
-  public BigDecimal getPrice() {
+  public Price getPrice() {
     return price;
   }
 
-  public void setPrice(BigDecimal price) {
+  public void setPrice(Price price) {
     this.price = price;
   }
+
+  public long getVersion() {
+    return version;
+  }
+
+  public void setVersion(long version) {
+    this.version = version;
+  }
+
+  public Instant getCreatedAt() {
+    return createdAt;
+  }
+
+  public void setCreatedAt(Instant createdAt) {
+    this.createdAt = createdAt;
+  }
+
+  public Instant getUpdatedAt() {
+    return updatedAt;
+  }
+
+  public void setUpdatedAt(Instant updatedAt) {
+    this.updatedAt = updatedAt;
+  }
+
+  /**
+   * Returns the current time as stored in the database, which keeps microseconds only.
+   * Timestamps are compared for equality by sync watermarks, so they mustn't lose precision
+   * on the way to the database and back.
+   */
+  public static Instant currentTimestamp() {
+    return Instant.now().truncatedTo(ChronoUnit.MICROS);
+  }
+
+  @PrePersist
+  void onPersist() {
+    createdAt = currentTimestamp();
+    updatedAt = createdAt;
+  }
+
+  @PreUpdate
+  void onUpdate() {
+    updatedAt = currentTimestamp();
+  }
 }
@@ -0,0 +1,106 @@
+package com.cybergrid.productsapi.models;
+
+import com.cybergrid.productsapi.pricing.Price;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import java.util.UUID;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * A change to a product, as recorded in the product events outbox.
+ *
+ * <p>Events are only ever appended by {@code ProductEventsRepository}, in the same transaction
+ * as the change they describe.
+ */
+@Entity
+@Immutable
+@Table(name = "product_events")
+public class ProductEvent {
+  public enum Type {
+    CREATED,
+    UPDATED,
+    DELETED
+  }
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private long sequence;
+
+  @Column(nullable = false)
+  private UUID productId;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 16)
+  private Type type;
+
+  // Product state after the change, null for deletes.
+  private Long version;
+  private String name;
+  private String description;
+  @Column(precision = 15, scale = 2)
+  private Price price;
+
+  @Column(nullable = false)
+  private Instant occurredAt;
+
+  public ProductEvent() {
+  }
+
+  public ProductEvent(
+      long sequence,
+      UUID productId,
+      Type type,
+      Long version,
+      String name,
+      String description,
+      Price price,
+      Instant occurredAt) {
+    this.sequence = sequence;
+    this.productId = productId;
+    this.type = type;
+    this.version = version;
+    this.name = name;
+    this.description = description;
+    this.price = price;
+    this.occurredAt = occurredAt;
+  }
+
+  public long getSequence() {
+    return sequence;
+  }
+
+  public UUID getProductId() {
+    return productId;
+  }
+
+  public Type getType() {
+    return type;
+  }
+
+  public Long getVersion() {
+    return version;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public String getDescription() {
+    return description;
+  }
+
+  public Price getPrice() {
+    return price;
+  }
+
+  public Instant getOccurredAt() {
+    return occurredAt;
+  }
+}
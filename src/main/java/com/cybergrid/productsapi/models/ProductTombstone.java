@@ -0,0 +1,40 @@
+package com.cybergrid.productsapi.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import java.util.UUID;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * Marks a deleted product, so clients syncing changes find out it's gone.
+ */
+@Entity
+@Immutable
+@Table(name = "product_tombstones")
+public class ProductTombstone {
+
+  @Id
+  private UUID productId;
+
+  @Column(nullable = false)
+  private Instant deletedAt;
+
+  public ProductTombstone() {
+  }
+
+  public ProductTombstone(UUID productId, Instant deletedAt) {
+    this.productId = productId;
+    this.deletedAt = deletedAt;
+  }
+
+  public UUID getProductId() {
+    return productId;
+  }
+
+  public Instant getDeletedAt() {
+    return deletedAt;
+  }
+}
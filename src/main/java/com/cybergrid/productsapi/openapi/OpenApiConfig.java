@@ -0,0 +1,47 @@
+package com.cybergrid.productsapi.openapi;
+
+import com.cybergrid.productsapi.pricing.Price;
+import com.cybergrid.productsapi.pricing.ValidPrice;
+import java.lang.annotation.Annotation;
+import java.math.BigDecimal;
+import org.springdoc.core.customizers.PropertyCustomizer;
+import org.springdoc.core.utils.SpringDocUtils;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Describes {@link Price} in the OpenAPI docs as what it is on the wire.
+ *
+ * <p>Prices are written and read as decimal numbers, so they're documented as
+ * {@link BigDecimal}s rather than as the object springdoc would make of their getters.
+ * {@link ValidPrice} is documented as the minimum, maximum and multiple of one cent that
+ * {@code @DecimalMin} and {@code @Digits} used to add to the schema. Kept out of the pricing
+ * package, since the reactive module compiles that without springdoc.
+ */
+@Configuration
+public class OpenApiConfig {
+  private static final BigDecimal CENT = BigDecimal.ONE.movePointLeft(Price.SCALE);
+
+  static {
+    SpringDocUtils.getConfig().replaceWithClass(Price.class, BigDecimal.class);
+  }
+
+  @Bean
+  public PropertyCustomizer validPriceCustomizer() {
+    return (property, type) -> {
+      Annotation[] annotations = type.getCtxAnnotations();
+      if (annotations == null) {
+        return property;
+      }
+
+      for (Annotation annotation : annotations) {
+        if (annotation instanceof ValidPrice validPrice) {
+          property.setMinimum(BigDecimal.ZERO.setScale(Price.SCALE));
+          property.setMaximum(BigDecimal.TEN.pow(validPrice.integer()).subtract(CENT));
+          property.setMultipleOf(CENT);
+        }
+      }
+      return property;
+    };
+  }
+}
@@ -0,0 +1,203 @@
+package com.cybergrid.productsapi.pricing;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * An amount of money with two decimals, held as a whole number of cents.
+ *
+ * <p>Prices are stored as {@code numeric(15, 2)}, so every stored price fits a long. Comparing,
+ * sorting and hashing them is then plain long arithmetic, and reading or writing one allocates
+ * neither a {@link BigDecimal} nor the {@link java.math.BigInteger} behind it.
+ *
+ * <p>On the wire a price is the same number a {@link BigDecimal} of scale 2 was, e.g.
+ * {@code 10.50}, see {@link PriceJsonSerializer}.
+ */
+@JsonSerialize(using = PriceJsonSerializer.class)
+@JsonDeserialize(using = PriceJsonDeserializer.class)
+public final class Price implements Comparable<Price> {
+  public static final int SCALE = 2;
+  public static final Price ZERO = new Price(0);
+
+  // Sign, 19 digits and the decimal point of Long.MIN_VALUE cents.
+  static final int MAX_LENGTH = 21;
+  // Parsed without overflow checks: 16 integer digits and 2 decimals stay below Long.MAX_VALUE.
+  private static final int MAX_FAST_INTEGER_DIGITS = 16;
+  private static final BigDecimal MIN_AMOUNT = BigDecimal.valueOf(Long.MIN_VALUE, SCALE);
+  private static final BigDecimal MAX_AMOUNT = BigDecimal.valueOf(Long.MAX_VALUE, SCALE);
+
+  private final long cents;
+
+  private Price(long cents) {
+    this.cents = cents;
+  }
+
+  public static Price ofCents(long cents) {
+    return cents == 0 ? ZERO : new Price(cents);
+  }
+
+  /**
+   * Returns {@code amount} as a price.
+   *
+   * @throws ArithmeticException if it has more than two decimals or doesn't fit a long in cents
+   */
+  public static Price of(BigDecimal amount) {
+    return ofCents(amount.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue()
+        .longValueExact());
+  }
+
+  /**
+   * Returns the lowest price greater than or equal to {@code amount}, so that
+   * {@code price >= amount} holds exactly when {@code price >= ceiling(amount)}. Amounts beyond
+   * the range of prices are clamped to it.
+   */
+  public static Price ceiling(BigDecimal amount) {
+    return rounded(amount, RoundingMode.CEILING);
+  }
+
+  /**
+   * Returns the highest price less than or equal to {@code amount}, the counterpart of
+   * {@link #ceiling} for {@code price <= amount}.
+   */
+  public static Price floor(BigDecimal amount) {
+    return rounded(amount, RoundingMode.FLOOR);
+  }
+
+  /**
+   * Parses a decimal number such as {@code 10.5} or {@code -3}.
+   *
+   * @throws NumberFormatException if it isn't a number, has more than two decimals or doesn't
+   *     fit a long in cents
+   */
+  public static Price parse(String text) {
+    return parse(text.toCharArray(), 0, text.length());
+  }
+
+  /**
+   * Parses a decimal number from {@code length} characters of {@code chars} starting at
+   * {@code offset}, like {@link #parse(String)}.
+   */
+  public static Price parse(char[] chars, int offset, int length) {
+    int end = offset + length;
+    int position = offset;
+    boolean negative = position < end && chars[position] == '-';
+    if (position < end && (chars[position] == '-' || chars[position] == '+')) {
+      position++;
+    }
+
+    long units = 0;
+    int integerDigits = 0;
+    while (position < end && isDigit(chars[position])
+        && integerDigits < MAX_FAST_INTEGER_DIGITS) {
+      units = units * 10 + (chars[position++] - '0');
+      integerDigits++;
+    }
+
+    long fraction = 0;
+    int fractionDigits = 0;
+    if (position < end && chars[position] == '.') {
+      position++;
+      while (position < end && isDigit(chars[position]) && fractionDigits < SCALE) {
+        fraction = fraction * 10 + (chars[position++] - '0');
+        fractionDigits++;
+      }
+    }
+
+    // Exponents, trailing zeros beyond the scale and long numbers take the exact path.
+    if (position != end || integerDigits + fractionDigits == 0) {
+      return parseExact(chars, offset, length);
+    }
+
+    for (int digit = fractionDigits; digit < SCALE; digit++) {
+      fraction *= 10;
+    }
+    long cents = units * 100 + fraction;
+    return ofCents(negative ? -cents : cents);
+  }
+
+  public long getCents() {
+    return cents;
+  }
+
+  public BigDecimal toBigDecimal() {
+    return BigDecimal.valueOf(cents, SCALE);
+  }
+
+  public boolean isNegative() {
+    return cents < 0;
+  }
+
+  @Override
+  public int compareTo(Price other) {
+    return Long.compare(cents, other.cents);
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof Price price && price.cents == cents;
+  }
+
+  @Override
+  public int hashCode() {
+    return Long.hashCode(cents);
+  }
+
+  /**
+   * Returns the price with exactly two decimals, as {@link BigDecimal#toPlainString} does for
+   * the same amount.
+   */
+  @Override
+  public String toString() {
+    char[] buffer = new char[MAX_LENGTH];
+    int start = format(buffer);
+    return new String(buffer, start, MAX_LENGTH - start);
+  }
+
+  /**
+   * Writes the price right-aligned into {@code buffer}, which holds at least
+   * {@link #MAX_LENGTH} characters, and returns the index of its first character.
+   */
+  int format(char[] buffer) {
+    // Digits are taken off the non-positive amount, which unlike the positive one can't overflow.
+    long remaining = cents > 0 ? -cents : cents;
+    int position = buffer.length;
+    for (int digit = 0; digit < SCALE; digit++) {
+      buffer[--position] = (char) ('0' - remaining % 10);
+      remaining /= 10;
+    }
+    buffer[--position] = '.';
+    do {
+      buffer[--position] = (char) ('0' - remaining % 10);
+      remaining /= 10;
+    } while (remaining != 0);
+    if (cents < 0) {
+      buffer[--position] = '-';
+    }
+    return position;
+  }
+
+  private static Price parseExact(char[] chars, int offset, int length) {
+    try {
+      return of(new BigDecimal(chars, offset, length));
+    } catch (ArithmeticException ex) {
+      throw new NumberFormatException("Not a price with at most two decimals: "
+          + new String(chars, offset, length));
+    }
+  }
+
+  private static Price rounded(BigDecimal amount, RoundingMode roundingMode) {
+    if (amount.compareTo(MAX_AMOUNT) >= 0) {
+      return ofCents(Long.MAX_VALUE);
+    }
+    if (amount.compareTo(MIN_AMOUNT) <= 0) {
+      return ofCents(Long.MIN_VALUE);
+    }
+    return ofCents(amount.setScale(SCALE, roundingMode).unscaledValue().longValue());
+  }
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+}
@@ -0,0 +1,46 @@
+package com.cybergrid.productsapi.pricing;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonTokenId;
+import com.fasterxml.jackson.core.StreamReadCapability;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import java.io.IOException;
+
+/**
+ * Reads a {@link Price} from anything a {@link java.math.BigDecimal} was read from: a number,
+ * or a string holding one.
+ *
+ * <p>Numbers in JSON are parsed from the parser's own character buffer. Binary formats hand
+ * over decimals already decoded, which are read as a {@link java.math.BigDecimal}.
+ *
+ * <p>Amounts with more than two decimals can't be represented and are rejected here, where
+ * they used to be rejected by validation. Either way the request fails with 400 Bad Request.
+ */
+public class PriceJsonDeserializer extends StdScalarDeserializer<Price> {
+
+  public PriceJsonDeserializer() {
+    super(Price.class);
+  }
+
+  @Override
+  public Price deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+    try {
+      return switch (p.currentTokenId()) {
+        case JsonTokenId.ID_NUMBER_INT, JsonTokenId.ID_NUMBER_FLOAT ->
+            p.getReadCapabilities().isEnabled(StreamReadCapability.EXACT_FLOATS)
+                ? Price.of(p.getDecimalValue())
+                : parse(p);
+        case JsonTokenId.ID_STRING -> parse(p);
+        default -> (Price) ctxt.handleUnexpectedToken(Price.class, p);
+      };
+    } catch (NumberFormatException | ArithmeticException ex) {
+      throw InvalidFormatException.from(p, ex.getMessage(), p.getText(), Price.class);
+    }
+  }
+
+  private static Price parse(JsonParser p) throws IOException {
+    return Price.parse(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+  }
+}
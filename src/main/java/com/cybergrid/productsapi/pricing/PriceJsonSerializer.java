@@ -0,0 +1,36 @@
+package com.cybergrid.productsapi.pricing;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.json.JsonGeneratorImpl;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import java.io.IOException;
+
+/**
+ * Writes a {@link Price} as the number a {@link java.math.BigDecimal} of scale 2 is written as,
+ * so responses are byte for byte what they were.
+ *
+ * <p>JSON generators, which all extend {@link JsonGeneratorImpl}, get the digits straight from
+ * the cents. Every other generator gets a {@link java.math.BigDecimal}: binary formats have a
+ * number type of their own for decimals, such as CBOR's decimal fraction, and buffers such as
+ * Jackson's {@code TokenBuffer} keep the value for whatever reads it back.
+ */
+public class PriceJsonSerializer extends StdSerializer<Price> {
+
+  public PriceJsonSerializer() {
+    super(Price.class);
+  }
+
+  @Override
+  public void serialize(Price value, JsonGenerator gen, SerializerProvider provider)
+      throws IOException {
+    if (!(gen instanceof JsonGeneratorImpl)) {
+      gen.writeNumber(value.toBigDecimal());
+      return;
+    }
+
+    char[] buffer = new char[Price.MAX_LENGTH];
+    int start = value.format(buffer);
+    gen.writeNumber(buffer, start, Price.MAX_LENGTH - start);
+  }
+}
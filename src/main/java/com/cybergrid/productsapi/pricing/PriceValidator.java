@@ -0,0 +1,51 @@
+package com.cybergrid.productsapi.pricing;
+
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+public class PriceValidator implements ConstraintValidator<ValidPrice, Price> {
+  private static final String NEGATIVE_MESSAGE = "must be greater than or equal to 0.00";
+  private static final String OUT_OF_BOUNDS_MESSAGE =
+      "numeric value out of bounds (<{integer} digits>.<2 digits> expected)";
+
+  // Smallest number of whole units with too many integer digits, or MAX_VALUE if none has.
+  private long maxUnitsExclusive;
+
+  @Override
+  public void initialize(ValidPrice constraint) {
+    maxUnitsExclusive = Long.MAX_VALUE;
+    long limit = 1;
+    for (int digit = 0; digit < constraint.integer(); digit++) {
+      if (limit > Long.MAX_VALUE / 10) {
+        return;
+      }
+      limit *= 10;
+    }
+    maxUnitsExclusive = limit;
+  }
+
+  @Override
+  public boolean isValid(Price value, ConstraintValidatorContext context) {
+    if (value == null) {
+      return true;
+    }
+
+    boolean negative = value.isNegative();
+    // Integer digits of the magnitude, which dividing first keeps clear of Long.MIN_VALUE.
+    boolean outOfBounds = Math.abs(value.getCents() / 100) >= maxUnitsExclusive;
+    if (!negative && !outOfBounds) {
+      return true;
+    }
+
+    // Reported like the separate built-in constraints, so clients see the same violations.
+    context.disableDefaultConstraintViolation();
+    if (negative) {
+      context.buildConstraintViolationWithTemplate(NEGATIVE_MESSAGE).addConstraintViolation();
+    }
+    if (outOfBounds) {
+      context.buildConstraintViolationWithTemplate(OUT_OF_BOUNDS_MESSAGE)
+          .addConstraintViolation();
+    }
+    return false;
+  }
+}
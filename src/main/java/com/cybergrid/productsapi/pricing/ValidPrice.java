@@ -0,0 +1,36 @@
+package com.cybergrid.productsapi.pricing;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.PARAMETER;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * The annotated {@link Price} must not be negative and have at most {@link #integer} integer
+ * digits. {@code null} is valid, combine with {@code @NotNull} to require a price.
+ *
+ * <p>Checks what {@code @DecimalMin("0.00")} and {@code @Digits(integer, fraction = 2)} checked
+ * on a {@link java.math.BigDecimal}, with the same messages, but on the cents directly. Prices
+ * never have more than two decimals.
+ */
+@Documented
+@Constraint(validatedBy = PriceValidator.class)
+@Target({FIELD, PARAMETER})
+@Retention(RUNTIME)
+public @interface ValidPrice {
+  String message() default "must be a non-negative price";
+
+  Class<?>[] groups() default {};
+
+  Class<? extends Payload>[] payload() default {};
+
+  /**
+   * Maximum number of integer digits.
+   */
+  int integer();
+}
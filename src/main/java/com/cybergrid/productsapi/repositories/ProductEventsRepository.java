@@ -0,0 +1,88 @@
+package com.cybergrid.productsapi.repositories;
+
+import com.cybergrid.productsapi.models.ProductEvent;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+// Sequence numbers are taken when an event is appended, but events only become visible on commit,
+// so a consumer could read sequence 11 while 10 is still uncommitted, and never see 10. Readers
+// therefore stop short of events appended less than a settle window ago (occurred_at is stamped
+// with the database clock on append), which is safe as long as every transaction commits within
+// the window after its append. Appends must be the last statement before commit for that reason.
+public interface ProductEventsRepository extends JpaRepository<ProductEvent, Long> {
+
+  // Events up to the first one appended less than settleSeconds ago, whether or not the later
+  // ones have committed yet.
+  @Query(value = """
+      select * from product_events
+      where sequence > :after
+        and sequence < coalesce(
+          (select min(sequence) from product_events
+           where occurred_at > clock_timestamp() - make_interval(secs => :settleSeconds)),
+          9223372036854775807)
+      order by sequence
+      limit :limit""", nativeQuery = true)
+  List<ProductEvent> findSettledAfter(long after, double settleSeconds, int limit);
+
+  default List<ProductEvent> findSettledAfter(long after, Duration settleWindow, int limit) {
+    return findSettledAfter(after, seconds(settleWindow), limit);
+  }
+
+  @Query("select coalesce(max(e.sequence), 0) from ProductEvent e")
+  long findLatestSequence();
+
+  // The sequence number up to which every event has committed, see findSettledAfter.
+  @Query(value = """
+      select coalesce(
+        (select min(sequence) - 1 from product_events
+         where occurred_at > clock_timestamp() - make_interval(secs => :settleSeconds)),
+        (select max(sequence) from product_events),
+        0)""", nativeQuery = true)
+  long findSettledSequence(double settleSeconds);
+
+  default long findSettledSequence(Duration settleWindow) {
+    return findSettledSequence(seconds(settleWindow));
+  }
+
+  @Query("select coalesce(min(e.sequence), 0) from ProductEvent e")
+  long findOldestSequence();
+
+  // Oldest first, and never the newest event, so the latest sequence number is kept.
+  @Modifying
+  @Query(value = """
+      delete from product_events
+      where sequence in (
+        select sequence from product_events
+        where occurred_at < :cutoff
+          and sequence < (select max(sequence) from product_events)
+        order by sequence
+        limit :limit)""", nativeQuery = true)
+  int deleteOccurredBefore(Instant cutoff, int limit);
+
+  // Records the current state of the given products, so it must run after they were written.
+  @Modifying
+  @Query(value = """
+      insert into product_events (product_id, type, version, name, description, price)
+      select p.id, :type, p.version, p.name, p.description, p.price
+      from products p
+      where p.id in (:ids)
+      order by p.id""", nativeQuery = true)
+  int appendProductState(Collection<UUID> ids, String type);
+
+  @Modifying
+  @Query(value = """
+      insert into product_events (product_id, type)
+      select d.id, 'DELETED'
+      from unnest(cast(:ids as uuid[])) as d(id)""", nativeQuery = true)
+  int appendDeleted(UUID[] ids);
+
+  private static double seconds(Duration duration) {
+    return duration.toNanos() / 1e9;
+  }
+}
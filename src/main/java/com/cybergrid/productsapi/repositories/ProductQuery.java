@@ -0,0 +1,82 @@
+package com.cybergrid.productsapi.repositories;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Filters, ordering and keyset position of a single page of products.
+ *
+ * <p>{@code afterId} and {@code afterKey} identify the last product of the previous page:
+ * its id and the value of the sort property ({@code null} when sorting by id).
+ */
+public class ProductQuery {
+  private final String namePrefix;
+  private final BigDecimal minPrice;
+  private final BigDecimal maxPrice;
+  private final ProductSort sort;
+  private final boolean descending;
+  private final int limit;
+
+  private UUID afterId;
+  private String afterKey;
+
+  public ProductQuery(
+      String namePrefix,
+      BigDecimal minPrice,
+      BigDecimal maxPrice,
+      ProductSort sort,
+      boolean descending,
+      int limit) {
+    this.namePrefix = namePrefix;
+    this.minPrice = minPrice;
+    this.maxPrice = maxPrice;
+    this.sort = sort;
+    this.descending = descending;
+    this.limit = limit;
+  }
+
+  public void setAfter(UUID afterId, String afterKey) {
+    this.afterId = afterId;
+    this.afterKey = afterKey;
+  }
+
+  public Sort toSort() {
+    Sort.Direction direction = descending ? Sort.Direction.DESC : Sort.Direction.ASC;
+    Sort byId = Sort.by(direction, ProductSort.ID.getProperty());
+
+    return sort == ProductSort.ID ? byId : Sort.by(direction, sort.getProperty()).and(byId);
+  }
+
+  public String getNamePrefix() {
+    return namePrefix;
+  }
+
+  public BigDecimal getMinPrice() {
+    return minPrice;
+  }
+
+  public BigDecimal getMaxPrice() {
+    return maxPrice;
+  }
+
+  public ProductSort getSort() {
+    return sort;
+  }
+
+  public boolean isDescending() {
+    return descending;
+  }
+
+  public int getLimit() {
+    return limit;
+  }
+
+  public UUID getAfterId() {
+    return afterId;
+  }
+
+  public String getAfterKey() {
+    return afterKey;
+  }
+}
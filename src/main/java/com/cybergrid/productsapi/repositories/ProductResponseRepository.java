@@ -0,0 +1,27 @@
+package com.cybergrid.productsapi.repositories;
+
+import com.cybergrid.productsapi.dto.ProductResponse;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Reads that need a query built at runtime or native SQL, projected straight into
+ * {@link ProductResponse}s like the constructor expressions in {@link ProductsRepository}.
+ */
+public interface ProductResponseRepository {
+
+  /**
+   * Returns a single page of products matching {@code query}.
+   */
+  List<ProductResponse> findPage(ProductQuery query);
+
+  // Binds the ids as a single array, so lookups of any size share one prepared statement,
+  // unlike an IN list with a parameter per id.
+  List<ProductResponse> findAllByIdAny(UUID[] ids);
+
+  // Full-text search over the generated search_vector column, most relevant first.
+  List<ProductResponse> searchFullText(String query, int limit, long offset);
+
+  // Fuzzy fallback on trigram similarity of names, which tolerates typos and partial words.
+  List<ProductResponse> searchSimilarNames(String query, int limit, long offset);
+}
@@ -0,0 +1,97 @@
+package com.cybergrid.productsapi.repositories;
+
+import com.cybergrid.productsapi.dto.ProductResponse;
+import com.cybergrid.productsapi.models.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Rows are read into {@link ProductResponse}s through {@code cb.construct} and
+ * {@link Product#RESPONSE_MAPPING}, so no entities are created, managed or snapshotted for dirty
+ * checking.
+ */
+@Transactional(readOnly = true)
+class ProductResponseRepositoryImpl implements ProductResponseRepository {
+  private final EntityManager entityManager;
+
+  ProductResponseRepositoryImpl(EntityManager entityManager) {
+    this.entityManager = entityManager;
+  }
+
+  @Override
+  public List<ProductResponse> findPage(ProductQuery query) {
+    CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    CriteriaQuery<ProductResponse> criteriaQuery = cb.createQuery(ProductResponse.class);
+    Root<Product> root = criteriaQuery.from(Product.class);
+
+    criteriaQuery
+        .select(cb.construct(
+            ProductResponse.class,
+            root.get("id"),
+            root.get("name"),
+            root.get("description"),
+            root.get("price"),
+            root.get("version"),
+            root.get("createdAt"),
+            root.get("updatedAt")))
+        .where(ProductSpecifications.matching(query).toPredicate(root, criteriaQuery, cb))
+        .orderBy(QueryUtils.toOrders(query.toSort(), root, cb));
+
+    // Limited rather than paged, so unlike findAll(Pageable) no count query is issued.
+    return entityManager.createQuery(criteriaQuery)
+        .setMaxResults(query.getLimit())
+        .getResultList();
+  }
+
+  @Override
+  public List<ProductResponse> findAllByIdAny(UUID[] ids) {
+    return list(nativeQuery("""
+        select p.id, p.name, p.description, p.price, p.version, p.created_at, p.updated_at
+        from products p
+        where p.id = any(:ids)""")
+        .setParameter("ids", ids));
+  }
+
+  @Override
+  public List<ProductResponse> searchFullText(String query, int limit, long offset) {
+    return list(nativeQuery("""
+        select p.id, p.name, p.description, p.price, p.version, p.created_at, p.updated_at
+        from products p
+        where p.search_vector @@ websearch_to_tsquery('english', :query)
+        order by ts_rank(p.search_vector, websearch_to_tsquery('english', :query)) desc, p.id
+        limit :limit offset :offset""")
+        .setParameter("query", query)
+        .setParameter("limit", limit)
+        .setParameter("offset", offset));
+  }
+
+  @Override
+  public List<ProductResponse> searchSimilarNames(String query, int limit, long offset) {
+    return list(nativeQuery("""
+        select p.id, p.name, p.description, p.price, p.version, p.created_at, p.updated_at
+        from products p
+        where lower(p.name) % lower(:query)
+        order by similarity(lower(p.name), lower(:query)) desc, p.id
+        limit :limit offset :offset""")
+        .setParameter("query", query)
+        .setParameter("limit", limit)
+        .setParameter("offset", offset));
+  }
+
+  private Query nativeQuery(String sql) {
+    return entityManager.createNativeQuery(sql, Product.RESPONSE_MAPPING);
+  }
+
+  // The result type comes from the mapping, which the untyped Query API can't express.
+  @SuppressWarnings("unchecked")
+  private static List<ProductResponse> list(Query query) {
+    return query.getResultList();
+  }
+}
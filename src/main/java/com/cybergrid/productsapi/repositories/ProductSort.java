@@ -0,0 +1,30 @@
+package com.cybergrid.productsapi.repositories;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Properties products can be listed by. The id is always added as a tiebreaker, so every
+ * ordering is total and can be paged through with a keyset cursor.
+ */
+public enum ProductSort {
+  ID("id"),
+  NAME("name"),
+  PRICE("price");
+
+  private final String property;
+
+  ProductSort(String property) {
+    this.property = property;
+  }
+
+  public String getProperty() {
+    return property;
+  }
+
+  public static Optional<ProductSort> fromProperty(String property) {
+    return Arrays.stream(values())
+        .filter(sort -> sort.property.equals(property))
+        .findFirst();
+  }
+}
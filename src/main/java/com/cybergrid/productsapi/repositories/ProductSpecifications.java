@@ -0,0 +1,88 @@
+package com.cybergrid.productsapi.repositories;
+
+import com.cybergrid.productsapi.models.Product;
+import com.cybergrid.productsapi.pricing.Price;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Builds the {@link Specification} matching a {@link ProductQuery}.
+ *
+ * <p>Every predicate here is backed by an index from the {@code db/migration} scripts.
+ */
+public final class ProductSpecifications {
+  private static final char LIKE_ESCAPE = '\\';
+
+  private ProductSpecifications() {
+  }
+
+  public static Specification<Product> matching(ProductQuery query) {
+    return (root, criteriaQuery, cb) -> {
+      List<Predicate> predicates = new ArrayList<>();
+
+      if (query.getNamePrefix() != null && !query.getNamePrefix().isEmpty()) {
+        String pattern = escapeLike(query.getNamePrefix().toLowerCase(Locale.ROOT)) + "%";
+        predicates.add(cb.like(cb.lower(root.get("name")), pattern, LIKE_ESCAPE));
+      }
+      // Bounds may have more decimals than prices, so they're rounded inwards to whole cents.
+      if (query.getMinPrice() != null) {
+        predicates.add(cb.greaterThanOrEqualTo(
+            root.get("price"), Price.ceiling(query.getMinPrice())));
+      }
+      if (query.getMaxPrice() != null) {
+        predicates.add(cb.lessThanOrEqualTo(
+            root.get("price"), Price.floor(query.getMaxPrice())));
+      }
+
+      if (query.getAfterId() != null) {
+        Expression<UUID> id = root.get("id");
+        predicates.add(switch (query.getSort()) {
+          case ID -> query.isDescending()
+              ? cb.lessThan(id, query.getAfterId())
+              : cb.greaterThan(id, query.getAfterId());
+          case NAME -> after(cb, root.<String>get("name"), query.getAfterKey(), id, query);
+          case PRICE -> after(
+              cb,
+              root.<Price>get("price"),
+              Price.parse(query.getAfterKey()),
+              id,
+              query);
+        });
+      }
+
+      return cb.and(predicates.toArray(Predicate[]::new));
+    };
+  }
+
+  // Spelled as "key >= :key and (key > :key or id > :id)" instead of the equivalent
+  // "key > :key or (key = :key and id > :id)", so Postgres can start the index scan at :key.
+  private static <T extends Comparable<? super T>> Predicate after(
+      CriteriaBuilder cb,
+      Expression<T> key,
+      T afterKey,
+      Expression<UUID> id,
+      ProductQuery query) {
+    if (query.isDescending()) {
+      return cb.and(
+          cb.lessThanOrEqualTo(key, afterKey),
+          cb.or(cb.lessThan(key, afterKey), cb.lessThan(id, query.getAfterId())));
+    }
+
+    return cb.and(
+        cb.greaterThanOrEqualTo(key, afterKey),
+        cb.or(cb.greaterThan(key, afterKey), cb.greaterThan(id, query.getAfterId())));
+  }
+
+  private static String escapeLike(String value) {
+    return value
+        .replace("\\", "\\\\")
+        .replace("%", "\\%")
+        .replace("_", "\\_");
+  }
+}
@@ -0,0 +1,33 @@
+package com.cybergrid.productsapi.repositories;
+
+import com.cybergrid.productsapi.models.ProductTombstone;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+public interface ProductTombstonesRepository extends JpaRepository<ProductTombstone, UUID> {
+
+  @Modifying
+  @Query(value = """
+      insert into product_tombstones (product_id, deleted_at)
+      select d.id, :deletedAt from unnest(cast(:ids as uuid[])) as d(id)
+      on conflict (product_id) do update set deleted_at = excluded.deleted_at""",
+      nativeQuery = true)
+  int insertAll(UUID[] ids, Instant deletedAt);
+
+  // Tombstones after the (deletedAt, productId) keyset position, but before the cutoff.
+  @Query("""
+      select t from ProductTombstone t
+      where (t.deletedAt > :since or (t.deletedAt = :since and t.productId > :afterId))
+        and t.deletedAt < :cutoff
+      order by t.deletedAt, t.productId""")
+  List<ProductTombstone> findDeletedBetween(
+      Instant since,
+      UUID afterId,
+      Instant cutoff,
+      Limit limit);
+}
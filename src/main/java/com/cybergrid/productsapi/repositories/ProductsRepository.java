@@ -1,8 +1,99 @@
 package com.cybergrid.productsapi.repositories;
 
+import com.cybergrid.productsapi.dto.ProductResponse;
 import com.cybergrid.productsapi.models.Product;
+import com.cybergrid.productsapi.pricing.Price;
+import jakarta.persistence.QueryHint;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
 
-public interface ProductsRepository extends JpaRepository<Product, UUID> {
+// Reads project straight into ProductResponses, so they never load entities into the persistence
+// context. Listing and native queries are in ProductResponseRepository.
+public interface ProductsRepository
+    extends JpaRepository<Product, UUID>, ProductResponseRepository {
+
+  @Transactional(readOnly = true)
+  @Query("""
+      select new com.cybergrid.productsapi.dto.ProductResponse(
+          p.id, p.name, p.description, p.price, p.version, p.createdAt, p.updatedAt)
+      from Product p
+      where p.id = :id""")
+  Optional<ProductResponse> findResponseById(UUID id);
+
+  // Streams rows through a server-side cursor instead of loading the whole result set.
+  // Must be consumed inside a transaction, since Postgres only honors the fetch size then.
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+  @Query("""
+      select new com.cybergrid.productsapi.dto.ProductResponse(
+          p.id, p.name, p.description, p.price, p.version, p.createdAt, p.updatedAt)
+      from Product p""")
+  Stream<ProductResponse> streamAll();
+
+  // Products changed after the (updatedAt, id) keyset position, but before the cutoff.
+  @Query("""
+      select new com.cybergrid.productsapi.dto.ProductResponse(
+          p.id, p.name, p.description, p.price, p.version, p.createdAt, p.updatedAt)
+      from Product p
+      where (p.updatedAt > :since or (p.updatedAt = :since and p.id > :afterId))
+        and p.updatedAt < :cutoff
+      order by p.updatedAt, p.id""")
+  List<ProductResponse> findChangedBetween(
+      Instant since,
+      UUID afterId,
+      Instant cutoff,
+      Limit limit);
+
+  @Query(value = """
+      select exists(
+          select 1 from products p
+          where p.search_vector @@ websearch_to_tsquery('english', :query))""",
+      nativeQuery = true)
+  boolean existsFullTextMatch(String query);
+
+  // Single-statement writes: the row count tells whether the product existed (and had the
+  // expected version), so there's no need to load or check it first.
+  @Modifying
+  @Query("""
+      update Product p
+      set p.name = :name, p.description = :description, p.price = :price,
+          p.version = p.version + 1, p.updatedAt = :updatedAt
+      where p.id = :id""")
+  int updateById(
+      UUID id,
+      String name,
+      String description,
+      Price price,
+      Instant updatedAt);
+
+  @Modifying
+  @Query("""
+      update Product p
+      set p.name = :name, p.description = :description, p.price = :price,
+          p.version = p.version + 1, p.updatedAt = :updatedAt
+      where p.id = :id and p.version = :version""")
+  int updateByIdAndVersion(
+      UUID id,
+      long version,
+      String name,
+      String description,
+      Price price,
+      Instant updatedAt);
+
+  @Modifying
+  @Query("delete from Product p where p.id = :id")
+  int deleteProductById(UUID id);
+
+  @Modifying
+  @Query("delete from Product p where p.id = :id and p.version = :version")
+  int deleteProductByIdAndVersion(UUID id, long version);
 }
@@ -0,0 +1,56 @@
+package com.cybergrid.productsapi.services;
+
+import com.cybergrid.productsapi.dto.ProductResponse;
+import com.cybergrid.productsapi.models.ProductTombstone;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Products changed and deleted after a sync watermark, along with the watermark to continue
+ * from next time.
+ *
+ * <p>A watermark is an {@code (at, id)} keyset position over update and delete timestamps,
+ * with the id breaking ties between products changed at the same time.
+ */
+public class ProductChanges {
+  private final List<ProductResponse> changed;
+  private final List<ProductTombstone> deleted;
+  private final Instant watermarkAt;
+  private final UUID watermarkId;
+  private final boolean more;
+
+  public ProductChanges(
+      List<ProductResponse> changed,
+      List<ProductTombstone> deleted,
+      Instant watermarkAt,
+      UUID watermarkId,
+      boolean more) {
+    this.changed = changed;
+    this.deleted = deleted;
+    this.watermarkAt = watermarkAt;
+    this.watermarkId = watermarkId;
+    this.more = more;
+  }
+
+  public List<ProductResponse> getChanged() {
+    return changed;
+  }
+
+  public List<ProductTombstone> getDeleted() {
+    return deleted;
+  }
+
+  public Instant getWatermarkAt() {
+    return watermarkAt;
+  }
+
+  public UUID getWatermarkId() {
+    return watermarkId;
+  }
+
+  // True if the limit cut the changes short, so the client should ask again right away.
+  public boolean hasMore() {
+    return more;
+  }
+}
@@ -0,0 +1,120 @@
+package com.cybergrid.productsapi.services;
+
+import com.cybergrid.productsapi.dto.ProductResponse;
+import com.cybergrid.productsapi.models.Product;
+import com.cybergrid.productsapi.models.ProductTombstone;
+import com.cybergrid.productsapi.repositories.ProductTombstonesRepository;
+import com.cybergrid.productsapi.repositories.ProductsRepository;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+@Service
+public class ProductChangesService {
+  public static final int MAX_PAGE_SIZE = 1000;
+
+  // Sorts before every other id, so a watermark at this id includes all rows at its timestamp.
+  public static final UUID FIRST_ID = new UUID(0, 0);
+
+  private final ProductsRepository productsRepository;
+  private final ProductTombstonesRepository productTombstonesRepository;
+  private final Duration settleWindow;
+
+  public ProductChangesService(
+      ProductsRepository productsRepository,
+      ProductTombstonesRepository productTombstonesRepository,
+      @Value("${app.sync.settle-window}") Duration settleWindow) {
+    this.productsRepository = productsRepository;
+    this.productTombstonesRepository = productTombstonesRepository;
+    this.settleWindow = settleWindow;
+  }
+
+  /**
+   * Returns up to {@code limit} products changed or deleted after the watermark
+   * {@code (since, afterId)}, oldest first.
+   *
+   * <p>Timestamps are taken before commit, so a write can become visible after later ones.
+   * Changes newer than the settle window are therefore left for the next sync, which makes
+   * sure no write is skipped as long as its transaction commits within the window.
+   *
+   * <p>Not read-only, so it always runs on the primary. A lagging replica would stretch the time
+   * until a write becomes visible beyond the settle window.
+   */
+  @Transactional
+  public ProductChanges getChanges(Instant since, UUID afterId, int limit) {
+    if (limit < 1 || limit > MAX_PAGE_SIZE) {
+      throw new ResponseStatusException(
+          HttpStatus.BAD_REQUEST,
+          "Limit must be between 1 and " + MAX_PAGE_SIZE);
+    }
+
+    Instant cutoff = Product.currentTimestamp().minus(settleWindow);
+    if (!since.isBefore(cutoff)) {
+      return new ProductChanges(List.of(), List.of(), since, afterId, false);
+    }
+
+    List<ProductResponse> products =
+        productsRepository.findChangedBetween(since, afterId, cutoff, Limit.of(limit));
+    List<ProductTombstone> tombstones =
+        productTombstonesRepository.findDeletedBetween(since, afterId, cutoff, Limit.of(limit));
+
+    // Merge both into a single (at, id) order and keep the first limit changes.
+    List<ProductResponse> changed = new ArrayList<>();
+    List<ProductTombstone> deleted = new ArrayList<>();
+    Instant lastAt = null;
+    UUID lastId = null;
+    int p = 0;
+    int t = 0;
+    while (changed.size() + deleted.size() < limit
+        && (p < products.size() || t < tombstones.size())) {
+      boolean takeProduct = t == tombstones.size()
+          || (p < products.size() && compare(
+              products.get(p).getUpdatedAt(), products.get(p).getId(),
+              tombstones.get(t).getDeletedAt(), tombstones.get(t).getProductId()) < 0);
+
+      if (takeProduct) {
+        ProductResponse product = products.get(p++);
+        changed.add(product);
+        lastAt = product.getUpdatedAt();
+        lastId = product.getId();
+      } else {
+        ProductTombstone tombstone = tombstones.get(t++);
+        deleted.add(tombstone);
+        lastAt = tombstone.getDeletedAt();
+        lastId = tombstone.getProductId();
+      }
+    }
+
+    // A full result from either query may have left rows in the database.
+    boolean more = p < products.size()
+        || t < tombstones.size()
+        || products.size() == limit
+        || tombstones.size() == limit;
+    if (more) {
+      return new ProductChanges(changed, deleted, lastAt, lastId, true);
+    }
+
+    // Caught up, so the next sync can start at the cutoff.
+    return new ProductChanges(changed, deleted, cutoff, FIRST_ID, false);
+  }
+
+  // Postgres compares uuids as unsigned bytes, unlike UUID.compareTo.
+  private static int compare(Instant at1, UUID id1, Instant at2, UUID id2) {
+    int result = at1.compareTo(at2);
+    if (result == 0) {
+      result = Long.compareUnsigned(id1.getMostSignificantBits(), id2.getMostSignificantBits());
+    }
+    if (result == 0) {
+      result = Long.compareUnsigned(id1.getLeastSignificantBits(), id2.getLeastSignificantBits());
+    }
+    return result;
+  }
+}
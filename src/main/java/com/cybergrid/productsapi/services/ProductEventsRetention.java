@@ -0,0 +1,98 @@
+package com.cybergrid.productsapi.services;
+
+import com.cybergrid.productsapi.repositories.ProductEventsRepository;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Deletes product events older than the retention period, so the outbox doesn't grow forever.
+ *
+ * <p>Consumers further behind than that miss events, and should resync through
+ * {@code GET /api/v1/products/changes} instead. The newest event is always kept, so the latest
+ * sequence number survives an idle period.
+ */
+@Component
+public class ProductEventsRetention implements SmartLifecycle {
+  private static final int DELETE_BATCH = 10_000;
+  private static final Logger log = LoggerFactory.getLogger(ProductEventsRetention.class);
+
+  private final ProductEventsRepository productEventsRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final Duration retention;
+  private final Duration cleanupInterval;
+  private ScheduledExecutorService scheduler;
+
+  public ProductEventsRetention(
+      ProductEventsRepository productEventsRepository,
+      PlatformTransactionManager transactionManager,
+      @Value("${app.events.retention}") Duration retention,
+      @Value("${app.events.cleanup-interval}") Duration cleanupInterval) {
+    this.productEventsRepository = productEventsRepository;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.retention = retention;
+    this.cleanupInterval = cleanupInterval;
+  }
+
+  /**
+   * Deletes events that occurred before {@code cutoff}, in batches so that no transaction holds
+   * many row locks for long, and returns how many were deleted.
+   */
+  public long deleteEventsBefore(Instant cutoff) {
+    long deleted = 0;
+    while (true) {
+      Integer batch = transactionTemplate.execute(status ->
+          productEventsRepository.deleteOccurredBefore(cutoff, DELETE_BATCH));
+      deleted += batch;
+      if (batch < DELETE_BATCH) {
+        return deleted;
+      }
+    }
+  }
+
+  @Override
+  public synchronized void start() {
+    scheduler = Executors.newSingleThreadScheduledExecutor(
+        runnable -> Thread.ofPlatform().name("product-events-retention").daemon()
+            .unstarted(runnable));
+    scheduler.scheduleWithFixedDelay(
+        this::cleanUp,
+        cleanupInterval.toMillis(),
+        cleanupInterval.toMillis(),
+        TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public synchronized void stop() {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+      scheduler = null;
+    }
+  }
+
+  @Override
+  public synchronized boolean isRunning() {
+    return scheduler != null;
+  }
+
+  private void cleanUp() {
+    // An exception would cancel the scheduled task, so log it and try again next time.
+    try {
+      long deleted = deleteEventsBefore(Instant.now().minus(retention));
+      if (deleted > 0) {
+        log.info("Deleted {} product events older than {}", deleted, retention);
+      }
+    } catch (RuntimeException ex) {
+      log.warn("Could not delete old product events", ex);
+    }
+  }
+}
@@ -0,0 +1,43 @@
+package com.cybergrid.productsapi.services;
+
+import com.cybergrid.productsapi.models.ProductEvent;
+import com.cybergrid.productsapi.repositories.ProductEventsRepository;
+import java.time.Duration;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+@Service
+public class ProductEventsService {
+  public static final int MAX_PAGE_SIZE = 1000;
+
+  private final ProductEventsRepository productEventsRepository;
+  private final Duration settleWindow;
+
+  public ProductEventsService(
+      ProductEventsRepository productEventsRepository,
+      @Value("${app.events.settle-window}") Duration settleWindow) {
+    this.productEventsRepository = productEventsRepository;
+    this.settleWindow = settleWindow;
+  }
+
+  /**
+   * Returns up to {@code limit} product events following sequence number {@code after}, oldest
+   * first.
+   *
+   * <p>Events appended less than the settle window ago are left for a later call, since
+   * transactions can commit out of sequence order. Once an event is returned, no event with a
+   * lower sequence number can show up later, as long as every write commits within the window.
+   */
+  public List<ProductEvent> getEvents(long after, int limit) {
+    if (limit < 1 || limit > MAX_PAGE_SIZE) {
+      throw new ResponseStatusException(
+          HttpStatus.BAD_REQUEST,
+          "Limit must be between 1 and " + MAX_PAGE_SIZE);
+    }
+
+    return productEventsRepository.findSettledAfter(after, settleWindow, limit);
+  }
+}
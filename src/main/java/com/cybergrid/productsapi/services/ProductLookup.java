@@ -0,0 +1,27 @@
+package com.cybergrid.productsapi.services;
+
+import com.cybergrid.productsapi.dto.ProductResponse;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Result of looking up products by id: the products found and the ids that weren't, both in
+ * the order they were asked for.
+ */
+public class ProductLookup {
+  private final List<ProductResponse> found;
+  private final List<UUID> missing;
+
+  public ProductLookup(List<ProductResponse> found, List<UUID> missing) {
+    this.found = found;
+    this.missing = missing;
+  }
+
+  public List<ProductResponse> getFound() {
+    return found;
+  }
+
+  public List<UUID> getMissing() {
+    return missing;
+  }
+}
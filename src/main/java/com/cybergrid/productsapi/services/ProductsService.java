@@ -1,49 +1,439 @@
 package com.cybergrid.productsapi.services;
 
+import com.cybergrid.productsapi.cache.CacheConfig;
+import com.cybergrid.productsapi.cache.ProductPageCache;
+import com.cybergrid.productsapi.cache.SingleFlight;
+import com.cybergrid.productsapi.catalog.CatalogTier;
+import com.cybergrid.productsapi.datasource.ReplicaRouting;
+import com.cybergrid.productsapi.dto.ProductBatchOperation;
+import com.cybergrid.productsapi.dto.ProductBatchResult;
+import com.cybergrid.productsapi.dto.ProductRequest;
+import com.cybergrid.productsapi.dto.ProductResponse;
+import com.cybergrid.productsapi.mappers.ProductMapper;
 import com.cybergrid.productsapi.models.Product;
+import com.cybergrid.productsapi.models.ProductEvent;
+import com.cybergrid.productsapi.repositories.ProductEventsRepository;
+import com.cybergrid.productsapi.repositories.ProductQuery;
+import com.cybergrid.productsapi.repositories.ProductTombstonesRepository;
 import com.cybergrid.productsapi.repositories.ProductsRepository;
+import jakarta.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataAccessException;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
 @Service
 public class ProductsService {
+  public static final int MAX_PAGE_SIZE = 1000;
+
+  // Number of batch operations committed per transaction. Keeps the persistence context and
+  // lock footprint bounded, while Hibernate groups statements into JDBC batches underneath.
+  public static final int BATCH_CHUNK_SIZE = 500;
+
   private final ProductsRepository productsRepository;
+  private final ProductEventsRepository productEventsRepository;
+  private final ProductTombstonesRepository productTombstonesRepository;
+  private final ProductPageCache productPageCache;
+  private final ReplicaRouting replicaRouting;
+  private final SingleFlight<UUID, ProductResponse> productLookups;
+  private final CatalogTier catalogTier;
+  private final EntityManager entityManager;
+  private final TransactionTemplate transactionTemplate;
 
-  public ProductsService(ProductsRepository productsRepository) {
+  public ProductsService(
+      ProductsRepository productsRepository,
+      ProductEventsRepository productEventsRepository,
+      ProductTombstonesRepository productTombstonesRepository,
+      ProductPageCache productPageCache,
+      ReplicaRouting replicaRouting,
+      SingleFlight<UUID, ProductResponse> productLookups,
+      CatalogTier catalogTier,
+      EntityManager entityManager,
+      PlatformTransactionManager transactionManager) {
     this.productsRepository = productsRepository;
+    this.productEventsRepository = productEventsRepository;
+    this.productTombstonesRepository = productTombstonesRepository;
+    this.productPageCache = productPageCache;
+    this.replicaRouting = replicaRouting;
+    this.productLookups = productLookups;
+    this.catalogTier = catalogTier;
+    this.entityManager = entityManager;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
   }
 
-  public List<Product> getProducts() {
-    return productsRepository.findAll();
+  /**
+   * Returns a single page of products matching {@code query}, from the in-memory catalog if it
+   * can answer it.
+   *
+   * <p>Not transactional, so pages served from memory don't take a connection. The repository
+   * query runs in its own read-only transaction.
+   */
+  public List<ProductResponse> getProducts(ProductQuery query) {
+    if (query.getLimit() < 1 || query.getLimit() > MAX_PAGE_SIZE) {
+      throw new ResponseStatusException(
+          HttpStatus.BAD_REQUEST,
+          "Limit must be between 1 and " + MAX_PAGE_SIZE);
+    }
+    if (catalogTier.canServe(query)) {
+      return catalogTier.getProducts(query);
+    }
+
+    return productsRepository.findPage(query);
   }
 
-  public Product createProduct(Product product) {
-    return productsRepository.save(product);
+  /**
+   * Returns a page of products whose name or description match {@code query}, most relevant
+   * first.
+   *
+   * <p>Full-text matches are preferred. Only if there are none at all, products with similar
+   * names are returned instead, so a typo doesn't end up with an empty result.
+   */
+  @Transactional(readOnly = true)
+  public List<ProductResponse> searchProducts(String query, int page, int size) {
+    if (query == null || query.isBlank()) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Search query must not be blank");
+    }
+    if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+      throw new ResponseStatusException(
+          HttpStatus.BAD_REQUEST,
+          "Page must not be negative and size must be between 1 and " + MAX_PAGE_SIZE);
+    }
+
+    long offset = (long) page * size;
+    List<ProductResponse> products = productsRepository.searchFullText(query, size, offset);
+
+    // An empty page past the last full-text match must stay empty rather than switch modes.
+    if (products.isEmpty() && (page == 0 || !productsRepository.existsFullTextMatch(query))) {
+      products = productsRepository.searchSimilarNames(query, size, offset);
+    }
+
+    return products;
   }
 
-  public Product getProductById(UUID id) {
-    return productsRepository.findById(id).orElseThrow(
+  /**
+   * Looks up products by id with a single query.
+   *
+   * <p>Products are returned in the order of {@code ids}, and ids without a product are
+   * reported as missing rather than failing the lookup. Duplicate ids are looked up once.
+   */
+  @Transactional(readOnly = true)
+  public ProductLookup lookupProducts(List<UUID> ids) {
+    Set<UUID> uniqueIds = new LinkedHashSet<>(ids);
+    Map<UUID, ProductResponse> products = new HashMap<>();
+    for (ProductResponse product :
+        productsRepository.findAllByIdAny(uniqueIds.toArray(UUID[]::new))) {
+      products.put(product.getId(), product);
+    }
+
+    List<ProductResponse> found = new ArrayList<>(products.size());
+    List<UUID> missing = new ArrayList<>();
+    for (UUID id : uniqueIds) {
+      ProductResponse product = products.get(id);
+      if (product != null) {
+        found.add(product);
+      } else {
+        missing.add(id);
+      }
+    }
+
+    return new ProductLookup(found, missing);
+  }
+
+  /**
+   * Passes every product to {@code consumer} while streaming them from the database.
+   * Products aren't entities, so nothing accumulates in the persistence context and memory use
+   * stays flat regardless of catalog size.
+   */
+  @Transactional(readOnly = true)
+  public void exportProducts(Consumer<ProductResponse> consumer) {
+    try (Stream<ProductResponse> products = productsRepository.streamAll()) {
+      products.forEach(consumer);
+    }
+  }
+
+  // Every write below appends its change event to the outbox in the same transaction, as the
+  // last statement before commit. Once it has committed, cached listing pages are invalidated and
+  // reads move to the primary until replicas have caught up.
+
+  @CachePut(cacheNames = CacheConfig.PRODUCTS_CACHE, key = "#result.id")
+  @Transactional
+  public ProductResponse createProduct(Product product) {
+    Product created = productsRepository.saveAndFlush(product);
+    productEventsRepository.appendProductState(
+        List.of(created.getId()),
+        ProductEvent.Type.CREATED.name());
+    afterWriteCommits(List.of(created.getId()));
+    return ProductMapper.toResponse(created);
+  }
+
+  /**
+   * Returns a product, from the cache if possible. Misses throw, so only existing products end
+   * up cached.
+   *
+   * <p>Concurrent cache misses for the same id share a single query. This method isn't
+   * transactional, since callers waiting for that query would each hold a connection.
+   * {@code findResponseById} runs in its own read-only transaction instead.
+   */
+  @Cacheable(cacheNames = CacheConfig.PRODUCTS_CACHE, key = "#id")
+  public ProductResponse getProductById(UUID id) {
+    if (catalogTier.isServing(id)) {
+      return catalogTier.getProductById(id).orElseThrow(
+          () -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found"));
+    }
+
+    Supplier<ProductResponse> lookup = () -> productsRepository.findResponseById(id).orElseThrow(
       () -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found")
     );
+    // A replica may not have the write yet, and the old state would stay cached.
+    if (replicaRouting.isRecentlyWritten(id)) {
+      return productLookups.execute(id, () -> replicaRouting.readFromPrimary(lookup));
+    }
+    return productLookups.execute(id, lookup);
+  }
+
+  /**
+   * Updates a product.
+   *
+   * @param expectedVersion version the client last saw, or {@code null} to update unconditionally
+   */
+  @CacheEvict(cacheNames = CacheConfig.PRODUCTS_CACHE, key = "#id")
+  @Transactional
+  public void updateProduct(UUID id, Product product, Long expectedVersion) {
+    int updated = expectedVersion == null
+        ? productsRepository.updateById(
+            id,
+            product.getName(),
+            product.getDescription(),
+            product.getPrice(),
+            Product.currentTimestamp())
+        : productsRepository.updateByIdAndVersion(
+            id,
+            expectedVersion,
+            product.getName(),
+            product.getDescription(),
+            product.getPrice(),
+            Product.currentTimestamp());
+
+    if (updated == 0) {
+      throw notFoundOrVersionMismatch(id, expectedVersion);
+    }
+    productEventsRepository.appendProductState(List.of(id), ProductEvent.Type.UPDATED.name());
+    afterWriteCommits(List.of(id));
+  }
+
+  /**
+   * Deletes a product.
+   *
+   * @param expectedVersion version the client last saw, or {@code null} to delete unconditionally
+   */
+  @CacheEvict(cacheNames = CacheConfig.PRODUCTS_CACHE, key = "#id")
+  @Transactional
+  public void deleteProduct(UUID id, Long expectedVersion) {
+    int deleted = expectedVersion == null
+        ? productsRepository.deleteProductById(id)
+        : productsRepository.deleteProductByIdAndVersion(id, expectedVersion);
+
+    if (deleted == 0) {
+      throw notFoundOrVersionMismatch(id, expectedVersion);
+    }
+    productTombstonesRepository.insertAll(new UUID[] {id}, Product.currentTimestamp());
+    productEventsRepository.appendDeleted(new UUID[] {id});
+    afterWriteCommits(List.of(id));
   }
 
-  public void updateProduct(UUID id, Product product) {
-    if (!productsRepository.existsById(id)) {
-      throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found");
+  /**
+   * Applies batch operations in chunks of {@link #BATCH_CHUNK_SIZE}, each in its own transaction.
+   *
+   * <p>A failing chunk is rolled back and reported for each of its operations, while other chunks
+   * are still applied.
+   *
+   * @return one result per operation, in the same order as {@code operations}
+   */
+  // Batches can touch thousands of products, so dropping the whole cache is cheaper than
+  // evicting them one by one.
+  @CacheEvict(cacheNames = CacheConfig.PRODUCTS_CACHE, allEntries = true)
+  public List<ProductBatchResult> processBatch(List<ProductBatchOperation> operations) {
+    List<ProductBatchResult> results = new ArrayList<>(operations.size());
+
+    for (int offset = 0; offset < operations.size(); offset += BATCH_CHUNK_SIZE) {
+      List<ProductBatchOperation> chunk =
+          operations.subList(offset, Math.min(offset + BATCH_CHUNK_SIZE, operations.size()));
+      int chunkOffset = offset;
+
+      try {
+        results.addAll(transactionTemplate.execute(status -> processChunk(chunk, chunkOffset)));
+      } catch (DataAccessException ex) {
+        for (int i = 0; i < chunk.size(); i++) {
+          results.add(new ProductBatchResult(
+              chunkOffset + i,
+              HttpStatus.CONFLICT.value(),
+              chunk.get(i).getId(),
+              "Batch chunk was rolled back"));
+        }
+      }
     }
 
-    product.setId(id);
-    productsRepository.save(product);
+    return results;
   }
 
-  public void deleteProduct(UUID id) {
-    if (!productsRepository.existsById(id)) {
-      throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found");
+  private List<ProductBatchResult> processChunk(List<ProductBatchOperation> chunk, int offset) {
+    // Load every product the chunk updates or deletes with a single query.
+    Set<UUID> ids = chunk.stream()
+        .filter(operation -> operation.getOp() != ProductBatchOperation.Type.CREATE)
+        .map(ProductBatchOperation::getId)
+        .collect(Collectors.toSet());
+    Map<UUID, Product> products = new HashMap<>();
+    for (Product product : productsRepository.findAllById(ids)) {
+      products.put(product.getId(), product);
+    }
+
+    // Statements are only queued here and sent as JDBC batches when the transaction flushes.
+    List<ProductBatchResult> results = new ArrayList<>(chunk.size());
+    Set<UUID> created = new LinkedHashSet<>();
+    Set<UUID> updated = new LinkedHashSet<>();
+    Set<UUID> deleted = new LinkedHashSet<>();
+    for (int i = 0; i < chunk.size(); i++) {
+      ProductBatchOperation operation = chunk.get(i);
+      int index = offset + i;
+
+      switch (operation.getOp()) {
+        case CREATE -> {
+          Product product = ProductMapper.toEntity(operation.getProduct());
+          entityManager.persist(product);
+          created.add(product.getId());
+          results.add(new ProductBatchResult(
+              index, HttpStatus.CREATED.value(), product.getId(), null));
+        }
+        case UPDATE -> {
+          Product product = products.get(operation.getId());
+          if (product == null) {
+            results.add(notFound(index, operation.getId()));
+            continue;
+          }
+          if (!matchesVersion(product, operation)) {
+            results.add(versionMismatch(index, operation.getId()));
+            continue;
+          }
+
+          ProductRequest request = operation.getProduct();
+          product.setName(request.getName());
+          product.setDescription(request.getDescription());
+          product.setPrice(request.getPrice());
+          updated.add(product.getId());
+          results.add(new ProductBatchResult(index, HttpStatus.OK.value(), product.getId(), null));
+        }
+        case DELETE -> {
+          Product product = products.get(operation.getId());
+          if (product == null) {
+            results.add(notFound(index, operation.getId()));
+            continue;
+          }
+          if (!matchesVersion(product, operation)) {
+            results.add(versionMismatch(index, operation.getId()));
+            continue;
+          }
+
+          products.remove(operation.getId());
+          entityManager.remove(product);
+          updated.remove(product.getId());
+          deleted.add(product.getId());
+          results.add(new ProductBatchResult(index, HttpStatus.OK.value(), product.getId(), null));
+        }
+        default -> throw new IllegalStateException("Unexpected operation " + operation.getOp());
+      }
+    }
+
+    // Events record the state each product was committed with, so the chunk is written first.
+    productsRepository.flush();
+    UUID[] deletedIds = deleted.toArray(UUID[]::new);
+    if (deletedIds.length > 0) {
+      productTombstonesRepository.insertAll(deletedIds, Product.currentTimestamp());
     }
+    if (!created.isEmpty()) {
+      productEventsRepository.appendProductState(created, ProductEvent.Type.CREATED.name());
+    }
+    if (!updated.isEmpty()) {
+      productEventsRepository.appendProductState(updated, ProductEvent.Type.UPDATED.name());
+    }
+    if (deletedIds.length > 0) {
+      productEventsRepository.appendDeleted(deletedIds);
+    }
+    Set<UUID> written = new HashSet<>(created);
+    written.addAll(updated);
+    written.addAll(deleted);
+    afterWriteCommits(written);
+
+    return results;
+  }
+
+  // Invalidating before commit would let a concurrent read cache the old state as the new
+  // version, so it's deferred until the transaction has committed.
+  private void afterWriteCommits(Collection<UUID> ids) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      writeCommitted(ids);
+      return;
+    }
+
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        writeCommitted(ids);
+      }
+    });
+  }
+
+  // Routing changes first, so pages reloaded after the invalidation aren't cached from a replica,
+  // or read from a catalog that hasn't caught up yet.
+  private void writeCommitted(Collection<UUID> ids) {
+    replicaRouting.recordWrite(ids);
+    catalogTier.writeCommitted(ids);
+    productPageCache.invalidate();
+  }
+
+  // Only called once a conditional write matched no rows, so the happy path skips this lookup.
+  private ResponseStatusException notFoundOrVersionMismatch(UUID id, Long expectedVersion) {
+    if (expectedVersion != null && productsRepository.existsById(id)) {
+      return new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "Product version mismatch");
+    }
+
+    return new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found");
+  }
+
+  // Concurrent changes after the product was loaded are still caught by @Version on flush.
+  private static boolean matchesVersion(Product product, ProductBatchOperation operation) {
+    return operation.getVersion() == null || operation.getVersion() == product.getVersion();
+  }
+
+  private static ProductBatchResult notFound(int index, UUID id) {
+    return new ProductBatchResult(index, HttpStatus.NOT_FOUND.value(), id, "Product not found");
+  }
 
-    productsRepository.deleteById(id);
+  private static ProductBatchResult versionMismatch(int index, UUID id) {
+    return new ProductBatchResult(
+        index,
+        HttpStatus.PRECONDITION_FAILED.value(),
+        id,
+        "Product version mismatch");
   }
 }
@@ -0,0 +1,97 @@
+package com.cybergrid.productsapi.threading;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports virtual threads that stay pinned to their carrier thread, which happens when they
+ * block inside {@code synchronized} code or native frames (on Java 21-23).
+ *
+ * <p>Pinned threads hold a carrier for the whole blocking call, so a few of them are enough
+ * to starve the virtual thread scheduler. Each pin longer than the threshold is recorded in
+ * the {@code jvm.threads.virtual.pinned} timer and logged with the stack that caused it.
+ * Only active when {@code spring.threads.virtual.enabled} is true.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningMonitor implements SmartLifecycle {
+  private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+  private static final int MAX_LOGGED_FRAMES = 16;
+  private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+  private final Duration threshold;
+  private final Timer pinnedTimer;
+  private RecordingStream stream;
+
+  public VirtualThreadPinningMonitor(
+      MeterRegistry meterRegistry,
+      @Value("${app.threads.virtual.pinned-threshold:20ms}") Duration threshold) {
+    this.threshold = threshold;
+    this.pinnedTimer = Timer.builder("jvm.threads.virtual.pinned")
+        .description("Time virtual threads spent pinned to their carrier thread")
+        .register(meterRegistry);
+  }
+
+  @Override
+  public synchronized void start() {
+    stream = new RecordingStream();
+    stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+    stream.onEvent(PINNED_EVENT, this::onPinned);
+    stream.startAsync();
+    log.info("Reporting virtual threads pinned for longer than {}", threshold);
+  }
+
+  @Override
+  public synchronized void stop() {
+    if (stream != null) {
+      stream.close();
+      stream = null;
+    }
+  }
+
+  @Override
+  public synchronized boolean isRunning() {
+    return stream != null;
+  }
+
+  private void onPinned(RecordedEvent event) {
+    pinnedTimer.record(event.getDuration());
+    if (log.isWarnEnabled()) {
+      String thread = event.getThread() != null ? event.getThread().getJavaName() : "unknown";
+      log.warn(
+          "Virtual thread {} was pinned to its carrier for {} ms at:{}",
+          thread,
+          event.getDuration().toMillis(),
+          formatStackTrace(event.getStackTrace()));
+    }
+  }
+
+  private static String formatStackTrace(RecordedStackTrace stackTrace) {
+    if (stackTrace == null) {
+      return " <no stack trace>";
+    }
+
+    List<RecordedFrame> frames = stackTrace.getFrames();
+    return frames.stream()
+        .limit(MAX_LOGGED_FRAMES)
+        .map(frame -> "\n\tat " + frame.getMethod().getType().getName()
+            + "." + frame.getMethod().getName()
+            + (frame.getLineNumber() > 0 ? ":" + frame.getLineNumber() : ""))
+        .collect(Collectors.joining())
+        + (frames.size() > MAX_LOGGED_FRAMES || stackTrace.isTruncated() ? "\n\t..." : "");
+  }
+}
@@ -0,0 +1,106 @@
+package com.cybergrid.productsapi.throttling;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits how many requests are processed at once, adapting the limit to observed latency.
+ *
+ * <p>The limit grows by one for every limit's worth of requests completing within the latency
+ * target, and shrinks by {@link #BACKOFF_RATIO} when one is slower or reports overload
+ * (additive increase, multiplicative decrease). Once the database slows down, requests are
+ * therefore turned away up front instead of queueing for a connection.
+ *
+ * <p>Like TCP congestion control, it backs off at most once per round trip: requests that
+ * started before the last back-off were admitted under the old limit, so their latency says
+ * nothing about the new one, and a burst of them is a single signal rather than many.
+ */
+public class AdaptiveConcurrencyLimit {
+  static final double BACKOFF_RATIO = 0.9;
+
+  private final int minLimit;
+  private final int maxLimit;
+  private final long latencyTargetNanos;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicLong lastBackOffNanos = new AtomicLong(System.nanoTime());
+  // The limit as double bits, so it can be updated with compare-and-set.
+  private final AtomicLong limit;
+
+  public AdaptiveConcurrencyLimit(
+      int initialLimit,
+      int minLimit,
+      int maxLimit,
+      Duration latencyTarget) {
+    if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+      throw new IllegalArgumentException("Limits must satisfy 1 <= min <= initial <= max");
+    }
+
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.latencyTargetNanos = latencyTarget.toNanos();
+    this.limit = new AtomicLong(Double.doubleToLongBits(initialLimit));
+  }
+
+  /**
+   * Returns whether the request may proceed. If so, {@link #release} must be called once it
+   * completes.
+   */
+  public boolean tryAcquire() {
+    while (true) {
+      int current = inFlight.get();
+      if (current >= getLimit()) {
+        return false;
+      }
+      if (inFlight.compareAndSet(current, current + 1)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Releases a request and adjusts the limit to how it went.
+   *
+   * @param startNanos {@link System#nanoTime()} when the request was admitted
+   * @param endNanos {@link System#nanoTime()} when it completed
+   * @param overloaded whether the request failed because a downstream resource was exhausted
+   */
+  public void release(long startNanos, long endNanos, boolean overloaded) {
+    inFlight.decrementAndGet();
+
+    boolean backOff = overloaded || endNanos - startNanos > latencyTargetNanos;
+    if (backOff) {
+      long lastBackOff = lastBackOffNanos.get();
+      // Already backed off for this round trip, or another request is doing so right now.
+      if (startNanos - lastBackOff < 0 || !lastBackOffNanos.compareAndSet(lastBackOff, endNanos)) {
+        return;
+      }
+    }
+
+    while (true) {
+      long currentBits = limit.get();
+      double current = Double.longBitsToDouble(currentBits);
+      double next = backOff
+          ? Math.max(minLimit, current * BACKOFF_RATIO)
+          : Math.min(maxLimit, current + 1 / current);
+      if (next == current || limit.compareAndSet(currentBits, Double.doubleToLongBits(next))) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Releases a request without adjusting the limit, e.g. one continuing asynchronously.
+   */
+  public void release() {
+    inFlight.decrementAndGet();
+  }
+
+  public int getLimit() {
+    return (int) Double.longBitsToDouble(limit.get());
+  }
+
+  public int getInFlight() {
+    return inFlight.get();
+  }
+}
@@ -0,0 +1,98 @@
+package com.cybergrid.productsapi.throttling;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Answers 503 Service Unavailable with {@code Retry-After} to requests over the
+ * {@link AdaptiveConcurrencyLimit}, before they queue up for a database connection.
+ *
+ * <p>Requests failing with 503 themselves, e.g. because no connection freed up in time, count
+ * as overload and lower the limit. Asynchronous requests, such as event streams and exports,
+ * count against the limit until they complete.
+ */
+public class LoadSheddingFilter extends OncePerRequestFilter {
+  private static final String RETRY_AFTER_SECONDS = "1";
+
+  private final AdaptiveConcurrencyLimit concurrencyLimit;
+  private final Counter rejected;
+
+  public LoadSheddingFilter(AdaptiveConcurrencyLimit concurrencyLimit, MeterRegistry meterRegistry) {
+    this.concurrencyLimit = concurrencyLimit;
+    this.rejected = Counter.builder("http.server.requests.rejected")
+        .description("Requests turned away before reaching a controller")
+        .tag("reason", "overloaded")
+        .register(meterRegistry);
+    Gauge.builder("http.server.requests.concurrency.limit", concurrencyLimit,
+            AdaptiveConcurrencyLimit::getLimit)
+        .description("Requests allowed to be processed at once")
+        .register(meterRegistry);
+    Gauge.builder("http.server.requests.concurrency.in.flight", concurrencyLimit,
+            AdaptiveConcurrencyLimit::getInFlight)
+        .description("Requests currently being processed")
+        .register(meterRegistry);
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request,
+      HttpServletResponse response,
+      FilterChain filterChain) throws ServletException, IOException {
+
+    if (!concurrencyLimit.tryAcquire()) {
+      rejected.increment();
+      response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+      response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value());
+      return;
+    }
+
+    long start = System.nanoTime();
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      // Streams go on after the filter returns and hold their slot until they complete. How
+      // long they stay open says nothing about load, so they leave the limit alone.
+      if (request.isAsyncStarted()) {
+        request.getAsyncContext().addListener(new ReleaseOnComplete());
+      } else {
+        concurrencyLimit.release(
+            start,
+            System.nanoTime(),
+            response.getStatus() == HttpStatus.SERVICE_UNAVAILABLE.value());
+      }
+    }
+  }
+
+  // Timeouts and errors are followed by onComplete as well, so it's the only place to release.
+  private class ReleaseOnComplete implements AsyncListener {
+
+    @Override
+    public void onComplete(AsyncEvent event) {
+      concurrencyLimit.release();
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) {
+    }
+
+    @Override
+    public void onError(AsyncEvent event) {
+    }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) {
+      event.getAsyncContext().addListener(this);
+    }
+  }
+}
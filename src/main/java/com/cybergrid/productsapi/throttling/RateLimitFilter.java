@@ -0,0 +1,112 @@
+package com.cybergrid.productsapi.throttling;
+
+import com.cybergrid.productsapi.dto.ProductBatchRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.security.Principal;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Rate limits each client with a token bucket, answering 429 Too Many Requests with
+ * {@code Retry-After} once it's empty.
+ *
+ * <p>Requests take tokens by route, so listings and lookups of many products cost more than a
+ * product by id. Batches are charged per operation, estimated from their size, since the body
+ * hasn't been read yet. Clients are identified by their authenticated principal, or otherwise by
+ * their address. Behind a proxy, that's the address the proxy forwarded, as resolved by
+ * {@code server.forward-headers-strategy} from trusted proxies only. Nothing clients choose
+ * themselves picks their bucket, so they can't dodge their limit or drain someone else's.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+  // Roughly the size of a batch operation in JSON. Bodies of unknown size are charged as the
+  // largest batch.
+  static final int BATCH_OPERATION_BYTES = 100;
+
+  private static final Pattern PRODUCT_BY_ID =
+      Pattern.compile("/api/v1/products/[0-9a-fA-F]{8}(-[0-9a-fA-F]{4}){3}-[0-9a-fA-F]{12}");
+
+  private final TokenBuckets tokenBuckets;
+  private final int listCost;
+  private final int byIdCost;
+  private final int writeCost;
+  private final int batchOperationCost;
+  private final Counter rejected;
+
+  public RateLimitFilter(
+      TokenBuckets tokenBuckets,
+      int listCost,
+      int byIdCost,
+      int writeCost,
+      int batchOperationCost,
+      MeterRegistry meterRegistry) {
+    this.tokenBuckets = tokenBuckets;
+    this.listCost = listCost;
+    this.byIdCost = byIdCost;
+    this.writeCost = writeCost;
+    this.batchOperationCost = batchOperationCost;
+    this.rejected = Counter.builder("http.server.requests.rejected")
+        .description("Requests turned away before reaching a controller")
+        .tag("reason", "rate_limited")
+        .register(meterRegistry);
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request,
+      HttpServletResponse response,
+      FilterChain filterChain) throws ServletException, IOException {
+
+    long waitNanos = tokenBuckets.tryAcquire(clientId(request), cost(request));
+    if (waitNanos > 0) {
+      rejected.increment();
+      long retryAfterSeconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1)
+          / TimeUnit.SECONDS.toNanos(1));
+      response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+      response.sendError(HttpStatus.TOO_MANY_REQUESTS.value());
+      return;
+    }
+
+    filterChain.doFilter(request, response);
+  }
+
+  int cost(HttpServletRequest request) {
+    String method = request.getMethod();
+    String path = request.getRequestURI().substring(request.getContextPath().length());
+
+    if (method.equals("GET") || method.equals("HEAD")) {
+      return PRODUCT_BY_ID.matcher(path).matches() ? byIdCost : listCost;
+    }
+    // A lookup reads many products, like a listing.
+    if (path.endsWith(":lookup")) {
+      return listCost;
+    }
+    if (path.endsWith(":batch")) {
+      long length = request.getContentLengthLong();
+      long operations = length < 0
+          ? ProductBatchRequest.MAX_OPERATIONS
+          : Math.clamp(
+              (length + BATCH_OPERATION_BYTES - 1) / BATCH_OPERATION_BYTES,
+              1,
+              ProductBatchRequest.MAX_OPERATIONS);
+      return Math.max(writeCost, (int) operations * batchOperationCost);
+    }
+    return writeCost;
+  }
+
+  // Prefixed, so a principal can't be named like an address.
+  private static String clientId(HttpServletRequest request) {
+    Principal principal = request.getUserPrincipal();
+    return principal != null
+        ? "principal:" + principal.getName()
+        : "address:" + request.getRemoteAddr();
+  }
+}
@@ -0,0 +1,68 @@
+package com.cybergrid.productsapi.throttling;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Puts rate limiting and load shedding in front of the API, configured under
+ * {@code app.rate-limit.*} and {@code app.load-shedding.*}.
+ *
+ * <p>Rate limiting comes first, so a client over its rate doesn't take up a slot of the
+ * concurrency limit. Rejected requests are counted in {@code http.server.requests.rejected}
+ * by reason, next to their status in {@code http.server.requests}.
+ */
+@Configuration
+public class ThrottlingConfig {
+  private static final String API_PATHS = "/api/*";
+
+  @Bean
+  @ConditionalOnProperty(name = "app.rate-limit.enabled", havingValue = "true")
+  public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(
+      @Value("${app.rate-limit.tokens-per-second}") double tokensPerSecond,
+      @Value("${app.rate-limit.burst}") int burst,
+      @Value("${app.rate-limit.cost.list}") int listCost,
+      @Value("${app.rate-limit.cost.by-id}") int byIdCost,
+      @Value("${app.rate-limit.cost.write}") int writeCost,
+      @Value("${app.rate-limit.cost.batch-operation}") int batchOperationCost,
+      MeterRegistry meterRegistry) {
+    // Only batches may cost more than the burst, see TokenBuckets.
+    if (Math.max(listCost, Math.max(byIdCost, Math.max(writeCost, batchOperationCost))) > burst) {
+      throw new IllegalArgumentException("Route costs must not exceed the burst");
+    }
+
+    RateLimitFilter filter = new RateLimitFilter(
+        new TokenBuckets(tokensPerSecond, burst),
+        listCost,
+        byIdCost,
+        writeCost,
+        batchOperationCost,
+        meterRegistry);
+    FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(filter);
+    registration.addUrlPatterns(API_PATHS);
+    registration.setOrder(Ordered.LOWEST_PRECEDENCE - 1);
+    return registration;
+  }
+
+  @Bean
+  @ConditionalOnProperty(name = "app.load-shedding.enabled", havingValue = "true")
+  public FilterRegistrationBean<LoadSheddingFilter> loadSheddingFilter(
+      @Value("${app.load-shedding.initial-limit}") int initialLimit,
+      @Value("${app.load-shedding.min-limit}") int minLimit,
+      @Value("${app.load-shedding.max-limit}") int maxLimit,
+      @Value("${app.load-shedding.latency-target}") Duration latencyTarget,
+      MeterRegistry meterRegistry) {
+    LoadSheddingFilter filter = new LoadSheddingFilter(
+        new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit, latencyTarget),
+        meterRegistry);
+    FilterRegistrationBean<LoadSheddingFilter> registration = new FilterRegistrationBean<>(filter);
+    registration.addUrlPatterns(API_PATHS);
+    registration.setOrder(Ordered.LOWEST_PRECEDENCE);
+    return registration;
+  }
+}
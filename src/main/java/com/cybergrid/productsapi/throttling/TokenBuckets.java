@@ -0,0 +1,104 @@
+package com.cybergrid.productsapi.throttling;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets per client, refilled at {@code tokensPerSecond} up to {@code burst} tokens.
+ *
+ * <p>Each bucket is a single timestamp, the time at which it would be full again (the generic
+ * cell rate algorithm). Taking tokens pushes that time further out with a compare-and-set, so
+ * there are no locks and no refill timers. Buckets left alone long enough to be full again are
+ * dropped, since a new bucket is full too.
+ *
+ * <p>A cost larger than the burst is taken once the bucket is full, and leaves it in debt until
+ * it has refilled, so large requests are charged in full rather than never let through.
+ */
+public class TokenBuckets {
+  private static final int MAX_CLIENTS = 100_000;
+
+  private final long nanosPerToken;
+  private final long burstNanos;
+  private final Cache<String, AtomicLong> fullAt;
+
+  public TokenBuckets(double tokensPerSecond, int burst) {
+    if (tokensPerSecond <= 0 || burst < 1) {
+      throw new IllegalArgumentException("Rate and burst must be positive");
+    }
+
+    this.nanosPerToken = (long) (Duration.ofSeconds(1).toNanos() / tokensPerSecond);
+    this.burstNanos = nanosPerToken * burst;
+    this.fullAt = Caffeine.newBuilder()
+        .maximumSize(MAX_CLIENTS)
+        .expireAfter(new UntilFull(burstNanos))
+        .build();
+  }
+
+  /**
+   * Takes {@code cost} tokens from the client's bucket.
+   *
+   * @return {@code 0} if the tokens were taken, otherwise how many nanoseconds until the bucket
+   *     has refilled enough for them
+   */
+  public long tryAcquire(String client, int cost) {
+    AtomicLong bucket = fullAt.get(client, key -> new AtomicLong(System.nanoTime()));
+    long increment = cost * nanosPerToken;
+
+    while (true) {
+      long now = System.nanoTime();
+      long current = bucket.get();
+      long next = (current - now > 0 ? current : now) + increment;
+
+      long wait = next - now - Math.max(burstNanos, increment);
+      if (wait > 0) {
+        return wait;
+      }
+      if (bucket.compareAndSet(current, next)) {
+        if (increment > burstNanos) {
+          // Updated, so the bucket is kept until it's out of debt.
+          fullAt.put(client, bucket);
+        }
+        return 0;
+      }
+    }
+  }
+
+  // Buckets are dropped once they'd be full again, or after burstNanos if they already are.
+  private static final class UntilFull implements Expiry<String, AtomicLong> {
+    private final long burstNanos;
+
+    UntilFull(long burstNanos) {
+      this.burstNanos = burstNanos;
+    }
+
+    @Override
+    public long expireAfterCreate(String client, AtomicLong bucket, long currentTime) {
+      return burstNanos;
+    }
+
+    @Override
+    public long expireAfterUpdate(
+        String client,
+        AtomicLong bucket,
+        long currentTime,
+        long currentDuration) {
+      return untilFull(bucket);
+    }
+
+    @Override
+    public long expireAfterRead(
+        String client,
+        AtomicLong bucket,
+        long currentTime,
+        long currentDuration) {
+      return untilFull(bucket);
+    }
+
+    private long untilFull(AtomicLong bucket) {
+      return Math.max(burstNanos, bucket.get() - System.nanoTime());
+    }
+  }
+}
@@ -0,0 +1,10 @@
+-- Matches the schema Hibernate used to generate with ddl-auto=update.
+create table if not exists products (
+    id uuid not null,
+    name varchar(255) not null,
+    description varchar(255),
+    price numeric(15, 2) not null,
+    version bigint default 0 not null,
+    constraint products_pkey primary key (id),
+    constraint products_price_check check (price >= 0)
+);
@@ -0,0 +1,12 @@
+-- Indexes backing the filters and sort orders of GET /api/v1/products.
+-- The id is appended to sort indexes since it's the keyset pagination tiebreaker.
+
+-- Price range filters and ordering by price.
+create index products_price_id_idx on products (price, id);
+
+-- Ordering by name.
+create index products_name_id_idx on products (name, id);
+
+-- Case-insensitive name prefix filters, i.e. lower(name) like 'prefix%'.
+-- text_pattern_ops lets the prefix match use the index regardless of the database collation.
+create index products_lower_name_idx on products (lower(name) text_pattern_ops);
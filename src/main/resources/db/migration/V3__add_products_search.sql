@@ -0,0 +1,13 @@
+-- Full-text search over name and description for GET /api/v1/products/search.
+-- Name matches are weighted above description matches when ranking.
+alter table products add column search_vector tsvector generated always as (
+    setweight(to_tsvector('english', coalesce(name, '')), 'A') ||
+    setweight(to_tsvector('english', coalesce(description, '')), 'B')
+) stored;
+
+create index products_search_vector_idx on products using gin (search_vector);
+
+-- Trigram index for the fuzzy name fallback when full-text search finds nothing (e.g. typos).
+create extension if not exists pg_trgm;
+
+create index products_lower_name_trgm_idx on products using gin (lower(name) gin_trgm_ops);
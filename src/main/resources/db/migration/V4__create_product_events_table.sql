@@ -0,0 +1,15 @@
+-- Outbox of product changes, appended in the same transaction as the change itself and served
+-- as the change feed by GET /api/v1/products/events.
+-- Created and updated events carry the product as it was committed, deleted events only its id.
+create table product_events (
+    sequence bigint generated always as identity,
+    product_id uuid not null,
+    type varchar(16) not null,
+    version bigint,
+    name varchar(255),
+    description varchar(255),
+    price numeric(15, 2),
+    occurred_at timestamp with time zone default now() not null,
+    constraint product_events_pkey primary key (sequence),
+    constraint product_events_type_check check (type in ('CREATED', 'UPDATED', 'DELETED'))
+);
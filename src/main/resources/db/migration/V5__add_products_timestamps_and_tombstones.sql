@@ -0,0 +1,18 @@
+-- Audit timestamps and tombstones backing GET /api/v1/products/changes.
+-- Existing products get the migration time, so the first sync after it returns all of them.
+alter table products
+    add column created_at timestamp with time zone default now() not null,
+    add column updated_at timestamp with time zone default now() not null;
+
+-- Keyset order of the changes feed.
+create index products_updated_at_id_idx on products (updated_at, id);
+
+-- One row per deleted product, so syncing clients find out about deletions.
+create table product_tombstones (
+    product_id uuid not null,
+    deleted_at timestamp with time zone not null,
+    constraint product_tombstones_pkey primary key (product_id)
+);
+
+create index product_tombstones_deleted_at_product_id_idx
+    on product_tombstones (deleted_at, product_id);
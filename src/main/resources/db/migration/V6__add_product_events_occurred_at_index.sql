@@ -0,0 +1,2 @@
+-- Finds the events past their retention period without scanning the whole outbox.
+create index product_events_occurred_at_idx on product_events (occurred_at);
@@ -0,0 +1,3 @@
+-- Stamp events when they're appended rather than when their transaction started, so occurred_at
+-- follows sequence order and readers can hold back events appended within the settle window.
+alter table product_events alter column occurred_at set default clock_timestamp();
@@ -10,8 +10,10 @@ import java.time.format.DateTimeFormatter;
 import java.util.Map;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.server.ResponseStatusException;
 
 class ApiErrorHandlerUnitTest {
@@ -41,4 +43,47 @@ class ApiErrorHandlerUnitTest {
     assertThat(OffsetDateTime.parse((String) timestamp, DateTimeFormatter.ISO_OFFSET_DATE_TIME))
         .isNotNull();
   }
+
+  @Test
+  @DisplayName("handle should return 503 with Retry-After if no database connection is free")
+  void handleShouldReturnServiceUnavailableIfNoDatabaseConnectionIsFree() {
+    ApiErrorHandler handler = new ApiErrorHandler();
+
+    HttpServletRequest request = mock(HttpServletRequest.class);
+    when(request.getRequestURI()).thenReturn("/api/products");
+
+    CannotCreateTransactionException ex = new CannotCreateTransactionException(
+        "Could not open JPA EntityManager for transaction"
+    );
+
+    ResponseEntity<Map<String, Object>> response = handler.handle(ex, request);
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+    assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+    Map<String, Object> body = response.getBody();
+    assertThat(body).isNotNull();
+    assertThat(body.get("status")).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE.value());
+    assertThat(body.get("error")).isEqualTo("Database is busy");
+    assertThat(body.get("path")).isEqualTo("/api/products");
+  }
+
+  @Test
+  @DisplayName("handle should add Retry-After to 503 ResponseStatusException")
+  void handleShouldAddRetryAfterToServiceUnavailable() {
+    ApiErrorHandler handler = new ApiErrorHandler();
+
+    HttpServletRequest request = mock(HttpServletRequest.class);
+    when(request.getRequestURI()).thenReturn("/api/products/123");
+
+    ResponseStatusException ex = new ResponseStatusException(
+        HttpStatus.SERVICE_UNAVAILABLE,
+        "Lookup timed out"
+    );
+
+    ResponseEntity<Map<String, Object>> response = handler.handle(ex, request);
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+    assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+    assertThat(response.getBody()).containsEntry("error", "Lookup timed out");
+  }
 }
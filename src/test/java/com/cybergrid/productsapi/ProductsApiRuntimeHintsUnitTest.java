@@ -0,0 +1,36 @@
+package com.cybergrid.productsapi;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.cybergrid.productsapi.dto.ProductEventResponse;
+import com.cybergrid.productsapi.dto.ProductResponse;
+import com.cybergrid.productsapi.pricing.PriceJsonSerializer;
+import com.cybergrid.productsapi.pricing.PriceValidator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+class ProductsApiRuntimeHintsUnitTest {
+
+  @Test
+  @DisplayName("registerHints should register responses serialized outside controllers")
+  void registerHintsShouldRegisterResponses() throws Exception {
+    RuntimeHints hints = new RuntimeHints();
+    new ProductsApiRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+    assertThat(RuntimeHintsPredicates.reflection()
+        .onMethod(ProductResponse.class.getMethod("getPrice")))
+        .accepts(hints);
+    assertThat(RuntimeHintsPredicates.reflection()
+        .onMethod(ProductEventResponse.class.getMethod("getSequence")))
+        .accepts(hints);
+    // Registered through Price's @JsonSerialize.
+    assertThat(RuntimeHintsPredicates.reflection()
+        .onConstructor(PriceJsonSerializer.class.getConstructor()))
+        .accepts(hints);
+    assertThat(RuntimeHintsPredicates.reflection()
+        .onConstructor(PriceValidator.class.getConstructor()))
+        .accepts(hints);
+  }
+}
@@ -0,0 +1,108 @@
+package com.cybergrid.productsapi.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+class SingleFlightUnitTest {
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  @Test
+  @DisplayName("execute should share one load between concurrent callers of the same key")
+  void executeShouldShareLoadBetweenConcurrentCallers() throws Exception {
+    SingleFlight<String, String> singleFlight =
+        new SingleFlight<>("test", Duration.ofSeconds(5), meterRegistry);
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger loads = new AtomicInteger();
+
+    CompletableFuture<String> first = CompletableFuture.supplyAsync(() ->
+        singleFlight.execute("key", () -> {
+          loads.incrementAndGet();
+          loading.countDown();
+          await(release);
+          return "value";
+        }));
+    loading.await(5, TimeUnit.SECONDS);
+
+    CompletableFuture<String> second = CompletableFuture.supplyAsync(() ->
+        singleFlight.execute("key", () -> {
+          loads.incrementAndGet();
+          return "other";
+        }));
+    // Let the second caller start waiting before the load completes.
+    while (count("coalesced") == 0) {
+      Thread.onSpinWait();
+    }
+    release.countDown();
+
+    assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+    assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+    assertThat(loads).hasValue(1);
+    assertThat(count("loaded")).isEqualTo(1);
+    assertThat(count("coalesced")).isEqualTo(1);
+
+    // Nothing is in flight any more, so the next call loads again.
+    assertThat(singleFlight.execute("key", () -> "fresh")).isEqualTo("fresh");
+  }
+
+  @Test
+  @DisplayName("execute should give up with 503 once the wait exceeds the limit")
+  void executeShouldGiveUpOnceWaitExceedsLimit() throws Exception {
+    SingleFlight<String, String> singleFlight =
+        new SingleFlight<>("test", Duration.ofMillis(50), meterRegistry);
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+
+    CompletableFuture<String> first = CompletableFuture.supplyAsync(() ->
+        singleFlight.execute("key", () -> {
+          loading.countDown();
+          await(release);
+          return "value";
+        }));
+    loading.await(5, TimeUnit.SECONDS);
+
+    assertThatThrownBy(() -> singleFlight.execute("key", () -> "other"))
+        .isInstanceOfSatisfying(ResponseStatusException.class, ex ->
+            assertThat(ex.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+    assertThat(count("timeout")).isEqualTo(1);
+
+    release.countDown();
+    assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+  }
+
+  @Test
+  @DisplayName("execute should pass the load's exception on to the caller")
+  void executeShouldPassExceptionOn() {
+    SingleFlight<String, String> singleFlight =
+        new SingleFlight<>("test", Duration.ofSeconds(1), meterRegistry);
+
+    assertThatThrownBy(() -> singleFlight.execute("key", () -> {
+      throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found");
+    }))
+        .isInstanceOf(ResponseStatusException.class)
+        .hasMessageContaining("Product not found");
+  }
+
+  private double count(String result) {
+    return meterRegistry.get("singleflight.calls").tag("result", result).counter().count();
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
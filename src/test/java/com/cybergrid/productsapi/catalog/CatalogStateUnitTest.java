@@ -0,0 +1,186 @@
+package com.cybergrid.productsapi.catalog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.cybergrid.productsapi.dto.ProductResponse;
+import com.cybergrid.productsapi.pricing.Price;
+import com.cybergrid.productsapi.repositories.ProductQuery;
+import com.cybergrid.productsapi.repositories.ProductSort;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CatalogStateUnitTest {
+  // UUID.compareTo would sort the last id first, Postgres compares uuids as unsigned bytes.
+  private final ProductResponse apple =
+      product("00000000-0000-0000-0000-000000000001", "Apple", "3.50");
+  private final ProductResponse banana =
+      product("00000000-0000-0000-0000-000000000002", "Banana", "1.25");
+  private final ProductResponse cherry =
+      product("00000000-0000-0000-0000-000000000003", "cherry", "3.50");
+  private final ProductResponse date =
+      product("f0000000-0000-0000-0000-000000000000", "Date", "9.99");
+
+  @Test
+  @DisplayName("query should order by id as unsigned bytes and continue after the keyset position")
+  void queryShouldOrderByIdAndContinueAfterKeyset() {
+    CatalogState state = state(date, cherry, banana, apple);
+
+    assertThat(ids(state.query(query(ProductSort.ID, false, 3))))
+        .containsExactly(apple.getId(), banana.getId(), cherry.getId());
+
+    ProductQuery next = query(ProductSort.ID, false, 3);
+    next.setAfter(cherry.getId(), null);
+    assertThat(ids(state.query(next))).containsExactly(date.getId());
+
+    ProductQuery descending = query(ProductSort.ID, true, 10);
+    descending.setAfter(cherry.getId(), null);
+    assertThat(ids(state.query(descending))).containsExactly(banana.getId(), apple.getId());
+  }
+
+  @Test
+  @DisplayName("query should order by price with the id as tiebreaker")
+  void queryShouldOrderByPriceAndId() {
+    CatalogState state = state(date, cherry, banana, apple);
+
+    assertThat(ids(state.query(query(ProductSort.PRICE, false, 10))))
+        .containsExactly(banana.getId(), apple.getId(), cherry.getId(), date.getId());
+    assertThat(ids(state.query(query(ProductSort.PRICE, true, 10))))
+        .containsExactly(date.getId(), cherry.getId(), apple.getId(), banana.getId());
+
+    ProductQuery next = query(ProductSort.PRICE, false, 10);
+    next.setAfter(apple.getId(), "3.50");
+    assertThat(ids(state.query(next))).containsExactly(cherry.getId(), date.getId());
+  }
+
+  @Test
+  @DisplayName("query should filter by case-insensitive name prefix and price range")
+  void queryShouldFilterByNamePrefixAndPriceRange() {
+    CatalogState state = state(date, cherry, banana, apple);
+
+    ProductQuery byName = new ProductQuery("CH", null, null, ProductSort.ID, false, 10);
+    assertThat(ids(state.query(byName))).containsExactly(cherry.getId());
+
+    // Postgres lowercases 'İ' to 'i', but leaves the dotless 'ı' as it is.
+    ProductResponse istanbul = product("00000000-0000-0000-0000-000000000006", "İstanbul", "1.00");
+    ProductResponse izmir = product("00000000-0000-0000-0000-000000000007", "ızmir", "1.00");
+    CatalogState turkish = state(istanbul, izmir);
+    ProductQuery byLowerCase = new ProductQuery("is", null, null, ProductSort.ID, false, 10);
+    assertThat(ids(turkish.query(byLowerCase))).containsExactly(istanbul.getId());
+    ProductQuery byI = new ProductQuery("I", null, null, ProductSort.ID, false, 10);
+    assertThat(ids(turkish.query(byI))).containsExactly(istanbul.getId());
+
+    ProductQuery byPrice = new ProductQuery(
+        null, new BigDecimal("1.26"), new BigDecimal("3.5"), ProductSort.PRICE, true, 10);
+    assertThat(ids(state.query(byPrice))).containsExactly(cherry.getId(), apple.getId());
+  }
+
+  @Test
+  @DisplayName("apply should replace changed products and drop deleted ones")
+  void applyShouldReplaceChangedAndDropDeletedProducts() {
+    CatalogState state = state(date, cherry, banana, apple);
+    ProductResponse cheaperDate = product(date.getId().toString(), "Date", "0.50");
+    ProductResponse elderberry =
+        product("00000000-0000-0000-0000-000000000004", "Elderberry", "2.00");
+
+    CatalogState applied = state.apply(
+        7, List.of(date.getId(), banana.getId(), elderberry.getId()),
+        List.of(cheaperDate, elderberry));
+
+    assertThat(applied.sequence).isEqualTo(7);
+    assertThat(applied.size()).isEqualTo(4);
+    assertThat(applied.find(banana.getId())).isEmpty();
+    assertThat(applied.find(date.getId()).orElseThrow().getPrice())
+        .isEqualTo(Price.parse("0.50"));
+    assertThat(ids(applied.query(query(ProductSort.PRICE, false, 10)))).containsExactly(
+        date.getId(), elderberry.getId(), apple.getId(), cherry.getId());
+    assertThat(ids(applied.compact().query(query(ProductSort.PRICE, false, 10))))
+        .containsExactly(date.getId(), elderberry.getId(), apple.getId(), cherry.getId());
+    // The original state is left unchanged.
+    assertThat(state.find(banana.getId())).isPresent();
+  }
+
+  @Test
+  @DisplayName("supports should leave name ordering, inexact prices and non-ASCII prefixes to DB")
+  void supportsShouldRejectNameOrderingInexactPricesAndNonAsciiPrefixes() {
+    assertThat(CatalogState.supports(query(ProductSort.PRICE, false, 10))).isTrue();
+    assertThat(CatalogState.supports(query(ProductSort.NAME, false, 10))).isFalse();
+    assertThat(CatalogState.supports(
+        new ProductQuery(null, new BigDecimal("1.005"), null, ProductSort.ID, false, 10)))
+        .isFalse();
+    assertThat(CatalogState.supports(
+        new ProductQuery("straße", null, null, ProductSort.ID, false, 10)))
+        .isFalse();
+  }
+
+  @Test
+  @DisplayName("snapshot file should round trip a compacted state")
+  void snapshotFileShouldRoundTrip(@TempDir Path directory) throws IOException {
+    ProductResponse described = product("00000000-0000-0000-0000-000000000005", "Fig", "4.00");
+    described.setDescription("Ripe – ü");
+    CatalogState state = state(date, cherry, banana, apple)
+        .apply(3, Set.of(described.getId()), List.of(described))
+        .compact();
+    Path file = directory.resolve("catalog.bin");
+
+    CatalogSnapshotFile.write(file, state);
+    CatalogState read = CatalogSnapshotFile.read(file);
+
+    assertThat(read.sequence).isEqualTo(3);
+    assertThat(read.size()).isEqualTo(5);
+    ProductResponse readFig = read.find(described.getId()).orElseThrow();
+    assertThat(readFig.getDescription()).isEqualTo("Ripe – ü");
+    assertThat(readFig.getCreatedAt()).isEqualTo(described.getCreatedAt());
+    assertThat(read.find(apple.getId()).orElseThrow().getDescription()).isNull();
+    assertThat(ids(read.query(query(ProductSort.PRICE, false, 10))))
+        .isEqualTo(ids(state.query(query(ProductSort.PRICE, false, 10))));
+  }
+
+  @Test
+  @DisplayName("snapshot file should reject a truncated file")
+  void snapshotFileShouldRejectTruncatedFile(@TempDir Path directory) throws IOException {
+    Path file = directory.resolve("catalog.bin");
+    CatalogSnapshotFile.write(file, state(date, cherry, banana, apple));
+    byte[] bytes = Files.readAllBytes(file);
+    Files.write(file, Arrays.copyOf(bytes, bytes.length - 10));
+
+    assertThatThrownBy(() -> CatalogSnapshotFile.read(file)).isInstanceOf(IOException.class);
+  }
+
+  private static CatalogState state(ProductResponse... products) {
+    CatalogSnapshot.Builder builder = new CatalogSnapshot.Builder();
+    for (ProductResponse product : products) {
+      builder.add(product);
+    }
+    return new CatalogState(0, builder.build());
+  }
+
+  private static ProductQuery query(ProductSort sort, boolean descending, int limit) {
+    return new ProductQuery(null, null, null, sort, descending, limit);
+  }
+
+  private static List<UUID> ids(List<ProductResponse> products) {
+    return products.stream().map(ProductResponse::getId).toList();
+  }
+
+  private static ProductResponse product(String id, String name, String price) {
+    return new ProductResponse(
+        UUID.fromString(id),
+        name,
+        null,
+        Price.parse(price),
+        1,
+        Instant.parse("2025-01-01T10:15:30.123456Z"),
+        Instant.parse("2025-01-02T10:15:30.123456Z"));
+  }
+}
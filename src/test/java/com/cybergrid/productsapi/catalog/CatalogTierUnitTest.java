@@ -0,0 +1,64 @@
+package com.cybergrid.productsapi.catalog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.cybergrid.productsapi.repositories.ProductEventsRepository;
+import com.cybergrid.productsapi.repositories.ProductsRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+class CatalogTierUnitTest {
+  private final ProductsRepository productsRepository = mock(ProductsRepository.class);
+  private final ProductEventsRepository productEventsRepository =
+      mock(ProductEventsRepository.class);
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final CatalogTier catalogTier = new CatalogTier(
+      true,
+      "",
+      Duration.ofSeconds(1),
+      10_000,
+      Duration.ZERO,
+      productsRepository,
+      productEventsRepository,
+      mock(PlatformTransactionManager.class),
+      meterRegistry);
+
+  @Test
+  @DisplayName("writeCommitted should not track writes while the catalog isn't loaded")
+  void writeCommittedShouldNotTrackWritesWhileNotLoaded() {
+    catalogTier.writeCommitted(List.of(UUID.randomUUID(), UUID.randomUUID()));
+
+    assertThat(writtenHelper()).isZero();
+    assertThat(catalogTier.isServing(UUID.randomUUID())).isFalse();
+  }
+
+  @Test
+  @DisplayName("writeCommitted should not track writes once the catalog failed to load")
+  void writeCommittedShouldNotTrackWritesOnceLoadFailed() {
+    when(productEventsRepository.findSettledSequence(any(Duration.class)))
+        .thenThrow(new DataAccessResourceFailureException("Connection refused"));
+
+    catalogTier.start();
+    verify(productEventsRepository, timeout(5000)).findSettledSequence(any(Duration.class));
+    // Waits for the load to finish.
+    catalogTier.stop();
+
+    catalogTier.writeCommitted(List.of(UUID.randomUUID()));
+    assertThat(writtenHelper()).isZero();
+  }
+
+  private double writtenHelper() {
+    return meterRegistry.get("catalog.written.products").gauge().value();
+  }
+}
@@ -0,0 +1,73 @@
+package com.cybergrid.productsapi.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.cybergrid.productsapi.dto.ProductResponse;
+import com.cybergrid.productsapi.pricing.Price;
+import com.cybergrid.productsapi.repositories.ProductQuery;
+import com.cybergrid.productsapi.repositories.ProductSort;
+import java.util.UUID;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+class ProductCursorUnitTest {
+  private final ProductResponse product = new ProductResponse(
+      UUID.randomUUID(),
+      "Name: with separator",
+      "Description",
+      Price.parse("24.50"),
+      0,
+      null,
+      null);
+
+  @Test
+  @DisplayName("apply positions query after the product the cursor was created for")
+  void applyPositionsQueryAfterEncodedProduct() {
+    String cursor = ProductCursor.encode(query(ProductSort.NAME, false), product);
+
+    ProductQuery query = query(ProductSort.NAME, false);
+    ProductCursor.apply(cursor, query);
+
+    assertThat(query.getAfterId()).isEqualTo(product.getId());
+    assertThat(query.getAfterKey()).isEqualTo(product.getName());
+  }
+
+  @Test
+  @DisplayName("apply leaves key empty when sorting by id")
+  void applyLeavesKeyEmptyWhenSortingById() {
+    String cursor = ProductCursor.encode(query(ProductSort.ID, false), product);
+
+    ProductQuery query = query(ProductSort.ID, false);
+    ProductCursor.apply(cursor, query);
+
+    assertThat(query.getAfterId()).isEqualTo(product.getId());
+    assertThat(query.getAfterKey()).isNull();
+  }
+
+  @Test
+  @DisplayName("apply rejects cursors created for a different sort order")
+  void applyRejectsCursorsForDifferentSortOrder() {
+    String cursor = ProductCursor.encode(query(ProductSort.PRICE, false), product);
+
+    assertThatThrownBy(() -> ProductCursor.apply(cursor, query(ProductSort.PRICE, true)))
+        .isInstanceOf(ResponseStatusException.class)
+        .hasMessageContaining("different sort order");
+    assertThatThrownBy(() -> ProductCursor.apply(cursor, query(ProductSort.NAME, false)))
+        .isInstanceOf(ResponseStatusException.class)
+        .hasMessageContaining("different sort order");
+  }
+
+  @Test
+  @DisplayName("apply rejects malformed cursors")
+  void applyRejectsMalformedCursors() {
+    assertThatThrownBy(() -> ProductCursor.apply("not a cursor", query(ProductSort.ID, false)))
+        .isInstanceOf(ResponseStatusException.class)
+        .hasMessageContaining("Invalid cursor");
+  }
+
+  private static ProductQuery query(ProductSort sort, boolean descending) {
+    return new ProductQuery(null, null, null, sort, descending, 10);
+  }
+}
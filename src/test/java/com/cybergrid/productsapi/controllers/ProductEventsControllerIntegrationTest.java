@@ -0,0 +1,158 @@
+package com.cybergrid.productsapi.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+
+import com.cybergrid.productsapi.dto.ProductEventResponse;
+import com.cybergrid.productsapi.dto.ProductRequest;
+import com.cybergrid.productsapi.dto.ProductResponse;
+import com.cybergrid.productsapi.models.ProductEvent;
+import com.cybergrid.productsapi.pricing.Price;
+import com.cybergrid.productsapi.repositories.ProductEventsRepository;
+import com.cybergrid.productsapi.services.ProductEventsRetention;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+// No settle window, so events show up in the feed right away. Tests read the whole feed, which
+// would soon run out of rate limit tokens.
+@SpringBootTest(properties = {
+    "app.events.settle-window=0s",
+    "app.rate-limit.enabled=false"})
+@AutoConfigureMockMvc
+public class ProductEventsControllerIntegrationTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+  @Autowired
+  private ObjectMapper objectMapper;
+  @Autowired
+  private ProductEventsRetention productEventsRetention;
+  @Autowired
+  private ProductEventsRepository productEventsRepository;
+
+  @Test
+  @DisplayName("getEvents should return product changes after the given sequence number")
+  void getEventsShouldReturnChangesAfterSequence() throws Exception {
+    long after = latestSequenceHelper();
+
+    MockHttpServletResponse created = mockMvc
+        .perform(post("/api/v1/products")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(
+                new ProductRequest("Name", "Description", Price.parse("100.00")))))
+        .andReturn()
+        .getResponse();
+    UUID productId = objectMapper
+        .readValue(created.getContentAsString(), ProductResponse.class)
+        .getId();
+    mockMvc.perform(put("/api/v1/products/{id}", productId)
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(
+            new ProductRequest("Updated", "Description", Price.parse("50.00")))));
+    mockMvc.perform(delete("/api/v1/products/{id}", productId));
+
+    MockHttpServletResponse response = getEventsHelper(after, 100);
+    ProductEventResponse[] events =
+        objectMapper.readValue(response.getContentAsString(), ProductEventResponse[].class);
+
+    assertThat(events)
+        .filteredOn(event -> event.getProductId().equals(productId))
+        .extracting(
+            ProductEventResponse::getType,
+            ProductEventResponse::getName,
+            ProductEventResponse::getVersion)
+        .containsExactly(
+            tuple(ProductEvent.Type.CREATED, "Name", 0L),
+            tuple(ProductEvent.Type.UPDATED, "Updated", 1L),
+            tuple(ProductEvent.Type.DELETED, null, null));
+    assertThat(events)
+        .extracting(ProductEventResponse::getSequence)
+        .allSatisfy(sequence -> assertThat(sequence).isGreaterThan(after))
+        .isSorted();
+    assertThat(response.getHeader(HttpHeaders.LINK))
+        .contains("after=" + events[events.length - 1].getSequence());
+  }
+
+  @Test
+  @DisplayName("getEvents should return 400 if limit is out of range")
+  void getEventsShouldReturn400IfLimitIsOutOfRange() throws Exception {
+    assertThat(getEventsHelper(0, 0).getStatus()).isEqualTo(HttpStatus.BAD_REQUEST.value());
+  }
+
+  @Test
+  @DisplayName("findSettledAfter should hold back events appended within the settle window")
+  void findSettledAfterShouldHoldBackEventsWithinSettleWindow() throws Exception {
+    long after = latestSequenceHelper();
+
+    mockMvc.perform(post("/api/v1/products")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(
+            new ProductRequest("Name", "Description", Price.parse("100.00")))));
+
+    assertThat(productEventsRepository.findSettledAfter(after, Duration.ofMinutes(1), 100))
+        .isEmpty();
+    assertThat(productEventsRepository.findSettledAfter(after, Duration.ZERO, 100))
+        .extracting(ProductEvent::getType)
+        .containsExactly(ProductEvent.Type.CREATED);
+  }
+
+  @Test
+  @DisplayName("deleteEventsBefore should delete old events but keep the latest one")
+  void deleteEventsBeforeShouldKeepLatestEvent() throws Exception {
+    mockMvc.perform(post("/api/v1/products")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(
+            new ProductRequest("Name", "Description", Price.parse("100.00")))));
+    long latest = latestSequenceHelper();
+
+    productEventsRetention.deleteEventsBefore(Instant.now().plus(Duration.ofMinutes(1)));
+
+    ProductEventResponse[] events = objectMapper.readValue(
+        getEventsHelper(0, 1000).getContentAsString(),
+        ProductEventResponse[].class);
+    assertThat(events)
+        .extracting(ProductEventResponse::getSequence)
+        .containsExactly(latest);
+  }
+
+  // Reads the feed to its end, so later events are the ones the test caused.
+  private long latestSequenceHelper() throws Exception {
+    long after = 0;
+    while (true) {
+      ProductEventResponse[] events = objectMapper.readValue(
+          getEventsHelper(after, 1000).getContentAsString(),
+          ProductEventResponse[].class);
+      if (events.length == 0) {
+        return after;
+      }
+      after = events[events.length - 1].getSequence();
+    }
+  }
+
+  private MockHttpServletResponse getEventsHelper(long after, int limit) throws Exception {
+    return mockMvc
+        .perform(get("/api/v1/products/events")
+            .param("after", Long.toString(after))
+            .param("limit", Integer.toString(limit)))
+        .andDo(print())
+        .andReturn()
+        .getResponse();
+  }
+}
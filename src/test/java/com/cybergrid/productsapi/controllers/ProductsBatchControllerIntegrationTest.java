@@ -0,0 +1,177 @@
+package com.cybergrid.productsapi.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+
+import com.cybergrid.productsapi.dto.ProductBatchOperation;
+import com.cybergrid.productsapi.dto.ProductBatchRequest;
+import com.cybergrid.productsapi.dto.ProductBatchResult;
+import com.cybergrid.productsapi.dto.ProductLookupRequest;
+import com.cybergrid.productsapi.dto.ProductLookupResponse;
+import com.cybergrid.productsapi.dto.ProductRequest;
+import com.cybergrid.productsapi.dto.ProductResponse;
+import com.cybergrid.productsapi.pricing.Price;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class ProductsBatchControllerIntegrationTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  private final ProductRequest productRequest = new ProductRequest(
+      "Name",
+      "Description",
+      Price.parse("100.00"));
+
+  @Test
+  @DisplayName("batchProducts should apply operations and report a result for each")
+  void batchProductsShouldApplyOperations() throws Exception {
+    // Create two products in one batch.
+    ProductBatchResult[] created = batchHelper(new ProductBatchRequest(List.of(
+        new ProductBatchOperation(ProductBatchOperation.Type.CREATE, null, productRequest),
+        new ProductBatchOperation(ProductBatchOperation.Type.CREATE, null, productRequest))));
+    assertThat(created).hasSize(2);
+    assertThat(created).allSatisfy(result -> {
+      assertThat(result.getStatus()).isEqualTo(HttpStatus.CREATED.value());
+      assertThat(result.getId()).isNotNull();
+    });
+
+    UUID updatedId = created[0].getId();
+    UUID deletedId = created[1].getId();
+    ProductRequest updateRequest = new ProductRequest(
+        "Updated Name",
+        "Updated Description",
+        Price.parse("200.00"));
+
+    // Update one, delete the other and try to update one that doesn't exist.
+    ProductBatchResult[] results = batchHelper(new ProductBatchRequest(List.of(
+        new ProductBatchOperation(ProductBatchOperation.Type.UPDATE, updatedId, updateRequest),
+        new ProductBatchOperation(ProductBatchOperation.Type.DELETE, deletedId, null),
+        new ProductBatchOperation(
+            ProductBatchOperation.Type.UPDATE,
+            UUID.randomUUID(),
+            updateRequest))));
+    assertThat(results)
+        .extracting(ProductBatchResult::getStatus)
+        .containsExactly(
+            HttpStatus.OK.value(),
+            HttpStatus.OK.value(),
+            HttpStatus.NOT_FOUND.value());
+
+    MockHttpServletResponse updated = mockMvc
+        .perform(get("/api/v1/products/{id}", updatedId))
+        .andReturn()
+        .getResponse();
+    assertThat(updated.getContentAsString()).contains("Updated Name");
+
+    MockHttpServletResponse deleted = mockMvc
+        .perform(get("/api/v1/products/{id}", deletedId))
+        .andReturn()
+        .getResponse();
+    assertThat(deleted.getStatus()).isEqualTo(HttpStatus.NOT_FOUND.value());
+  }
+
+  @Test
+  @DisplayName("batchProducts should validate operations")
+  void batchProductsShouldValidateOperations() throws Exception {
+    // Updates need an id.
+    MockHttpServletResponse response = postBatchHelper(new ProductBatchRequest(List.of(
+        new ProductBatchOperation(ProductBatchOperation.Type.UPDATE, null, productRequest))));
+    assertThat(response.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST.value());
+
+    // Products inside operations are validated as well.
+    response = postBatchHelper(new ProductBatchRequest(List.of(
+        new ProductBatchOperation(
+            ProductBatchOperation.Type.CREATE,
+            null,
+            new ProductRequest("", null, Price.parse("-1.00"))))));
+    assertThat(response.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST.value());
+
+    // Empty batches are rejected.
+    response = postBatchHelper(new ProductBatchRequest(List.of()));
+    assertThat(response.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST.value());
+  }
+
+  @Test
+  @DisplayName("lookupProducts should return products in request order and report missing ids")
+  void lookupProductsShouldReturnProductsInOrderAndReportMissing() throws Exception {
+    ProductBatchResult[] created = batchHelper(new ProductBatchRequest(List.of(
+        new ProductBatchOperation(ProductBatchOperation.Type.CREATE, null, productRequest),
+        new ProductBatchOperation(ProductBatchOperation.Type.CREATE, null, productRequest))));
+    UUID first = created[0].getId();
+    UUID second = created[1].getId();
+    UUID unknown = UUID.randomUUID();
+
+    MockHttpServletResponse response =
+        postLookupHelper(new ProductLookupRequest(List.of(second, unknown, first, second)));
+    assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+
+    ProductLookupResponse lookup =
+        objectMapper.readValue(response.getContentAsString(), ProductLookupResponse.class);
+    assertThat(lookup.getProducts())
+        .extracting(ProductResponse::getId)
+        .containsExactly(second, first);
+    assertThat(lookup.getMissing()).containsExactly(unknown);
+  }
+
+  @Test
+  @DisplayName("lookupProducts should validate ids")
+  void lookupProductsShouldValidateIds() throws Exception {
+    MockHttpServletResponse response = postLookupHelper(new ProductLookupRequest(List.of()));
+    assertThat(response.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST.value());
+
+    List<UUID> tooMany = new ArrayList<>();
+    for (int i = 0; i <= ProductLookupRequest.MAX_IDS; i++) {
+      tooMany.add(UUID.randomUUID());
+    }
+    response = postLookupHelper(new ProductLookupRequest(tooMany));
+    assertThat(response.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST.value());
+  }
+
+  private ProductBatchResult[] batchHelper(ProductBatchRequest request) throws Exception {
+    MockHttpServletResponse response = postBatchHelper(request);
+    assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+
+    return objectMapper.readValue(response.getContentAsString(), ProductBatchResult[].class);
+  }
+
+  private MockHttpServletResponse postBatchHelper(ProductBatchRequest request) throws Exception {
+    return mockMvc
+        .perform(
+          post("/api/v1/products:batch")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(request)))
+        .andDo(print())
+        .andReturn()
+        .getResponse();
+  }
+
+  private MockHttpServletResponse postLookupHelper(ProductLookupRequest request) throws Exception {
+    return mockMvc
+        .perform(
+          post("/api/v1/products:lookup")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(request)))
+        .andDo(print())
+        .andReturn()
+        .getResponse();
+  }
+}
@@ -1,29 +1,56 @@
 package com.cybergrid.productsapi.controllers;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 
+import com.cybergrid.productsapi.cache.CacheConfig;
+import com.cybergrid.productsapi.dto.ProductChangesResponse;
 import com.cybergrid.productsapi.dto.ProductRequest;
 import com.cybergrid.productsapi.dto.ProductResponse;
+import com.cybergrid.productsapi.pricing.Price;
+import com.cybergrid.productsapi.services.ProductsService;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import java.math.BigDecimal;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.zip.GZIPInputStream;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
-
-@SpringBootTest
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+// No settle window, so changes show up in the sync endpoint right away. The page cache is
+// enabled, so every listing test also checks that writes invalidate it. Tests page through the
+// whole catalog, which would soon run out of rate limit tokens.
+@SpringBootTest(properties = {
+    "app.sync.settle-window=0s",
+    "app.products.page-cache.enabled=true",
+    "app.rate-limit.enabled=false"})
 @AutoConfigureMockMvc
 public class ProductsControllerIntegrationTest {
 
@@ -31,11 +58,13 @@ public class ProductsControllerIntegrationTest {
   private MockMvc mockMvc;
   @Autowired
   private ObjectMapper objectMapper;
+  @Autowired
+  private CacheManager cacheManager;
 
   private final ProductRequest productRequest = new ProductRequest(
       "Name",
       "Description",
-      new BigDecimal("100.00"));
+      Price.parse("100.00"));
 
   @Test
   @DisplayName("createProduct should create a new product")
@@ -63,7 +92,7 @@ public class ProductsControllerIntegrationTest {
     ProductRequest invalidProductRequest = new ProductRequest(
         "",
         null,
-        new BigDecimal("-5.00"));
+        Price.parse("-5.00"));
 
     MockHttpServletResponse response = postProductHelper(invalidProductRequest);
     assertThat(response.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST.value());
@@ -75,7 +104,7 @@ public class ProductsControllerIntegrationTest {
     assertThat(response.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST.value());
 
     // Fix price so it's not negative.
-    invalidProductRequest.setPrice(new BigDecimal("0.00"));
+    invalidProductRequest.setPrice(Price.parse("0.00"));
 
     // All fields are now valid, so we should be able to create the product.
     response = postProductHelper(invalidProductRequest);
@@ -83,7 +112,7 @@ public class ProductsControllerIntegrationTest {
   }
 
   @Test
-  @DisplayName("getProducts should return all products")
+  @DisplayName("getProducts should return all products across pages")
   void getProductsShouldReturnAllProducts() throws Exception {
     // Create a few products so we can get them back.
     MockHttpServletResponse firstResponse = postProductHelper(productRequest);
@@ -97,16 +126,325 @@ public class ProductsControllerIntegrationTest {
         .readValue(secondResponse.getContentAsString(), ProductResponse.class)
         .getId();
 
+    // Follow the next links until we've seen the whole catalog.
+    Set<UUID> seenIds = new HashSet<>();
+    String next = "/api/v1/products?limit=" + ProductsService.MAX_PAGE_SIZE;
+    while (next != null) {
+      MockHttpServletResponse response = mockMvc
+          .perform(get(URI.create(next)))
+          .andReturn()
+          .getResponse();
+      assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+
+      ProductResponse[] page = objectMapper.readValue(
+          response.getContentAsString(),
+          ProductResponse[].class);
+      for (ProductResponse product : page) {
+        // Pages must never overlap.
+        assertThat(seenIds.add(product.getId())).isTrue();
+      }
+
+      next = nextLink(response);
+    }
+
     // Validate we get back at least the two products we created.
+    assertThat(seenIds).contains(productId1, productId2);
+  }
+
+  @Test
+  @DisplayName("getProducts should limit page size and link to the next page")
+  void getProductsShouldLimitPageSizeAndLinkToNextPage() throws Exception {
+    // Create enough products to fill a page.
+    postProductHelper(productRequest);
+    postProductHelper(productRequest);
+
+    MockHttpServletResponse response = mockMvc
+        .perform(get("/api/v1/products").param("limit", "1"))
+        .andDo(print())
+        .andReturn()
+        .getResponse();
+
+    assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+    ProductResponse[] page = objectMapper.readValue(
+        response.getContentAsString(),
+        ProductResponse[].class);
+    assertThat(page).hasSize(1);
+    assertThat(nextLink(response)).contains("limit=1").contains("after=");
+  }
+
+  @Test
+  @DisplayName("getProducts should filter by name prefix and price range and sort")
+  void getProductsShouldFilterAndSort() throws Exception {
+    // Unique prefix so other tests' products don't match.
+    String prefix = "Filter-" + UUID.randomUUID();
+    for (String price : List.of("30.00", "10.00", "20.00", "40.00")) {
+      postProductHelper(new ProductRequest(prefix + " " + price, null, Price.parse(price)));
+    }
+
     MockHttpServletResponse response = mockMvc
-        .perform(get("/api/v1/products"))
+        .perform(
+          get("/api/v1/products")
+            .param("name", prefix.toLowerCase())
+            .param("minPrice", "15")
+            .param("maxPrice", "35")
+            .param("sort", "-price"))
         .andDo(print())
         .andReturn()
         .getResponse();
+    assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+
+    ProductResponse[] page = objectMapper.readValue(
+        response.getContentAsString(),
+        ProductResponse[].class);
+    assertThat(page)
+        .extracting(ProductResponse::getPrice)
+        .containsExactly(Price.parse("30.00"), Price.parse("20.00"));
+  }
+
+  @Test
+  @DisplayName("getProducts should serve cached pages until a product is written")
+  void getProductsShouldServeCachedPagesUntilWrite() throws Exception {
+    String prefix = "Cached-" + UUID.randomUUID();
+    postProductHelper(new ProductRequest(prefix + " 1", null, Price.parse("10.00")));
+
+    MockHttpServletResponse first = getProductsByNameHelper(prefix, false);
+    MockHttpServletResponse second = getProductsByNameHelper(prefix, false);
+    assertThat(second.getContentAsByteArray()).isEqualTo(first.getContentAsByteArray());
+    assertThat(second.getHeader(HttpHeaders.ETAG)).isEqualTo(first.getHeader(HttpHeaders.ETAG));
+
+    postProductHelper(new ProductRequest(prefix + " 2", null, Price.parse("20.00")));
+
+    MockHttpServletResponse third = getProductsByNameHelper(prefix, false);
+    assertThat(objectMapper.readValue(third.getContentAsString(), ProductResponse[].class))
+        .extracting(ProductResponse::getName)
+        .containsExactlyInAnyOrder(prefix + " 1", prefix + " 2");
+    assertThat(third.getHeader(HttpHeaders.ETAG)).isNotEqualTo(first.getHeader(HttpHeaders.ETAG));
+  }
+
+  @Test
+  @DisplayName("getProducts should gzip large pages if client accepts it")
+  void getProductsShouldGzipLargePagesIfClientAcceptsIt() throws Exception {
+    String prefix = "Gzip-" + UUID.randomUUID();
+    for (int i = 0; i < 20; i++) {
+      postProductHelper(new ProductRequest(
+          prefix + " " + i,
+          "A description long enough for the page to be worth compressing",
+          Price.parse("10.00")));
+    }
+
+    MockHttpServletResponse plain = getProductsByNameHelper(prefix, false);
+    assertThat(plain.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+
+    MockHttpServletResponse refused = mockMvc
+        .perform(get("/api/v1/products")
+            .param("name", prefix)
+            .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, identity"))
+        .andReturn()
+        .getResponse();
+    assertThat(refused.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+    assertThat(refused.getContentAsByteArray()).isEqualTo(plain.getContentAsByteArray());
 
+    MockHttpServletResponse response = getProductsByNameHelper(prefix, true);
     assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
-    assertThat(response.getContentAsString()).contains(productId1.toString());
-    assertThat(response.getContentAsString()).contains(productId2.toString());
+    assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+    assertThat(response.getHeader(HttpHeaders.VARY)).contains(HttpHeaders.ACCEPT_ENCODING);
+
+    try (GZIPInputStream gzip = new GZIPInputStream(
+        new ByteArrayInputStream(response.getContentAsByteArray()))) {
+      assertThat(gzip.readAllBytes()).isEqualTo(plain.getContentAsByteArray());
+    }
+
+    // Each encoding has its own ETag, but revalidates against either.
+    String plainETag = plain.getHeader(HttpHeaders.ETAG);
+    String gzipETag = response.getHeader(HttpHeaders.ETAG);
+    assertThat(gzipETag).isEqualTo(ProductETags.withSuffix(plainETag, "gzip"));
+    for (String eTag : List.of(plainETag, gzipETag, "W/" + plainETag)) {
+      MockHttpServletResponse notModified = mockMvc
+          .perform(get("/api/v1/products")
+              .param("name", prefix)
+              .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+              .header(HttpHeaders.IF_NONE_MATCH, eTag))
+          .andReturn()
+          .getResponse();
+      assertThat(notModified.getStatus()).isEqualTo(HttpStatus.NOT_MODIFIED.value());
+      assertThat(notModified.getHeader(HttpHeaders.ETAG)).isEqualTo(eTag.replace("W/", ""));
+      assertThat(notModified.getContentLength()).isZero();
+    }
+  }
+
+  @Test
+  @DisplayName("getProducts should page through a sorted listing without gaps")
+  void getProductsShouldPageThroughSortedListing() throws Exception {
+    String prefix = "Paging-" + UUID.randomUUID();
+    for (String price : List.of("30.00", "10.00", "20.00", "20.00")) {
+      postProductHelper(new ProductRequest(prefix, null, Price.parse(price)));
+    }
+
+    // Follow next links one product at a time, including across equal prices.
+    List<Price> prices = new ArrayList<>();
+    String next = "/api/v1/products?limit=1&sort=price&name=" + prefix;
+    while (next != null) {
+      MockHttpServletResponse response = mockMvc
+          .perform(get(URI.create(next)))
+          .andReturn()
+          .getResponse();
+      assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+
+      for (ProductResponse product : objectMapper.readValue(
+          response.getContentAsString(),
+          ProductResponse[].class)) {
+        prices.add(product.getPrice());
+      }
+
+      next = nextLink(response);
+    }
+
+    assertThat(prices).containsExactly(
+        Price.parse("10.00"),
+        Price.parse("20.00"),
+        Price.parse("20.00"),
+        Price.parse("30.00"));
+  }
+
+  @Test
+  @DisplayName("getProducts should return 400 if cursor or limit is invalid")
+  void getProductsShouldReturn400IfCursorOrLimitIsInvalid() throws Exception {
+    MockHttpServletResponse response = mockMvc
+        .perform(get("/api/v1/products").param("after", "not-a-cursor"))
+        .andReturn()
+        .getResponse();
+    assertThat(response.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST.value());
+    assertThat(response.getContentAsString()).contains("Invalid cursor");
+
+    response = mockMvc
+        .perform(get("/api/v1/products").param("limit", "0"))
+        .andReturn()
+        .getResponse();
+    assertThat(response.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST.value());
+
+    response = mockMvc
+        .perform(get("/api/v1/products").param("sort", "description"))
+        .andReturn()
+        .getResponse();
+    assertThat(response.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST.value());
+    assertThat(response.getContentAsString()).contains("Unknown sort property");
+  }
+
+  @Test
+  @DisplayName("searchProducts should rank name matches above description matches")
+  void searchProductsShouldRankNameMatchesFirst() throws Exception {
+    // Random made-up word so other tests' products don't match.
+    String word = "zq" + UUID.randomUUID().toString().substring(0, 8).replace("-", "");
+    MockHttpServletResponse inDescription = postProductHelper(
+        new ProductRequest("Lamp", "Comes with a " + word, Price.parse("10.00")));
+    MockHttpServletResponse inName = postProductHelper(
+        new ProductRequest("Desk " + word, "Oak desk", Price.parse("10.00")));
+
+    ProductResponse[] results = searchHelper(word);
+    assertThat(results)
+        .extracting(ProductResponse::getId)
+        .containsExactly(
+            objectMapper.readValue(inName.getContentAsString(), ProductResponse.class).getId(),
+            objectMapper.readValue(inDescription.getContentAsString(), ProductResponse.class)
+                .getId());
+  }
+
+  @Test
+  @DisplayName("searchProducts should find similar names if there is no exact match")
+  void searchProductsShouldFindSimilarNames() throws Exception {
+    String name = "Xylophone" + UUID.randomUUID().toString().substring(0, 8);
+    MockHttpServletResponse postResponse = postProductHelper(
+        new ProductRequest(name, null, Price.parse("10.00")));
+    UUID productId = objectMapper
+        .readValue(postResponse.getContentAsString(), ProductResponse.class)
+        .getId();
+
+    // Drop the last character, so the full-text search has nothing to match.
+    ProductResponse[] results = searchHelper(name.substring(0, name.length() - 1));
+    assertThat(results).extracting(ProductResponse::getId).contains(productId);
+  }
+
+  @Test
+  @DisplayName("getProductChanges should return changes and deletions since the watermark")
+  void getProductChangesShouldReturnChangesSinceWatermark() throws Exception {
+    // Sync everything first, so the watermark is past other tests' products.
+    String watermark = null;
+    ProductChangesResponse changes;
+    do {
+      changes = productChangesHelper(watermark);
+      watermark = changes.getWatermark();
+    } while (changes.isMore());
+
+    UUID changedId = objectMapper.readValue(
+        postProductHelper(productRequest).getContentAsString(),
+        ProductResponse.class).getId();
+    UUID deletedId = objectMapper.readValue(
+        postProductHelper(productRequest).getContentAsString(),
+        ProductResponse.class).getId();
+    mockMvc.perform(delete("/api/v1/products/{id}", deletedId));
+
+    changes = productChangesHelper(watermark);
+    assertThat(changes.getChanged()).extracting(ProductResponse::getId).containsExactly(changedId);
+    assertThat(changes.getChanged().getFirst().getUpdatedAt()).isNotNull();
+    assertThat(changes.getDeleted()).containsExactly(deletedId);
+    assertThat(changes.isMore()).isFalse();
+
+    // Nothing changed since.
+    changes = productChangesHelper(changes.getWatermark());
+    assertThat(changes.getChanged()).isEmpty();
+    assertThat(changes.getDeleted()).isEmpty();
+  }
+
+  @Test
+  @DisplayName("getProductChanges should return 400 if watermark is invalid")
+  void getProductChangesShouldReturn400IfWatermarkIsInvalid() throws Exception {
+    MockHttpServletResponse response = mockMvc
+        .perform(get("/api/v1/products/changes").param("since", "not a watermark"))
+        .andReturn()
+        .getResponse();
+
+    assertThat(response.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST.value());
+  }
+
+  @Test
+  @DisplayName("exportProducts should stream all products as NDJSON")
+  void exportProductsShouldStreamAllProductsAsNdjson() throws Exception {
+    MockHttpServletResponse postResponse = postProductHelper(productRequest);
+    UUID productId = objectMapper
+        .readValue(postResponse.getContentAsString(), ProductResponse.class)
+        .getId();
+
+    MockHttpServletResponse response = exportProductsHelper(false);
+    assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+    assertThat(response.getContentType()).startsWith(MediaType.APPLICATION_NDJSON_VALUE);
+    assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+
+    // Every line must be a standalone product.
+    String body = response.getContentAsString();
+    assertThat(body).endsWith("\n");
+    for (String line : body.split("\n")) {
+      assertThat(objectMapper.readValue(line, ProductResponse.class).getId()).isNotNull();
+    }
+    assertThat(body).contains(productId.toString());
+  }
+
+  @Test
+  @DisplayName("exportProducts should gzip the stream if client accepts it")
+  void exportProductsShouldGzipStreamIfClientAcceptsIt() throws Exception {
+    MockHttpServletResponse postResponse = postProductHelper(productRequest);
+    UUID productId = objectMapper
+        .readValue(postResponse.getContentAsString(), ProductResponse.class)
+        .getId();
+
+    MockHttpServletResponse response = exportProductsHelper(true);
+    assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+    assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+
+    try (GZIPInputStream gzip = new GZIPInputStream(
+        new ByteArrayInputStream(response.getContentAsByteArray()))) {
+      String body = new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+      assertThat(body).contains(productId.toString());
+    }
   }
 
   @Test
@@ -122,6 +460,162 @@ public class ProductsControllerIntegrationTest {
     getProductAndValidate(productResponse.getId(), productRequest);
   }
 
+  @Test
+  @DisplayName("createProduct and getProductById should negotiate CBOR and Smile")
+  void createAndGetProductShouldNegotiateBinaryFormats() throws Exception {
+    ObjectMapper cborMapper = CBORMapper.builder().findAndAddModules().build();
+    ObjectMapper smileMapper = SmileMapper.builder().findAndAddModules().build();
+    MediaType cbor = MediaType.parseMediaType("application/cbor");
+    MediaType smile = MediaType.parseMediaType("application/x-jackson-smile");
+
+    MockHttpServletResponse postResponse = mockMvc
+        .perform(post("/api/v1/products")
+            .contentType(cbor)
+            .accept(cbor)
+            .content(cborMapper.writeValueAsBytes(productRequest)))
+        .andReturn()
+        .getResponse();
+    assertThat(postResponse.getStatus()).isEqualTo(HttpStatus.CREATED.value());
+    assertThat(postResponse.getContentType()).isEqualTo(cbor.toString());
+    ProductResponse created =
+        cborMapper.readValue(postResponse.getContentAsByteArray(), ProductResponse.class);
+
+    MockHttpServletResponse getResponse = mockMvc
+        .perform(get("/api/v1/products/{id}", created.getId()).accept(smile))
+        .andReturn()
+        .getResponse();
+    assertThat(getResponse.getContentType()).isEqualTo(smile.toString());
+    ProductResponse fetched =
+        smileMapper.readValue(getResponse.getContentAsByteArray(), ProductResponse.class);
+
+    assertThat(fetched.getId()).isEqualTo(created.getId());
+    assertThat(fetched.getName()).isEqualTo(productRequest.getName());
+    assertThat(fetched.getDescription()).isEqualTo(productRequest.getDescription());
+    assertThat(fetched.getPrice()).isEqualTo(productRequest.getPrice());
+    assertThat(fetched.getUpdatedAt()).isEqualTo(created.getUpdatedAt());
+  }
+
+  @Test
+  @DisplayName("getProducts should give each format its own ETag and vary by Accept")
+  void getProductsShouldTagEachFormat() throws Exception {
+    String prefix = "Formats-" + UUID.randomUUID();
+    postProductHelper(new ProductRequest(prefix + " 1", null, Price.parse("10.00")));
+
+    MockHttpServletResponse json = getProductsByNameHelper(prefix, false);
+    MockHttpServletResponse cbor = mockMvc
+        .perform(get("/api/v1/products").param("name", prefix).accept("application/cbor"))
+        .andReturn()
+        .getResponse();
+    MockHttpServletResponse smile = mockMvc
+        .perform(get("/api/v1/products")
+            .param("name", prefix)
+            .accept("application/json;q=0.5, application/x-jackson-smile"))
+        .andReturn()
+        .getResponse();
+
+    String eTag = json.getHeader(HttpHeaders.ETAG);
+    assertThat(cbor.getHeader(HttpHeaders.ETAG)).isEqualTo(ProductETags.withSuffix(eTag, "cbor"));
+    assertThat(smile.getHeader(HttpHeaders.ETAG))
+        .isEqualTo(ProductETags.withSuffix(eTag, "x-jackson-smile"));
+    assertThat(json.getHeader(HttpHeaders.VARY)).contains(HttpHeaders.ACCEPT);
+    assertThat(cbor.getHeader(HttpHeaders.VARY)).contains(HttpHeaders.ACCEPT);
+
+    MockHttpServletResponse notModified = mockMvc
+        .perform(get("/api/v1/products")
+            .param("name", prefix)
+            .accept("application/cbor")
+            .header(HttpHeaders.IF_NONE_MATCH, eTag))
+        .andReturn()
+        .getResponse();
+    assertThat(notModified.getStatus()).isEqualTo(HttpStatus.OK.value());
+  }
+
+  @Test
+  @DisplayName("getProductById should give each format its own ETag and vary by Accept")
+  void getProductByIdShouldTagEachFormat() throws Exception {
+    MockHttpServletResponse postResponse = postProductHelper(productRequest);
+    UUID productId = objectMapper
+        .readValue(postResponse.getContentAsString(), ProductResponse.class)
+        .getId();
+
+    MockHttpServletResponse json = getProductHelper(productId);
+    MockHttpServletResponse cbor = mockMvc
+        .perform(get("/api/v1/products/{id}", productId).accept("application/cbor"))
+        .andReturn()
+        .getResponse();
+
+    String eTag = json.getHeader(HttpHeaders.ETAG);
+    assertThat(postResponse.getHeader(HttpHeaders.ETAG)).isEqualTo(eTag);
+    assertThat(cbor.getHeader(HttpHeaders.ETAG))
+        .isEqualTo(ProductETags.withSuffix(eTag, "cbor"))
+        .isNotEqualTo(eTag);
+    assertThat(json.getHeader(HttpHeaders.VARY)).contains(HttpHeaders.ACCEPT);
+    assertThat(cbor.getHeader(HttpHeaders.VARY)).contains(HttpHeaders.ACCEPT);
+
+    // The JSON ETag doesn't validate the CBOR body.
+    MockHttpServletResponse notModified = mockMvc
+        .perform(get("/api/v1/products/{id}", productId)
+            .accept("application/cbor")
+            .header(HttpHeaders.IF_NONE_MATCH, eTag))
+        .andReturn()
+        .getResponse();
+    assertThat(notModified.getStatus()).isEqualTo(HttpStatus.OK.value());
+
+    // Either one still works for If-Match.
+    MockHttpServletResponse updated = mockMvc
+        .perform(put("/api/v1/products/{id}", productId)
+            .header(HttpHeaders.IF_MATCH, cbor.getHeader(HttpHeaders.ETAG))
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(productRequest)))
+        .andReturn()
+        .getResponse();
+    assertThat(updated.getStatus()).isEqualTo(HttpStatus.OK.value());
+  }
+
+  @Test
+  @DisplayName("API docs should describe prices as non-negative numbers of cents")
+  void apiDocsShouldDescribePricesAsNumbers() throws Exception {
+    JsonNode schemas = objectMapper
+        .readTree(mockMvc.perform(get("/v3/api-docs")).andReturn().getResponse()
+            .getContentAsString())
+        .path("components")
+        .path("schemas");
+
+    JsonNode requestPrice = schemas.path("ProductRequest").path("properties").path("price");
+    assertThat(requestPrice.path("type").asText()).isEqualTo("number");
+    assertThat(requestPrice.path("minimum").decimalValue()).isEqualByComparingTo("0.00");
+    assertThat(requestPrice.path("maximum").decimalValue())
+        .isEqualByComparingTo("999999999999999.99");
+    assertThat(requestPrice.path("multipleOf").decimalValue()).isEqualByComparingTo("0.01");
+    assertThat(schemas.path("ProductResponse").path("properties").path("price").path("type")
+        .asText()).isEqualTo("number");
+  }
+
+  @Test
+  @DisplayName("getProductById should cache product until it's updated or deleted")
+  void getProductByIdShouldCacheProductUntilUpdatedOrDeleted() throws Exception {
+    MockHttpServletResponse postResponse = postProductHelper(productRequest);
+    UUID productId = objectMapper
+        .readValue(postResponse.getContentAsString(), ProductResponse.class)
+        .getId();
+    // Evictions are deferred until the write has committed.
+    assertThat(cacheManager).isInstanceOf(TransactionAwareCacheManagerProxy.class);
+    Cache cache = cacheManager.getCache(CacheConfig.PRODUCTS_CACHE);
+    assertThat(cache).isNotNull();
+
+    getProductHelper(productId);
+    assertThat(cache.get(productId)).isNotNull();
+
+    updateProductHelper(productId, productRequest);
+    assertThat(cache.get(productId)).isNull();
+
+    getProductHelper(productId);
+    assertThat(cache.get(productId)).isNotNull();
+
+    deleteProductHelper(productId);
+    assertThat(cache.get(productId)).isNull();
+  }
+
   @Test
   @DisplayName("getProductById should return 404 if product is not found")
   void getProductByIdShouldReturn404IfProductNotFound() throws Exception {
@@ -143,7 +637,7 @@ public class ProductsControllerIntegrationTest {
     ProductRequest updateProductRequest = new ProductRequest(
         "Updated Name",
         "Updated Description",
-        new BigDecimal("200.00")
+        Price.parse("200.00")
     );
 
     MockHttpServletResponse updateResponse = updateProductHelper(productId, updateProductRequest);
@@ -161,6 +655,104 @@ public class ProductsControllerIntegrationTest {
     assertThat(response.getContentAsString()).contains("Product not found");
   }
 
+  @Test
+  @DisplayName("getProductById should return 304 if ETag still matches")
+  void getProductByIdShouldReturn304IfETagMatches() throws Exception {
+    MockHttpServletResponse postResponse = postProductHelper(productRequest);
+    UUID productId = objectMapper
+        .readValue(postResponse.getContentAsString(), ProductResponse.class)
+        .getId();
+
+    String etag = getProductHelper(productId).getHeader(HttpHeaders.ETAG);
+    assertThat(etag).isNotBlank();
+
+    MockHttpServletResponse response = mockMvc
+        .perform(get("/api/v1/products/{id}", productId).header(HttpHeaders.IF_NONE_MATCH, etag))
+        .andReturn()
+        .getResponse();
+    assertThat(response.getStatus()).isEqualTo(HttpStatus.NOT_MODIFIED.value());
+    assertThat(response.getContentAsString()).isEmpty();
+
+    // Once the product changes, the old ETag no longer matches.
+    updateProductHelper(productId, productRequest);
+    response = mockMvc
+        .perform(get("/api/v1/products/{id}", productId).header(HttpHeaders.IF_NONE_MATCH, etag))
+        .andReturn()
+        .getResponse();
+    assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+    assertThat(response.getHeader(HttpHeaders.ETAG)).isNotEqualTo(etag);
+  }
+
+  @Test
+  @DisplayName("updateProduct should return 412 if If-Match doesn't match")
+  void updateProductShouldReturn412IfIfMatchDoesNotMatch() throws Exception {
+    MockHttpServletResponse postResponse = postProductHelper(productRequest);
+    UUID productId = objectMapper
+        .readValue(postResponse.getContentAsString(), ProductResponse.class)
+        .getId();
+    String etag = postResponse.getHeader(HttpHeaders.ETAG);
+
+    // First conditional update wins and bumps the version.
+    MockHttpServletResponse response = mockMvc
+        .perform(
+          put("/api/v1/products/{id}", productId)
+            .header(HttpHeaders.IF_MATCH, etag)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(productRequest)))
+        .andReturn()
+        .getResponse();
+    assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+
+    // Second one with the same ETag is stale.
+    response = mockMvc
+        .perform(
+          put("/api/v1/products/{id}", productId)
+            .header(HttpHeaders.IF_MATCH, etag)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(productRequest)))
+        .andReturn()
+        .getResponse();
+    assertThat(response.getStatus()).isEqualTo(HttpStatus.PRECONDITION_FAILED.value());
+
+    response = mockMvc
+        .perform(delete("/api/v1/products/{id}", productId).header(HttpHeaders.IF_MATCH, etag))
+        .andReturn()
+        .getResponse();
+    assertThat(response.getStatus()).isEqualTo(HttpStatus.PRECONDITION_FAILED.value());
+  }
+
+  @Test
+  @DisplayName("updateProduct and deleteProduct should return 412 if If-Match is * and not found")
+  void writesShouldReturn412IfIfMatchIsAnyAndProductNotFound() throws Exception {
+    UUID productId = UUID.randomUUID();
+
+    MockHttpServletResponse updateResponse = mockMvc
+        .perform(
+          put("/api/v1/products/{id}", productId)
+            .header(HttpHeaders.IF_MATCH, "*")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(productRequest)))
+        .andReturn()
+        .getResponse();
+    assertThat(updateResponse.getStatus()).isEqualTo(HttpStatus.PRECONDITION_FAILED.value());
+
+    MockHttpServletResponse deleteResponse = mockMvc
+        .perform(delete("/api/v1/products/{id}", productId).header(HttpHeaders.IF_MATCH, "*"))
+        .andReturn()
+        .getResponse();
+    assertThat(deleteResponse.getStatus()).isEqualTo(HttpStatus.PRECONDITION_FAILED.value());
+
+    // Any version of an existing product matches.
+    UUID existingId = objectMapper
+        .readValue(postProductHelper(productRequest).getContentAsString(), ProductResponse.class)
+        .getId();
+    deleteResponse = mockMvc
+        .perform(delete("/api/v1/products/{id}", existingId).header(HttpHeaders.IF_MATCH, "*"))
+        .andReturn()
+        .getResponse();
+    assertThat(deleteResponse.getStatus()).isEqualTo(HttpStatus.OK.value());
+  }
+
   @Test
   @DisplayName("deleteProduct should delete product if product is found")
   void deleteProductShouldDeleteProduct() throws Exception {
@@ -199,6 +791,57 @@ public class ProductsControllerIntegrationTest {
     return result.getResponse();
   }
 
+  private MockHttpServletResponse getProductsByNameHelper(String name, boolean gzip)
+      throws Exception {
+    MockHttpServletRequestBuilder request = get("/api/v1/products").param("name", name);
+    if (gzip) {
+      request.header(HttpHeaders.ACCEPT_ENCODING, "gzip");
+    }
+
+    return mockMvc.perform(request).andReturn().getResponse();
+  }
+
+  private ProductChangesResponse productChangesHelper(String since) throws Exception {
+    MockHttpServletRequestBuilder request = get("/api/v1/products/changes").param("limit", "1000");
+    if (since != null) {
+      request.param("since", since);
+    }
+
+    MockHttpServletResponse response = mockMvc
+        .perform(request)
+        .andDo(print())
+        .andReturn()
+        .getResponse();
+    assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+
+    return objectMapper.readValue(response.getContentAsString(), ProductChangesResponse.class);
+  }
+
+  private ProductResponse[] searchHelper(String query) throws Exception {
+    MockHttpServletResponse response = mockMvc
+        .perform(get("/api/v1/products/search").param("q", query))
+        .andDo(print())
+        .andReturn()
+        .getResponse();
+    assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+
+    return objectMapper.readValue(response.getContentAsString(), ProductResponse[].class);
+  }
+
+  private MockHttpServletResponse exportProductsHelper(boolean gzip) throws Exception {
+    MvcResult result = mockMvc
+        .perform(
+          get("/api/v1/products/export")
+            .header(HttpHeaders.ACCEPT_ENCODING, gzip ? "gzip" : "identity"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    return mockMvc
+        .perform(asyncDispatch(result))
+        .andReturn()
+        .getResponse();
+  }
+
   private MockHttpServletResponse getProductHelper(UUID id) throws Exception {
     MvcResult result = mockMvc
         .perform(get("/api/v1/products/{id}", id))
@@ -232,6 +875,15 @@ public class ProductsControllerIntegrationTest {
     return result.getResponse();
   }
 
+  private static String nextLink(MockHttpServletResponse response) {
+    String link = response.getHeader(HttpHeaders.LINK);
+    if (link == null) {
+      return null;
+    }
+
+    return link.substring(link.indexOf('<') + 1, link.indexOf('>'));
+  }
+
   private void getProductAndValidate(
       UUID productId,
       ProductRequest request) throws Exception {
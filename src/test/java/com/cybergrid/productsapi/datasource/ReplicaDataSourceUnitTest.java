@@ -0,0 +1,137 @@
+package com.cybergrid.productsapi.datasource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.servlet.http.Cookie;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class ReplicaDataSourceUnitTest {
+  private final Connection primaryConnection = mock(Connection.class);
+  private final Connection replicaConnection1 = mock(Connection.class);
+  private final Connection replicaConnection2 = mock(Connection.class);
+
+  private DataSource primary;
+  private HikariDataSource replica1;
+  private HikariDataSource replica2;
+  private ReplicaRouting routing;
+  private ReplicaDataSource dataSource;
+
+  @BeforeEach
+  void setUp() throws SQLException {
+    primary = mock(DataSource.class);
+    replica1 = mock(HikariDataSource.class);
+    replica2 = mock(HikariDataSource.class);
+    when(primary.getConnection()).thenReturn(primaryConnection);
+    when(replica1.getConnection()).thenReturn(replicaConnection1);
+    when(replica2.getConnection()).thenReturn(replicaConnection2);
+
+    routing = new ReplicaRouting(Duration.ofMinutes(1));
+    dataSource = new ReplicaDataSource(primary, List.of(replica1, replica2), routing);
+  }
+
+  @Test
+  @DisplayName("getConnection should spread connections across replicas")
+  void getConnectionShouldSpreadConnectionsAcrossReplicas() throws SQLException {
+    assertThat(List.of(
+        dataSource.getConnection(),
+        dataSource.getConnection(),
+        dataSource.getConnection(),
+        dataSource.getConnection()))
+        .containsExactly(
+            replicaConnection1,
+            replicaConnection2,
+            replicaConnection1,
+            replicaConnection2);
+  }
+
+  @Test
+  @DisplayName("getConnection should skip unavailable replicas and fall back to the primary")
+  void getConnectionShouldSkipUnavailableReplicas() throws SQLException {
+    when(replica1.getConnection()).thenThrow(new SQLException("Connection refused"));
+
+    assertThat(dataSource.getConnection()).isEqualTo(replicaConnection2);
+    assertThat(dataSource.getConnection()).isEqualTo(replicaConnection2);
+    // Replica 1 is cooling down, so it was only tried once.
+    verify(replica1, times(1)).getConnection();
+
+    when(replica2.getConnection()).thenThrow(new SQLException("Connection refused"));
+    assertThat(dataSource.getConnection()).isEqualTo(primaryConnection);
+  }
+
+  @Test
+  @DisplayName("getConnection should keep other clients on the replicas right after a write")
+  void getConnectionShouldKeepOtherClientsOnReplicasAfterWrite() throws SQLException {
+    UUID written = UUID.randomUUID();
+    routing.recordWrite(List.of(written));
+
+    // Another client's read, outside of any request that wrote.
+    assertThat(dataSource.getConnection()).isEqualTo(replicaConnection1);
+
+    // Caches refilled with the written product read it from the primary, and don't keep
+    // anything else read from a replica meanwhile.
+    assertThat(routing.isRecentlyWritten(written)).isTrue();
+    assertThat(routing.isRecentlyWritten(UUID.randomUUID())).isFalse();
+    assertThat(routing.readFromPrimary(this::getConnectionHelper)).isEqualTo(primaryConnection);
+    assertThat(routing.isReplicaLagging()).isTrue();
+    assertThat(dataSource.getConnection()).isEqualTo(replicaConnection2);
+  }
+
+  @Test
+  @DisplayName("doFilter should set the cookie on writes and read from the primary while it's sent")
+  void doFilterShouldKeepClientOnPrimaryAfterWrite() throws Exception {
+    ReadYourWritesFilter filter = new ReadYourWritesFilter(Duration.ofSeconds(5));
+
+    // POST lookups only read, so they leave the client on the replicas.
+    MockHttpServletResponse lookupResponse = new MockHttpServletResponse();
+    filter.doFilter(
+        new MockHttpServletRequest("POST", "/api/v1/products:lookup"),
+        lookupResponse,
+        (req, res) -> { });
+    assertThat(lookupResponse.getCookie(ReadYourWritesFilter.COOKIE_NAME)).isNull();
+
+    MockHttpServletResponse writeResponse = new MockHttpServletResponse();
+    filter.doFilter(
+        new MockHttpServletRequest("POST", "/api/v1/products"),
+        writeResponse,
+        (req, res) -> routing.recordWrite(List.of(UUID.randomUUID())));
+    Cookie cookie = writeResponse.getCookie(ReadYourWritesFilter.COOKIE_NAME);
+    assertThat(cookie).isNotNull();
+    assertThat(cookie.getMaxAge()).isEqualTo(5);
+
+    List<Connection> connections = new ArrayList<>();
+    MockHttpServletRequest stickyRead = new MockHttpServletRequest("GET", "/api/v1/products");
+    stickyRead.setCookies(cookie);
+    filter.doFilter(stickyRead, new MockHttpServletResponse(),
+        (req, res) -> connections.add(getConnectionHelper()));
+    filter.doFilter(
+        new MockHttpServletRequest("GET", "/api/v1/products"),
+        new MockHttpServletResponse(),
+        (req, res) -> connections.add(getConnectionHelper()));
+
+    assertThat(connections).containsExactly(primaryConnection, replicaConnection1);
+  }
+
+  private Connection getConnectionHelper() {
+    try {
+      return dataSource.getConnection();
+    } catch (SQLException ex) {
+      throw new IllegalStateException(ex);
+    }
+  }
+}
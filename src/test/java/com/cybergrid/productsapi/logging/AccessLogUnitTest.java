@@ -0,0 +1,94 @@
+package com.cybergrid.productsapi.logging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationEnvironmentPreparedEvent;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class AccessLogUnitTest {
+
+  @Test
+  @DisplayName("write should drop and count entries once the queue is full")
+  void writeShouldDropAndCountEntriesOnceQueueIsFull() {
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    AccessLogWriter writer = new AccessLogWriter(1, new ObjectMapper(), meterRegistry);
+
+    // Not started, so nothing drains the queue.
+    writer.write(Map.of("path", "/a"));
+    writer.write(Map.of("path", "/b"));
+    writer.write(Map.of("path", "/c"));
+
+    assertThat(writer.getDropped()).isEqualTo(2);
+    assertThat(meterRegistry.get("access.log.dropped").functionCounter().count()).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("doFilter should log sampled requests with their payload")
+  @SuppressWarnings("unchecked")
+  void doFilterShouldLogSampledRequestsWithPayload() throws Exception {
+    AccessLogWriter writer = mock(AccessLogWriter.class);
+    AccessLogFilter filter = new AccessLogFilter(writer, 1.0, true, 2000);
+    MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/products");
+    request.setContent("{\"name\":\"Name\"}".getBytes(StandardCharsets.UTF_8));
+
+    filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> req.getInputStream()
+        .readAllBytes());
+
+    ArgumentCaptor<Map<String, Object>> entry = ArgumentCaptor.forClass(Map.class);
+    verify(writer).write(entry.capture());
+    assertThat(entry.getValue())
+        .containsEntry("method", "POST")
+        .containsEntry("path", "/api/v1/products")
+        .containsEntry("status", 200)
+        .containsEntry("payload", "{\"name\":\"Name\"}");
+  }
+
+  @Test
+  @DisplayName("doFilter should skip unsampled requests unless they failed")
+  void doFilterShouldSkipUnsampledRequestsUnlessTheyFailed() throws Exception {
+    AccessLogWriter writer = mock(AccessLogWriter.class);
+    AccessLogFilter filter = new AccessLogFilter(writer, 0.0, false, 2000);
+
+    filter.doFilter(
+        new MockHttpServletRequest("GET", "/api/v1/products"),
+        new MockHttpServletResponse(),
+        (req, res) -> { });
+    verify(writer, never()).write(any());
+
+    MockHttpServletResponse failed = new MockHttpServletResponse();
+    failed.setStatus(500);
+    filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/products"), failed, (req, res) -> {
+    });
+    verify(writer).write(any());
+  }
+
+  @Test
+  @DisplayName("LogFileAppenderListener should leave logs on the console without a log file")
+  void logFileAppenderListenerShouldLeaveLogsOnConsoleWithoutLogFile() {
+    LogFileAppenderListener listener = new LogFileAppenderListener();
+
+    listener.onApplicationEvent(new ApplicationEnvironmentPreparedEvent(
+        null, new SpringApplication(), new String[0], new MockEnvironment()));
+
+    LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+    assertThat(context.getLogger(Logger.ROOT_LOGGER_NAME)
+        .getAppender(LogFileAppenderListener.APPENDER_NAME)).isNull();
+  }
+}
@@ -5,7 +5,8 @@ import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import com.cybergrid.productsapi.dto.ProductRequest;
 import com.cybergrid.productsapi.dto.ProductResponse;
 import com.cybergrid.productsapi.models.Product;
-import java.math.BigDecimal;
+import com.cybergrid.productsapi.pricing.Price;
+import java.time.Instant;
 import java.util.UUID;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -24,7 +25,7 @@ class ProductMapperUnitTest {
     ProductRequest request = new ProductRequest(
         "Laptop",
         "14-inch ultrabook",
-        new BigDecimal("1299.99"));
+        Price.parse("1299.99"));
 
     Product entity = ProductMapper.toEntity(request);
 
@@ -45,7 +46,10 @@ class ProductMapperUnitTest {
   @DisplayName("toResponse maps all fields")
   void toResponseMapsAllFields() {
     UUID id = UUID.randomUUID();
-    Product product = new Product(id, "Mouse", "Wireless mouse", new BigDecimal("24.50"));
+    Product product = new Product(id, "Mouse", "Wireless mouse", Price.parse("24.50"));
+    product.setVersion(3);
+    product.setCreatedAt(Instant.parse("2025-01-01T00:00:00Z"));
+    product.setUpdatedAt(Instant.parse("2025-02-01T00:00:00Z"));
 
     ProductResponse response = ProductMapper.toResponse(product);
 
@@ -53,6 +57,9 @@ class ProductMapperUnitTest {
     assertThat(response.getId()).isEqualTo(id);
     assertThat(response.getName()).isEqualTo("Mouse");
     assertThat(response.getDescription()).isEqualTo("Wireless mouse");
-    assertThat(response.getPrice()).isEqualTo(new BigDecimal("24.50"));
+    assertThat(response.getPrice()).isEqualTo(Price.parse("24.50"));
+    assertThat(response.getVersion()).isEqualTo(3);
+    assertThat(response.getCreatedAt()).isEqualTo(Instant.parse("2025-01-01T00:00:00Z"));
+    assertThat(response.getUpdatedAt()).isEqualTo(Instant.parse("2025-02-01T00:00:00Z"));
   }
 }
@@ -0,0 +1,45 @@
+package com.cybergrid.productsapi.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+class RequestMetricsFilterUnitTest {
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final RequestMetricsFilter filter =
+      new RequestMetricsFilter(meterRegistry, Duration.ofSeconds(1));
+  private final QueryCountingStatementInspector inspector = new QueryCountingStatementInspector();
+
+  @Test
+  @DisplayName("doFilter should record queries issued during the request")
+  void doFilterShouldRecordQueriesIssuedDuringRequest() throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/products/1");
+
+    filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+      inspector.inspect("select 1");
+      inspector.inspect("select 2");
+      req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/v1/products/{id}");
+    });
+
+    DistributionSummary summary = meterRegistry.get("http.server.requests.queries")
+        .tag("method", "GET")
+        .tag("uri", "/api/v1/products/{id}")
+        .summary();
+    assertThat(summary.count()).isEqualTo(1);
+    assertThat(summary.totalAmount()).isEqualTo(2);
+    assertThat(RequestMetrics.current()).isNull();
+  }
+
+  @Test
+  @DisplayName("inspect should leave statements unchanged outside of a request")
+  void inspectShouldLeaveStatementsUnchangedOutsideOfRequest() {
+    assertThat(inspector.inspect("select 1")).isEqualTo("select 1");
+  }
+}
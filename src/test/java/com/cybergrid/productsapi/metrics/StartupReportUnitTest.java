@@ -0,0 +1,27 @@
+package com.cybergrid.productsapi.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class StartupReportUnitTest {
+
+  @Test
+  @DisplayName("classData should report the archive the JVM was started with")
+  void classDataShouldReportArchive() {
+    assertThat(StartupReport.classData(List.of("-Xmx1g", "-XX:AOTCache=app.aot")))
+        .isEqualTo("aot-cache");
+    assertThat(StartupReport.classData(List.of("-XX:SharedArchiveFile=app.jsa")))
+        .isEqualTo("cds");
+    assertThat(StartupReport.classData(List.of("-XX:MaxRAMPercentage=75")))
+        .isEqualTo("default");
+  }
+
+  @Test
+  @DisplayName("mode should be jvm without generated artifacts")
+  void modeShouldBeJvmWithoutGeneratedArtifacts() {
+    assertThat(StartupReport.mode()).isEqualTo("jvm");
+  }
+}
@@ -0,0 +1,123 @@
+package com.cybergrid.productsapi.pricing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.cybergrid.productsapi.dto.ProductRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class PriceUnitTest {
+  private static final List<String> AMOUNTS = List.of(
+      "0.00", "0.05", "1.50", "-0.50", "24.99", "9999999999999.99", "92233720368547758.07",
+      "-92233720368547758.08");
+
+  private final ObjectMapper jsonMapper = new ObjectMapper();
+  private final ObjectMapper cborMapper = new CBORMapper();
+
+  @Test
+  @DisplayName("toString should format like BigDecimal.toPlainString at scale 2")
+  void toStringShouldFormatLikeBigDecimal() {
+    for (String amount : AMOUNTS) {
+      Price price = Price.of(new BigDecimal(amount));
+
+      assertThat(price.toString()).isEqualTo(amount);
+      assertThat(price.toBigDecimal()).isEqualTo(new BigDecimal(amount));
+    }
+  }
+
+  @Test
+  @DisplayName("parse should read up to two decimals and reject more")
+  void parseShouldReadUpToTwoDecimals() {
+    assertThat(Price.parse("10").getCents()).isEqualTo(1000);
+    assertThat(Price.parse("10.5").getCents()).isEqualTo(1050);
+    assertThat(Price.parse("+.05").getCents()).isEqualTo(5);
+    assertThat(Price.parse("-3.25").getCents()).isEqualTo(-325);
+    assertThat(Price.parse("1.500").getCents()).isEqualTo(150);
+    assertThat(Price.parse("1.5E+2").getCents()).isEqualTo(15000);
+    assertThat(Price.parse("12345678901234567.89").getCents()).isEqualTo(1234567890123456789L);
+
+    for (String invalid : List.of("", "-", ".", "1.005", "1e-3", "abc", "1.0.0", "1e20")) {
+      assertThatThrownBy(() -> Price.parse(invalid))
+          .as(invalid)
+          .isInstanceOf(NumberFormatException.class);
+    }
+  }
+
+  @Test
+  @DisplayName("ceiling and floor should round bounds inwards to whole cents")
+  void ceilingAndFloorShouldRoundToCents() {
+    assertThat(Price.ceiling(new BigDecimal("1.001"))).isEqualTo(Price.parse("1.01"));
+    assertThat(Price.ceiling(new BigDecimal("1.00"))).isEqualTo(Price.parse("1.00"));
+    assertThat(Price.floor(new BigDecimal("1.009"))).isEqualTo(Price.parse("1.00"));
+    assertThat(Price.floor(new BigDecimal("-1.001"))).isEqualTo(Price.parse("-1.01"));
+    assertThat(Price.ceiling(new BigDecimal("1e30")).getCents()).isEqualTo(Long.MAX_VALUE);
+    assertThat(Price.floor(new BigDecimal("-1e30")).getCents()).isEqualTo(Long.MIN_VALUE);
+  }
+
+  @Test
+  @DisplayName("serialization should write the same JSON and CBOR as a BigDecimal of scale 2")
+  void serializationShouldMatchBigDecimal() throws Exception {
+    for (String amount : AMOUNTS) {
+      Price price = Price.parse(amount);
+      Map<String, Object> expected = Map.of("price", new BigDecimal(amount));
+      Map<String, Object> actual = Map.of("price", price);
+
+      assertThat(jsonMapper.writeValueAsString(actual))
+          .isEqualTo(jsonMapper.writeValueAsString(expected));
+      assertThat(cborMapper.writeValueAsBytes(actual))
+          .isEqualTo(cborMapper.writeValueAsBytes(expected));
+      assertThat(jsonMapper.readValue(jsonMapper.writeValueAsString(price), Price.class))
+          .isEqualTo(price);
+      assertThat(cborMapper.readValue(cborMapper.writeValueAsBytes(price), Price.class))
+          .isEqualTo(price);
+    }
+  }
+
+  @Test
+  @DisplayName("deserialization should accept numbers and numeric strings with up to two decimals")
+  void deserializationShouldAcceptNumbersAndStrings() throws Exception {
+    assertThat(jsonMapper.readValue("12", Price.class)).isEqualTo(Price.parse("12.00"));
+    assertThat(jsonMapper.readValue("12.3", Price.class)).isEqualTo(Price.parse("12.30"));
+    assertThat(jsonMapper.readValue("\"12.30\"", Price.class)).isEqualTo(Price.parse("12.30"));
+    assertThat(jsonMapper.readValue("1.2e1", Price.class)).isEqualTo(Price.parse("12.00"));
+
+    assertThatThrownBy(() -> jsonMapper.readValue("12.345", Price.class))
+        .isInstanceOf(InvalidFormatException.class);
+    assertThatThrownBy(() -> jsonMapper.readValue("true", Price.class))
+        .isInstanceOf(MismatchedInputException.class);
+  }
+
+  @Test
+  @DisplayName("ValidPrice should reject negative prices and too many integer digits")
+  void validPriceShouldRejectNegativeAndTooLongPrices() {
+    try (ValidatorFactory factory = Validation.buildDefaultValidatorFactory()) {
+      Validator validator = factory.getValidator();
+
+      assertThat(messages(validator, "0.00")).isEmpty();
+      assertThat(messages(validator, "999999999999999.99")).isEmpty();
+      assertThat(messages(validator, "-0.01"))
+          .containsExactly("must be greater than or equal to 0.00");
+      assertThat(messages(validator, "1000000000000000.00"))
+          .containsExactly("numeric value out of bounds (<15 digits>.<2 digits> expected)");
+      assertThat(messages(validator, "-1000000000000000.00")).hasSize(2);
+    }
+  }
+
+  private static List<String> messages(Validator validator, String price) {
+    return validator.validate(new ProductRequest("Name", null, Price.parse(price))).stream()
+        .map(ConstraintViolation::getMessage)
+        .toList();
+  }
+}
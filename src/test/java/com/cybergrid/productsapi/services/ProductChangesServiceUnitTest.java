@@ -0,0 +1,98 @@
+package com.cybergrid.productsapi.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+import com.cybergrid.productsapi.dto.ProductResponse;
+import com.cybergrid.productsapi.models.ProductTombstone;
+import com.cybergrid.productsapi.pricing.Price;
+import com.cybergrid.productsapi.repositories.ProductTombstonesRepository;
+import com.cybergrid.productsapi.repositories.ProductsRepository;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.server.ResponseStatusException;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductChangesServiceUnitTest {
+  private static final Instant SINCE = Instant.parse("2025-01-01T00:00:00Z");
+
+  @Mock
+  private ProductsRepository productsRepository;
+  @Mock
+  private ProductTombstonesRepository productTombstonesRepository;
+
+  private ProductChangesService productChangesService;
+
+  @BeforeEach
+  void setUp() {
+    productChangesService = new ProductChangesService(
+        productsRepository,
+        productTombstonesRepository,
+        Duration.ofSeconds(5));
+  }
+
+  @Test
+  @DisplayName("getChanges should merge changes and deletions in timestamp order")
+  void getChangesShouldMergeChangesAndDeletionsInOrder() {
+    ProductResponse first = product(SINCE.plusSeconds(1));
+    ProductResponse third = product(SINCE.plusSeconds(3));
+    ProductTombstone second = new ProductTombstone(UUID.randomUUID(), SINCE.plusSeconds(2));
+    when(productsRepository.findChangedBetween(eq(SINCE), any(), any(), any()))
+        .thenReturn(List.of(first, third));
+    when(productTombstonesRepository.findDeletedBetween(eq(SINCE), any(), any(), any()))
+        .thenReturn(List.of(second));
+
+    ProductChanges changes =
+        productChangesService.getChanges(SINCE, ProductChangesService.FIRST_ID, 2);
+
+    assertThat(changes.getChanged()).containsExactly(first);
+    assertThat(changes.getDeleted()).containsExactly(second);
+    assertThat(changes.hasMore()).isTrue();
+    assertThat(changes.getWatermarkAt()).isEqualTo(second.getDeletedAt());
+    assertThat(changes.getWatermarkId()).isEqualTo(second.getProductId());
+  }
+
+  @Test
+  @DisplayName("getChanges should move the watermark up to the cutoff once caught up")
+  void getChangesShouldMoveWatermarkToCutoffOnceCaughtUp() {
+    ProductResponse changed = product(SINCE.plusSeconds(1));
+    when(productsRepository.findChangedBetween(eq(SINCE), any(), any(), any()))
+        .thenReturn(List.of(changed));
+    when(productTombstonesRepository.findDeletedBetween(eq(SINCE), any(), any(), any()))
+        .thenReturn(List.of());
+
+    Instant before = Instant.now();
+    ProductChanges changes =
+        productChangesService.getChanges(SINCE, ProductChangesService.FIRST_ID, 10);
+
+    assertThat(changes.getChanged()).containsExactly(changed);
+    assertThat(changes.hasMore()).isFalse();
+    assertThat(changes.getWatermarkAt()).isAfter(before.minusSeconds(6));
+    assertThat(changes.getWatermarkId()).isEqualTo(ProductChangesService.FIRST_ID);
+  }
+
+  @Test
+  @DisplayName("getChanges should throw if limit is out of range")
+  void getChangesShouldThrowIfLimitIsOutOfRange() {
+    assertThatThrownBy(() ->
+        productChangesService.getChanges(SINCE, ProductChangesService.FIRST_ID, 0))
+        .isInstanceOf(ResponseStatusException.class)
+        .hasMessageContaining("Limit must be between");
+  }
+
+  private static ProductResponse product(Instant updatedAt) {
+    return new ProductResponse(
+        UUID.randomUUID(), "Name", null, Price.parse("1.00"), 0, updatedAt, updatedAt);
+  }
+}
@@ -2,26 +2,68 @@ package com.cybergrid.productsapi.services;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.cybergrid.productsapi.cache.ProductPageCache;
+import com.cybergrid.productsapi.cache.SingleFlight;
+import com.cybergrid.productsapi.catalog.CatalogTier;
+import com.cybergrid.productsapi.datasource.ReplicaRouting;
+import com.cybergrid.productsapi.dto.ProductBatchOperation;
+import com.cybergrid.productsapi.dto.ProductBatchResult;
+import com.cybergrid.productsapi.dto.ProductRequest;
+import com.cybergrid.productsapi.dto.ProductResponse;
+import com.cybergrid.productsapi.mappers.ProductMapper;
 import com.cybergrid.productsapi.models.Product;
+import com.cybergrid.productsapi.pricing.Price;
+import com.cybergrid.productsapi.repositories.ProductEventsRepository;
+import com.cybergrid.productsapi.repositories.ProductQuery;
+import com.cybergrid.productsapi.repositories.ProductSort;
+import com.cybergrid.productsapi.repositories.ProductTombstonesRepository;
 import com.cybergrid.productsapi.repositories.ProductsRepository;
-import java.math.BigDecimal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.web.server.ResponseStatusException;
 
 @ExtendWith(MockitoExtension.class)
 public class ProductsServiceUnitTest {
   @Mock
   private ProductsRepository productsRepository;
+  @Mock
+  private ProductEventsRepository productEventsRepository;
+  @Mock
+  private ProductTombstonesRepository productTombstonesRepository;
+  @Mock
+  private ProductPageCache productPageCache;
+  @Mock
+  private ReplicaRouting replicaRouting;
+  @Spy
+  private SingleFlight<UUID, ProductResponse> productLookups =
+      new SingleFlight<>("products", Duration.ofSeconds(1), new SimpleMeterRegistry());
+  @Mock
+  private CatalogTier catalogTier;
+  @Mock
+  private EntityManager entityManager;
+  @Mock
+  private PlatformTransactionManager transactionManager;
 
   @InjectMocks
   private ProductsService productsService;
@@ -30,22 +72,129 @@ public class ProductsServiceUnitTest {
       UUID.randomUUID(),
       "Name",
       "Description",
-      new BigDecimal("100.00"));
+      Price.parse("100.00"));
+  private final ProductResponse response = ProductMapper.toResponse(product);
+
+  @Test
+  @DisplayName("getProducts should return the products matching the query")
+  void getProductsShouldReturnMatchingProducts() {
+    when(productsRepository.findPage(any())).thenReturn(List.of(response));
+
+    List<ProductResponse> result = productsService.getProducts(query(10));
+
+    assertThat(result).containsExactly(response);
+  }
+
+  @Test
+  @DisplayName("getProducts should serve from the catalog if it can answer the query")
+  void getProductsShouldServeFromCatalog() {
+    ProductQuery query = query(10);
+    when(catalogTier.canServe(query)).thenReturn(true);
+    when(catalogTier.getProducts(query)).thenReturn(List.of(response));
+
+    List<ProductResponse> result = productsService.getProducts(query);
+
+    assertThat(result).containsExactly(response);
+    verify(productsRepository, never()).findPage(any());
+  }
+
+  @Test
+  @DisplayName("getProducts should throw if limit is out of range")
+  void getProductsShouldThrowIfLimitIsOutOfRange() {
+    assertThatThrownBy(() -> productsService.getProducts(query(0)))
+        .isInstanceOf(ResponseStatusException.class)
+        .hasMessageContaining("Limit must be between");
+
+    assertThatThrownBy(() -> productsService.getProducts(query(ProductsService.MAX_PAGE_SIZE + 1)))
+        .isInstanceOf(ResponseStatusException.class)
+        .hasMessageContaining("Limit must be between");
+  }
+
+  @Test
+  @DisplayName("searchProducts should fall back to similar names if nothing matches")
+  void searchProductsShouldFallBackToSimilarNames() {
+    when(productsRepository.searchFullText("nmae", 20, 0)).thenReturn(List.of());
+    when(productsRepository.searchSimilarNames("nmae", 20, 0)).thenReturn(List.of(response));
+
+    List<ProductResponse> result = productsService.searchProducts("nmae", 0, 20);
+
+    assertThat(result).containsExactly(response);
+  }
+
+  @Test
+  @DisplayName("searchProducts should not fall back past the last full-text match")
+  void searchProductsShouldNotFallBackPastLastFullTextMatch() {
+    when(productsRepository.searchFullText("name", 20, 40)).thenReturn(List.of());
+    when(productsRepository.existsFullTextMatch("name")).thenReturn(true);
+
+    List<ProductResponse> result = productsService.searchProducts("name", 2, 20);
+
+    assertThat(result).isEmpty();
+  }
+
+  @Test
+  @DisplayName("searchProducts should throw if query is blank")
+  void searchProductsShouldThrowIfQueryIsBlank() {
+    assertThatThrownBy(() -> productsService.searchProducts(" ", 0, 20))
+        .isInstanceOf(ResponseStatusException.class)
+        .hasMessageContaining("Search query must not be blank");
+  }
+
+  @Test
+  @DisplayName("createProduct should save product and append a created event")
+  void createProductShouldSaveProductAndAppendEvent() {
+    when(productsRepository.saveAndFlush(product)).thenReturn(product);
+
+    ProductResponse result = productsService.createProduct(product);
+
+    assertThat(result).usingRecursiveComparison().isEqualTo(response);
+    verify(productEventsRepository).appendProductState(List.of(product.getId()), "CREATED");
+    verify(productPageCache).invalidate();
+  }
+
+  @Test
+  @DisplayName("lookupProducts should keep request order and report missing ids")
+  void lookupProductsShouldKeepOrderAndReportMissing() {
+    ProductResponse other = ProductMapper.toResponse(
+        new Product(UUID.randomUUID(), "Other", null, Price.parse("1.00")));
+    UUID missing = UUID.randomUUID();
+    when(productsRepository.findAllByIdAny(any())).thenReturn(List.of(response, other));
+
+    ProductLookup result = productsService.lookupProducts(
+        List.of(other.getId(), missing, product.getId(), other.getId()));
+
+    assertThat(result.getFound()).containsExactly(other, response);
+    assertThat(result.getMissing()).containsExactly(missing);
+    verify(productsRepository).findAllByIdAny(
+        new UUID[] {other.getId(), missing, product.getId()});
+  }
 
   @Test
   @DisplayName("getProductById should return product if product is found")
   void getProductByIdShouldReturnProduct() {
-    when(productsRepository.findById(product.getId())).thenReturn(Optional.of(product));
+    when(productsRepository.findResponseById(product.getId())).thenReturn(Optional.of(response));
 
-    Product result = productsService.getProductById(product.getId());
+    ProductResponse result = productsService.getProductById(product.getId());
 
-    assertThat(result).isEqualTo(product);
+    assertThat(result).isEqualTo(response);
+  }
+
+  @Test
+  @DisplayName("getProductById should serve from the catalog while it's serving")
+  void getProductByIdShouldServeFromCatalog() {
+    when(catalogTier.isServing(product.getId())).thenReturn(true);
+    when(catalogTier.getProductById(product.getId())).thenReturn(Optional.of(response));
+
+    ProductResponse result = productsService.getProductById(product.getId());
+
+    assertThat(result).isEqualTo(response);
+    verify(productsRepository, never()).findResponseById(any());
   }
 
   @Test
   @DisplayName("getProductById should throw if product not found")
   void getProductByIdShouldThrowIfProductNotFound() {
-    when(productsRepository.findById(product.getId())).thenReturn(Optional.empty());
+    when(productsRepository.findResponseById(product.getId())).thenReturn(Optional.empty());
 
     assertThatThrownBy(() -> productsService.getProductById(product.getId()))
         .isInstanceOf(ResponseStatusException.class)
@@ -55,40 +204,125 @@ public class ProductsServiceUnitTest {
   @Test
   @DisplayName("updateProduct should update product if product is found")
   void updateProductShouldUpdateProduct() {
-    when(productsRepository.existsById(product.getId())).thenReturn(true);
+    when(productsRepository.updateById(
+        eq(product.getId()),
+        eq(product.getName()),
+        eq(product.getDescription()),
+        eq(product.getPrice()),
+        any(Instant.class))).thenReturn(1);
 
-    productsService.updateProduct(product.getId(), product);
+    productsService.updateProduct(product.getId(), product, null);
 
-    verify(productsRepository).save(product);
+    verify(productsRepository).updateById(
+        eq(product.getId()),
+        eq(product.getName()),
+        eq(product.getDescription()),
+        eq(product.getPrice()),
+        any(Instant.class));
+    verify(productEventsRepository).appendProductState(List.of(product.getId()), "UPDATED");
+    verify(replicaRouting).recordWrite(List.of(product.getId()));
+    verify(catalogTier).writeCommitted(List.of(product.getId()));
+    verify(productPageCache).invalidate();
   }
 
   @Test
   @DisplayName("updateProduct should throw if product not found")
   void updateProductShouldThrowIfProductNotFound() {
-    when(productsRepository.existsById(product.getId())).thenReturn(false);
+    when(productsRepository.updateById(
+        eq(product.getId()),
+        eq(product.getName()),
+        eq(product.getDescription()),
+        eq(product.getPrice()),
+        any(Instant.class))).thenReturn(0);
 
-    assertThatThrownBy(() -> productsService.updateProduct(product.getId(), product))
+    assertThatThrownBy(() -> productsService.updateProduct(product.getId(), product, null))
         .isInstanceOf(ResponseStatusException.class)
         .hasMessageContaining("Product not found");
+    verify(productPageCache, never()).invalidate();
   }
 
   @Test
   @DisplayName("deleteProduct should delete product if product is found")
   void deleteProductShouldDeleteProduct() {
-    when(productsRepository.existsById(product.getId())).thenReturn(true);
+    when(productsRepository.deleteProductById(product.getId())).thenReturn(1);
 
-    productsService.deleteProduct(product.getId());
+    productsService.deleteProduct(product.getId(), null);
 
-    verify(productsRepository).deleteById(product.getId());
+    verify(productsRepository).deleteProductById(product.getId());
+    verify(productTombstonesRepository)
+        .insertAll(eq(new UUID[] {product.getId()}), any(Instant.class));
+    verify(productEventsRepository).appendDeleted(new UUID[] {product.getId()});
+    verify(productPageCache).invalidate();
   }
 
   @Test
   @DisplayName("deleteProduct should throw if product not found")
   void deleteProductShouldThrowIfProductNotFound() {
+    when(productsRepository.deleteProductById(product.getId())).thenReturn(0);
+
+    assertThatThrownBy(() -> productsService.deleteProduct(product.getId(), null))
+        .isInstanceOf(ResponseStatusException.class)
+        .hasMessageContaining("Product not found");
+  }
+
+  @Test
+  @DisplayName("updateProduct should throw 412 if product version doesn't match")
+  void updateProductShouldThrowIfVersionDoesNotMatch() {
+    when(productsRepository.updateByIdAndVersion(
+        eq(product.getId()),
+        eq(3L),
+        eq(product.getName()),
+        eq(product.getDescription()),
+        eq(product.getPrice()),
+        any(Instant.class))).thenReturn(0);
+    when(productsRepository.existsById(product.getId())).thenReturn(true);
+
+    assertThatThrownBy(() -> productsService.updateProduct(product.getId(), product, 3L))
+        .isInstanceOf(ResponseStatusException.class)
+        .hasMessageContaining("Product version mismatch");
+  }
+
+  @Test
+  @DisplayName("deleteProduct should throw 404 if versioned product not found")
+  void deleteProductShouldThrowIfVersionedProductNotFound() {
+    when(productsRepository.deleteProductByIdAndVersion(product.getId(), 3L)).thenReturn(0);
     when(productsRepository.existsById(product.getId())).thenReturn(false);
 
-    assertThatThrownBy(() -> productsService.deleteProduct(product.getId()))
+    assertThatThrownBy(() -> productsService.deleteProduct(product.getId(), 3L))
         .isInstanceOf(ResponseStatusException.class)
         .hasMessageContaining("Product not found");
   }
+
+  @Test
+  @DisplayName("processBatch should apply operations and report a result for each")
+  void processBatchShouldApplyOperationsAndReportResults() {
+    UUID missingId = UUID.randomUUID();
+    ProductRequest request = new ProductRequest("Updated", "Updated", Price.parse("1.00"));
+    when(productsRepository.findAllById(Set.of(product.getId(), missingId)))
+        .thenReturn(List.of(product));
+
+    List<ProductBatchResult> results = productsService.processBatch(List.of(
+        new ProductBatchOperation(ProductBatchOperation.Type.CREATE, null, request),
+        new ProductBatchOperation(ProductBatchOperation.Type.UPDATE, product.getId(), request),
+        new ProductBatchOperation(ProductBatchOperation.Type.UPDATE, missingId, request),
+        new ProductBatchOperation(ProductBatchOperation.Type.DELETE, product.getId(), null)));
+
+    assertThat(results)
+        .extracting(ProductBatchResult::getIndex, ProductBatchResult::getStatus)
+        .containsExactly(
+            tuple(0, 201),
+            tuple(1, 200),
+            tuple(2, 404),
+            tuple(3, 200));
+    assertThat(product.getName()).isEqualTo("Updated");
+    verify(entityManager).persist(any(Product.class));
+    verify(entityManager).remove(product);
+    // The product was deleted later in the batch, so only its delete is recorded.
+    verify(productEventsRepository, never()).appendProductState(any(), eq("UPDATED"));
+    verify(productEventsRepository).appendDeleted(new UUID[] {product.getId()});
+  }
+
+  private static ProductQuery query(int limit) {
+    return new ProductQuery(null, null, null, ProductSort.ID, false, limit);
+  }
 }
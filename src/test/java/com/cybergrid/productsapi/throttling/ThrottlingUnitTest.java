@@ -0,0 +1,181 @@
+package com.cybergrid.productsapi.throttling;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.cybergrid.productsapi.dto.ProductBatchRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.UUID;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class ThrottlingUnitTest {
+
+  @Test
+  @DisplayName("tryAcquire should allow a burst per client and then ask to wait")
+  void tryAcquireShouldAllowBurstPerClient() {
+    TokenBuckets tokenBuckets = new TokenBuckets(1, 10);
+
+    assertThat(tokenBuckets.tryAcquire("a", 5)).isZero();
+    assertThat(tokenBuckets.tryAcquire("a", 5)).isZero();
+    // Five tokens take five seconds to refill at one token per second.
+    assertThat(tokenBuckets.tryAcquire("a", 5))
+        .isBetween(Duration.ofSeconds(4).toNanos(), Duration.ofSeconds(5).toNanos());
+
+    assertThat(tokenBuckets.tryAcquire("b", 10)).isZero();
+  }
+
+  @Test
+  @DisplayName("tryAcquire should take a cost over the burst once full and then ask to wait")
+  void tryAcquireShouldTakeCostOverBurstOnceFull() {
+    TokenBuckets tokenBuckets = new TokenBuckets(1, 10);
+
+    // Only once the bucket has refilled the token taken first.
+    assertThat(tokenBuckets.tryAcquire("a", 1)).isZero();
+    assertThat(tokenBuckets.tryAcquire("a", 30))
+        .isBetween(1L, Duration.ofSeconds(1).toNanos());
+
+    // Thirty tokens leave the bucket twenty short, which take twenty seconds to refill.
+    assertThat(tokenBuckets.tryAcquire("b", 30)).isZero();
+    assertThat(tokenBuckets.tryAcquire("b", 1))
+        .isBetween(Duration.ofSeconds(20).toNanos(), Duration.ofSeconds(21).toNanos());
+  }
+
+  @Test
+  @DisplayName("tryAcquire should reject requests over the limit until one is released")
+  void tryAcquireShouldRejectRequestsOverLimit() {
+    AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10, Duration.ofSeconds(1));
+
+    assertThat(limit.tryAcquire()).isTrue();
+    assertThat(limit.tryAcquire()).isTrue();
+    assertThat(limit.tryAcquire()).isFalse();
+
+    limit.release();
+    assertThat(limit.tryAcquire()).isTrue();
+  }
+
+  @Test
+  @DisplayName("release should grow the limit while fast and shrink it when slow or overloaded")
+  void releaseShouldAdaptLimitToLatency() {
+    AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 5, 20, Duration.ofMillis(100));
+
+    long now = System.nanoTime();
+    for (int i = 0; i < 50; i++) {
+      limit.tryAcquire();
+      now += Duration.ofMillis(10).toNanos();
+      limit.release(now - Duration.ofMillis(10).toNanos(), now, false);
+    }
+    assertThat(limit.getLimit()).isGreaterThan(10);
+
+    int grown = limit.getLimit();
+    limit.tryAcquire();
+    now += Duration.ofSeconds(1).toNanos();
+    limit.release(now - Duration.ofSeconds(1).toNanos(), now, false);
+    assertThat(limit.getLimit()).isLessThan(grown);
+
+    for (int i = 0; i < 50; i++) {
+      limit.tryAcquire();
+      now += 1;
+      limit.release(now - 1, now, true);
+    }
+    assertThat(limit.getLimit()).isEqualTo(5);
+    assertThat(limit.getInFlight()).isZero();
+  }
+
+  @Test
+  @DisplayName("release should back off once for a burst of slow requests started together")
+  void releaseShouldBackOffOncePerRoundTrip() {
+    AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 5, 20, Duration.ofMillis(100));
+
+    long start = System.nanoTime();
+    for (int i = 0; i < 20; i++) {
+      limit.tryAcquire();
+    }
+    for (int i = 0; i < 20; i++) {
+      limit.release(start, start + Duration.ofSeconds(1).toNanos() + i, false);
+    }
+    assertThat(limit.getLimit()).isEqualTo(18);
+    assertThat(limit.getInFlight()).isZero();
+  }
+
+  @Test
+  @DisplayName("doFilter should answer 429 with Retry-After once the client is out of tokens")
+  void doFilterShouldAnswer429OnceClientIsOutOfTokens() throws Exception {
+    RateLimitFilter filter =
+        new RateLimitFilter(new TokenBuckets(1, 10), 10, 1, 2, 2, new SimpleMeterRegistry());
+
+    MockHttpServletResponse first = new MockHttpServletResponse();
+    filter.doFilter(listRequest(), first, (req, res) -> { });
+    assertThat(first.getStatus()).isEqualTo(HttpStatus.OK.value());
+
+    MockHttpServletResponse second = new MockHttpServletResponse();
+    filter.doFilter(listRequest(), second, (req, res) -> { });
+    assertThat(second.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+    assertThat(second.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("10");
+
+    // Headers chosen by the client don't get it a fresh bucket.
+    MockHttpServletRequest renamed = listRequest();
+    renamed.addHeader("X-Client-Id", "other");
+    MockHttpServletResponse third = new MockHttpServletResponse();
+    filter.doFilter(renamed, third, (req, res) -> { });
+    assertThat(third.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+
+    // Other clients have their own bucket.
+    MockHttpServletRequest otherAddress = listRequest();
+    otherAddress.setRemoteAddr("192.0.2.1");
+    MockHttpServletResponse fourth = new MockHttpServletResponse();
+    filter.doFilter(otherAddress, fourth, (req, res) -> { });
+    assertThat(fourth.getStatus()).isEqualTo(HttpStatus.OK.value());
+
+    MockHttpServletRequest otherPrincipal = listRequest();
+    otherPrincipal.setUserPrincipal(() -> "other");
+    MockHttpServletResponse fifth = new MockHttpServletResponse();
+    filter.doFilter(otherPrincipal, fifth, (req, res) -> { });
+    assertThat(fifth.getStatus()).isEqualTo(HttpStatus.OK.value());
+  }
+
+  @Test
+  @DisplayName("cost should charge listings more than lookups by id")
+  void costShouldChargeListingsMoreThanLookupsById() {
+    RateLimitFilter filter =
+        new RateLimitFilter(new TokenBuckets(1, 10), 10, 1, 2, 2, new SimpleMeterRegistry());
+
+    assertThat(filter.cost(listRequest())).isEqualTo(10);
+    assertThat(filter.cost(
+        new MockHttpServletRequest("GET", "/api/v1/products/" + UUID.randomUUID())))
+        .isEqualTo(1);
+    assertThat(filter.cost(new MockHttpServletRequest("GET", "/api/v1/products/search")))
+        .isEqualTo(10);
+    assertThat(filter.cost(new MockHttpServletRequest("POST", "/api/v1/products:lookup")))
+        .isEqualTo(10);
+    assertThat(filter.cost(new MockHttpServletRequest("PUT", "/api/v1/products/1")))
+        .isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("cost should charge batches per operation, estimated from their size")
+  void costShouldChargeBatchesPerOperation() {
+    RateLimitFilter filter =
+        new RateLimitFilter(new TokenBuckets(1, 10), 10, 1, 2, 3, new SimpleMeterRegistry());
+
+    MockHttpServletRequest small = new MockHttpServletRequest("POST", "/api/v1/products:batch");
+    small.setContent(new byte[10]);
+    assertThat(filter.cost(small)).isEqualTo(3);
+
+    MockHttpServletRequest large = new MockHttpServletRequest("POST", "/api/v1/products:batch");
+    large.setContent(new byte[500 * RateLimitFilter.BATCH_OPERATION_BYTES]);
+    assertThat(filter.cost(large)).isEqualTo(500 * 3);
+
+    // Without a Content-Length, the body could hold the largest batch.
+    MockHttpServletRequest unknown = new MockHttpServletRequest("POST", "/api/v1/products:batch");
+    assertThat(filter.cost(unknown)).isEqualTo(ProductBatchRequest.MAX_OPERATIONS * 3);
+  }
+
+  private static MockHttpServletRequest listRequest() {
+    return new MockHttpServletRequest("GET", "/api/v1/products");
+  }
+}